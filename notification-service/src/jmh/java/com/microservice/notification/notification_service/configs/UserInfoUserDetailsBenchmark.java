@@ -0,0 +1,33 @@
+package com.microservice.notification.notification_service.configs;
+
+import com.microservice.notification.notification_service.entities.UserInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building the {@link UserInfoUserDetails} loaded for every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInfoUserDetailsBenchmark {
+
+    private UserInfo userInfo;
+
+    @Setup
+    public void setUp() {
+        userInfo = new UserInfo();
+        userInfo.setName("client");
+        userInfo.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7zJ5e1b6ESTJ8bHv2c9Gk1a");
+        userInfo.setRole("ROLE_USER,ROLE_ADMIN");
+    }
+
+    @Benchmark
+    public UserInfoUserDetails buildUserDetails() {
+        return new UserInfoUserDetails(userInfo);
+    }
+}
@@ -0,0 +1,51 @@
+package com.microservice.notification.notification_service.consumers;
+
+import com.microservice.notification.notification_service.entities.FieldValidationError;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the message validation performed by the consumers on every consumed message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerValidationBenchmark {
+
+    private NotificationValidator validator;
+    private NotificationRequest smsMessage;
+    private NotificationRequest emailMessage;
+
+    @Setup
+    public void setUp() {
+        // The consumers delegate to the shared validator with their own stage
+        validator = new NotificationValidator();
+        smsMessage = new NotificationRequest();
+        smsMessage.setIdentifier("0b8f6a52-3c1e-4d0e-9a4f-6f3f0c2d9e71");
+        smsMessage.setNotificationType("SMS");
+        smsMessage.setPhone("+14155550100");
+        smsMessage.setNotificationContent("Your code is 123456.");
+        emailMessage = new NotificationRequest();
+        emailMessage.setIdentifier("5d1c0e8a-7b2f-4e6d-8c3a-1f9e2b7d4a60");
+        emailMessage.setNotificationType("EMAIL");
+        emailMessage.setEmail("recipient@example.com");
+        emailMessage.setNotificationContent("Your order has been shipped.");
+    }
+
+    @Benchmark
+    public List<FieldValidationError> validateSmsMessage() {
+        return validator.validate(smsMessage, NotificationValidator.Stage.SMS_CONSUMER);
+    }
+
+    @Benchmark
+    public List<FieldValidationError> validateEmailMessage() {
+        return validator.validate(emailMessage, NotificationValidator.Stage.EMAIL_CONSUMER);
+    }
+}
@@ -0,0 +1,57 @@
+package com.microservice.notification.notification_service.entities;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-message conversions: Gson serialization of {@link NotificationRequest}
+ * for Kafka in both directions, and building the {@link NotificationResponse} returned by the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final Gson gson = new Gson();
+    private NotificationRequest request;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        request = new NotificationRequest();
+        request.setId(42);
+        request.setIdentifier("0b8f6a52-3c1e-4d0e-9a4f-6f3f0c2d9e71");
+        request.setNotificationType("EMAIL");
+        request.setEmail("recipient@example.com");
+        request.setPriority("HIGH");
+        request.setNotificationContent("Your order has been shipped and will arrive within three business days.");
+        request.setContentHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        request.setStatus("RECEIVED");
+        request.setOwner("client");
+        request.setTraceparent("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        request.setReceivedAt(1760000000000L);
+        request.setCreatedAt(1760000000004L);
+        request.setUpdatedAt(1760000000004L);
+        json = gson.toJson(request);
+    }
+
+    @Benchmark
+    public String serializeRequest() {
+        return gson.toJson(request);
+    }
+
+    @Benchmark
+    public NotificationRequest deserializeRequest() {
+        return gson.fromJson(json, NotificationRequest.class);
+    }
+
+    @Benchmark
+    public NotificationResponse buildResponse() {
+        return NotificationResponse.getResponse(request);
+    }
+}
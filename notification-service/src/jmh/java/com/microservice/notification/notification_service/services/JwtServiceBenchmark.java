@@ -0,0 +1,44 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.UserInfoUserDetails;
+import com.microservice.notification.notification_service.entities.UserInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of JWT generation on authentication and JWT verification on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private UserInfoUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        UserInfo userInfo = new UserInfo();
+        userInfo.setName("client");
+        userInfo.setPassword("{noop}secret");
+        userInfo.setRole("ROLE_USER");
+        userDetails = new UserInfoUserDetails(userInfo);
+        token = jwtService.generateToken(userDetails.getUsername());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails.getUsername());
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,51 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.FieldValidationError;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the request validation performed by {@link NotificationService} on every publish.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationServiceBenchmark {
+
+    private NotificationService notificationService;
+    private NotificationRequest validRequest;
+    private NotificationRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        // Validation touches none of the collaborators
+        notificationService = new NotificationService(null, null, null, null, null, null, null, new NotificationValidator(), null, null, 500);
+        validRequest = new NotificationRequest();
+        validRequest.setNotificationType("EMAIL");
+        validRequest.setEmail("recipient@example.com");
+        validRequest.setPriority("HIGH");
+        validRequest.setNotificationContent("Your order has been shipped.");
+        validRequest.setCallbackUrl("https://client.example.com/callbacks/notifications");
+        invalidRequest = new NotificationRequest();
+        invalidRequest.setNotificationType("PIGEON");
+        invalidRequest.setEmail("recipient@example.com");
+        invalidRequest.setNotificationContent("Your order has been shipped.");
+    }
+
+    @Benchmark
+    public List<FieldValidationError> validateValidRequest() {
+        return notificationService.validate(validRequest);
+    }
+
+    @Benchmark
+    public List<FieldValidationError> validateInvalidRequest() {
+        return notificationService.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,339 @@
+package com.microservice.notification.notification_service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of the publish pipeline.
+ * <p>
+ * Boots the service against an embedded Kafka broker, the H2 store and a stub mail provider, then
+ * drives {@code /notification/publish} and {@code /auth/authenticate} at fixed open-model rates:
+ * requests are fired on schedule whether or not earlier ones have completed, and latency is
+ * measured from the scheduled send time so that a stalled server is not hidden by a stalled
+ * client. Once publishing stops, the test waits for the consumers to drain every accepted
+ * notification to its delivered status.
+ * </p>
+ * <p>
+ * Throughput, latency percentiles and drain time are written to
+ * {@code target/loadtest-result.properties} and compared with {@code loadtest-baseline.properties};
+ * the run fails when any of them is worse than the baseline by more than the tolerance.
+ * </p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+		"notification.retention.enabled=false",
+		// Per-request INFO logging through the forked test console would dominate the measurements
+		"logging.level.com.microservice.notification=WARN"
+})
+@EmbeddedKafka(partitions = 3, topics = {
+		NotificationConstants.SMS_KAFKA_TOPIC,
+		NotificationConstants.EMAIL_KAFKA_TOPIC,
+		NotificationConstants.WHATSAPP_KAFKA_TOPIC
+})
+class PublishLoadTest {
+
+	private static final HttpServer mailProvider = startMailProvider();
+	private static final Gson gson = new Gson();
+
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newFixedThreadPool(8))
+			.build();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	@DynamicPropertySource
+	static void mailProviderProperties(DynamicPropertyRegistry registry) {
+		registry.add("notification.email.provider-url",
+				() -> "http://localhost:" + mailProvider.getAddress().getPort() + "/send");
+	}
+
+	@AfterAll
+	static void stopMailProvider() {
+		mailProvider.stop(0);
+	}
+
+	@Test
+	void publishPipelineMeetsBaseline() throws Exception {
+		int publishRate = Integer.getInteger("loadtest.publish-rate", 20);
+		int authRate = Integer.getInteger("loadtest.auth-rate", 2);
+		Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+		Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+		Duration drainTimeout = Duration.ofSeconds(Integer.getInteger("loadtest.drain-timeout-seconds", 120));
+		double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.25"));
+
+		// Measure the pipeline rather than the breaker tripping on the simulated failures
+		circuitBreakerRegistry.circuitBreaker("notificationServiceCircuitBreaker").transitionToDisabledState();
+		String token = authenticate().join().body();
+		// Let the JIT, connection pools and Kafka metadata settle before measuring
+		runAtRate(publishRate, warmup, sequence -> publish(token, sequence), new Recorder(), body -> {
+		});
+		Queue<String> accepted = new ConcurrentLinkedQueue<>();
+		Recorder publishes = new Recorder();
+		Recorder authentications = new Recorder();
+
+		Thread authDriver = new Thread(() -> runAtRate(authRate, duration, sequence -> authenticate(), authentications,
+				body -> {
+				}), "auth-load-driver");
+		authDriver.start();
+		long started = System.nanoTime();
+		runAtRate(publishRate, duration, sequence -> publish(token, sequence), publishes,
+				body -> {
+					NotificationResponse response = gson.fromJson(body, NotificationResponse.class);
+					if (response != null && response.getIdentifier() != null) {
+						accepted.add(response.getIdentifier());
+					}
+				});
+		long publishedNanos = System.nanoTime() - started;
+		authDriver.join();
+
+		long drainStarted = System.nanoTime();
+		boolean drained = awaitDelivered(new ArrayList<>(accepted), drainTimeout);
+		long drainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - drainStarted);
+
+		Properties result = new Properties();
+		result.setProperty("publish.throughput", format(accepted.size() * 1e9 / publishedNanos));
+		result.setProperty("publish.p50-ms", format(publishes.percentile(0.50)));
+		result.setProperty("publish.p95-ms", format(publishes.percentile(0.95)));
+		result.setProperty("publish.p99-ms", format(publishes.percentile(0.99)));
+		result.setProperty("publish.errors", Long.toString(publishes.errors()));
+		result.setProperty("publish.accepted", Integer.toString(accepted.size()));
+		result.setProperty("auth.p50-ms", format(authentications.percentile(0.50)));
+		result.setProperty("auth.p99-ms", format(authentications.percentile(0.99)));
+		result.setProperty("drain-ms", Long.toString(drainMillis));
+		writeResult(result);
+		if (publishes.errors() > 0) {
+			System.out.println("Publish errors by reason: " + publishes.errorReasons());
+		}
+
+		assertTrue(drained, "Consumers did not drain " + accepted.size() + " notifications within " + drainTimeout);
+		List<String> regressions = compareWithBaseline(result, tolerance);
+		assertTrue(regressions.isEmpty(), "Load test regressed against baseline: " + regressions);
+	}
+
+	/**
+	 * Fires requests at a fixed rate, records their latency from their scheduled send time and
+	 * waits for every response.
+	 */
+	private void runAtRate(int rate, Duration duration, RequestFactory factory, Recorder recorder,
+						   Consumer<String> onSuccess) {
+		long count = Math.max(1, rate * duration.toSeconds());
+		long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		List<CompletableFuture<?>> inFlight = new ArrayList<>();
+		for (long sequence = 0; sequence < count; sequence++) {
+			long scheduled = start + sequence * periodNanos;
+			long wait = scheduled - System.nanoTime();
+			if (wait > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			inFlight.add(factory.send(sequence).whenComplete((response, error) -> {
+				long latency = System.nanoTime() - scheduled;
+				if (error == null && response.statusCode() == 200) {
+					recorder.record(latency);
+					onSuccess.accept(response.body());
+				} else {
+					recorder.error(error != null ? error.getClass().getSimpleName() : "HTTP " + response.statusCode());
+				}
+			}));
+		}
+		CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).exceptionally(error -> null).join();
+	}
+
+	private CompletableFuture<HttpResponse<String>> publish(String token, long sequence) {
+		JsonObject body = new JsonObject();
+		if (sequence % 2 == 0) {
+			body.addProperty("notificationType", "SMS");
+			body.addProperty("phone", "+1415555" + String.format("%04d", sequence % 10000));
+		} else {
+			body.addProperty("notificationType", "EMAIL");
+			body.addProperty("email", "recipient" + sequence + "@example.com");
+		}
+		body.addProperty("priority", sequence % 10 == 0 ? "HIGH" : "LOW");
+		body.addProperty("notificationContent", "Load test notification " + sequence);
+		HttpRequest request = HttpRequest.newBuilder(uri("/notification/publish"))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+				.build();
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private CompletableFuture<HttpResponse<String>> authenticate() {
+		HttpRequest request = HttpRequest.newBuilder(uri("/auth/authenticate"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"Satyam\",\"password\":\"pwd1\"}"))
+				.build();
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private boolean awaitDelivered(List<String> identifiers, Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		Set<String> pending = new HashSet<>(identifiers);
+		while (System.nanoTime() < deadline) {
+			List<String> batch = new ArrayList<>(pending);
+			for (int from = 0; from < batch.size(); from += 500) {
+				for (NotificationResponse status : notificationRepository.findStatusesByIdentifierIn(
+						batch.subList(from, Math.min(from + 500, batch.size())))) {
+					if (NotificationStatusEnum.DELEIVERED.name().equals(status.getStatus())) {
+						pending.remove(status.getIdentifier());
+					}
+				}
+			}
+			if (pending.isEmpty()) {
+				return true;
+			}
+			Thread.sleep(200);
+		}
+		return false;
+	}
+
+	private static List<String> compareWithBaseline(Properties result, double tolerance) throws IOException {
+		Properties baseline = new Properties();
+		try (InputStream in = PublishLoadTest.class.getResourceAsStream("/loadtest-baseline.properties")) {
+			if (in == null) {
+				return List.of();
+			}
+			baseline.load(in);
+		}
+		List<String> regressions = new ArrayList<>();
+		for (String key : baseline.stringPropertyNames()) {
+			double expected = Double.parseDouble(baseline.getProperty(key));
+			double actual = Double.parseDouble(result.getProperty(key));
+			// Throughput regresses downwards, latencies and drain time upwards
+			boolean regressed = key.endsWith("throughput")
+					? actual < expected * (1 - tolerance)
+					: actual > expected * (1 + tolerance);
+			if (regressed) {
+				regressions.add(key + "=" + result.getProperty(key) + " (baseline " + baseline.getProperty(key) + ")");
+			}
+		}
+		return regressions;
+	}
+
+	private static void writeResult(Properties result) throws IOException {
+		Path file = Paths.get("target", "loadtest-result.properties");
+		Files.createDirectories(file.getParent());
+		try (OutputStream out = Files.newOutputStream(file)) {
+			result.store(out, "Publish pipeline load test result");
+		}
+		System.out.println("Load test result: " + new TreeMap<>(result));
+	}
+
+	private static HttpServer startMailProvider() {
+		try {
+			long latencyMillis = Long.getLong("loadtest.provider-latency-ms", 5);
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.setExecutor(Executors.newFixedThreadPool(4));
+			server.createContext("/send", exchange -> {
+				try (InputStream body = exchange.getRequestBody()) {
+					body.transferTo(OutputStream.nullOutputStream());
+					Thread.sleep(latencyMillis);
+					exchange.sendResponseHeaders(200, -1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					exchange.close();
+				}
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not start the stub mail provider", e);
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+
+	@FunctionalInterface
+	private interface RequestFactory {
+		CompletableFuture<HttpResponse<String>> send(long sequence);
+	}
+
+	/**
+	 * Collects the latencies of successful requests and counts failed ones.
+	 */
+	private static final class Recorder {
+
+		private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+		private final LongAdder errors = new LongAdder();
+		private final Map<String, LongAdder> errorReasons = new ConcurrentSkipListMap<>();
+
+		void record(long latencyNanos) {
+			latencies.add(latencyNanos);
+		}
+
+		void error(String reason) {
+			errors.increment();
+			errorReasons.computeIfAbsent(reason, key -> new LongAdder()).increment();
+		}
+
+		Map<String, LongAdder> errorReasons() {
+			return errorReasons;
+		}
+
+		long errors() {
+			return errors.sum();
+		}
+
+		double percentile(double quantile) {
+			long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+	}
+}
@@ -2,9 +2,11 @@ package com.microservice.notification.notification_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
+@EnableScheduling
 //@EnableDiscoveryClient
 public class NotificationServiceApplication {
 
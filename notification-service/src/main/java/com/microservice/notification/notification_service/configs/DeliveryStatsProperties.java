@@ -0,0 +1,36 @@
+package com.microservice.notification.notification_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the per-minute delivery statistics.
+ * <p>
+ * The statistics are counted by a Kafka Streams application into a local window store, configured
+ * through {@code spring.kafka.streams}; these properties bound how late a record may still be
+ * counted, how long counts are kept, and how much a single query may cover.
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "notification.stats")
+public class DeliveryStatsProperties {
+
+    /**
+     * How long after the end of a minute late records are still counted in it.
+     */
+    private Duration grace = Duration.ofMinutes(5);
+
+    /**
+     * How long the counts of a minute are kept in the state store.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * The longest time range a single query may cover.
+     */
+    private Duration maxRange = Duration.ofDays(1);
+}
@@ -0,0 +1,55 @@
+package com.microservice.notification.notification_service.configs;
+
+import com.microservice.notification.notification_service.stats.DeliveryStatsTopology;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
+import org.apache.kafka.streams.kstream.KStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+/**
+ * Configuration class of the Kafka Streams application counting the delivery statistics.
+ * <p>
+ * The application is started with the context and keeps its counts in a RocksDB window store
+ * under {@code spring.kafka.streams.state-dir}, so a restart resumes from the local state and the
+ * changelog instead of recounting. The statistics are not critical to delivery, so a stream thread
+ * failing on an unexpected error is replaced rather than shutting the application down.
+ * </p>
+ */
+@Configuration
+@EnableKafkaStreams
+public class DeliveryStatsStreamsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryStatsStreamsConfig.class);
+
+    /**
+     * Declares the topology counting notifications per minute by channel, status and priority.
+     *
+     * @param builder    The builder of the Kafka Streams application.
+     * @param properties The statistics configuration.
+     * @return The stream of the keys counted into the queryable store.
+     */
+    @Bean
+    public KStream<String, String> deliveryStats(StreamsBuilder builder, DeliveryStatsProperties properties) {
+        logger.info("Counting delivery statistics per minute, kept for {} with a grace period of {}",
+                properties.getRetention(), properties.getGrace());
+        return DeliveryStatsTopology.build(builder, properties.getGrace(), properties.getRetention());
+    }
+
+    /**
+     * Replaces the stream threads that fail, logging the error.
+     *
+     * @return The configurer of the Kafka Streams factory bean.
+     */
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer deliveryStatsExceptionHandler() {
+        return factoryBean -> factoryBean.setStreamsUncaughtExceptionHandler(exception -> {
+            logger.error("Delivery statistics stream thread failed, replacing it", exception);
+            return StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse.REPLACE_THREAD;
+        });
+    }
+}
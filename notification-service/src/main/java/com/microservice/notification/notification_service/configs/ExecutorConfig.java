@@ -0,0 +1,102 @@
+package com.microservice.notification.notification_service.configs;
+
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the executors used by background work in the service.
+ * <p>
+ * Each executor is bounded so that background processing cannot starve the request threads.
+ * </p>
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    /**
+     * Creates the executor that expands campaign recipient lists into notifications.
+     *
+     * @param threads   the number of campaigns that may be expanded concurrently.
+     * @param queueSize the number of campaigns that may wait for an expansion thread.
+     * @return a configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "campaignExecutor")
+    public ThreadPoolTaskExecutor campaignExecutor(@Value("${notification.campaign.expansion-threads:2}") int threads,
+                                                   @Value("${notification.campaign.queue-size:100}") int queueSize) {
+        logger.info("Creating campaign executor with {} threads", threads);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueSize);
+        executor.setThreadNamePrefix("campaign-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the executor running stuck-notification scans and administrator re-drive jobs one at a time.
+     *
+     * @param queueSize the number of re-drive jobs that may wait for the re-drive thread.
+     * @return a configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "redriveExecutor")
+    public ThreadPoolTaskExecutor redriveExecutor(@Value("${notification.redrive.queue-size:10}") int queueSize) {
+        logger.info("Creating re-drive executor with a queue of {} jobs", queueSize);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueSize);
+        executor.setThreadNamePrefix("redrive-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the executor running retention purges, so their batches and pauses never hold up the scheduler.
+     *
+     * @return a configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean(name = "retentionExecutor")
+    public ThreadPoolTaskExecutor retentionExecutor() {
+        logger.info("Creating retention executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("retention-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the executor processing email records, sized to the number of concurrent requests
+     * the email provider accepts rather than to the partitions of the email topic.
+     *
+     * @param parallelism the number of email records that may be processed concurrently.
+     * @return a {@link KeyOrderedExecutor} keeping the records of a recipient in order.
+     */
+    @Bean(name = "emailListenerExecutor")
+    public KeyOrderedExecutor emailListenerExecutor(@Value("${notification.consumers.email.parallelism:8}") int parallelism) {
+        logger.info("Creating email listener executor with parallelism {}", parallelism);
+        return new KeyOrderedExecutor("email-listener", parallelism);
+    }
+
+    /**
+     * Creates the executor processing SMS records.
+     *
+     * @param parallelism the number of SMS records that may be processed concurrently.
+     * @return a {@link KeyOrderedExecutor} keeping the records of a recipient in order.
+     */
+    @Bean(name = "smsListenerExecutor")
+    public KeyOrderedExecutor smsListenerExecutor(@Value("${notification.consumers.sms.parallelism:1}") int parallelism) {
+        logger.info("Creating SMS listener executor with parallelism {}", parallelism);
+        return new KeyOrderedExecutor("sms-listener", parallelism);
+    }
+}
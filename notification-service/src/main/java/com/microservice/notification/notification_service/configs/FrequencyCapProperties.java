@@ -0,0 +1,76 @@
+package com.microservice.notification.notification_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration properties for capping how many notifications a recipient receives per channel.
+ * <p>
+ * Each channel can have a cap of at most {@code limit} notifications per recipient within a
+ * sliding {@code window}. The limit can be overridden per priority, for instance to let more
+ * urgent notifications through; every priority counts against the same window. Channels without
+ * a cap, and priorities whose limit is zero, are not capped. Capping is off unless enabled, and
+ * no channel is capped unless configured.
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "notification.frequency-cap")
+public class FrequencyCapProperties {
+
+    /**
+     * Whether notifications are capped per recipient.
+     */
+    private boolean enabled;
+
+    /**
+     * The maximum number of recipient and channel pairs tracked at once, bounding the memory of the counters.
+     */
+    private int maxRecipients = 1 << 20;
+
+    /**
+     * The caps, keyed by channel.
+     */
+    private Map<String, Cap> channels = new HashMap<>();
+
+    /**
+     * The cap of one channel.
+     */
+    @Data
+    public static class Cap {
+
+        /**
+         * The maximum number of notifications a recipient receives within the window; zero for no cap.
+         */
+        private int limit;
+
+        /**
+         * The length of the sliding window.
+         */
+        private Duration window = Duration.ofHours(1);
+
+        /**
+         * Per-priority overrides of the limit, keyed by priority.
+         */
+        private Map<String, Integer> priorityLimits = new HashMap<>();
+
+        /**
+         * Returns the limit applying to a priority.
+         *
+         * @param priority The priority of the notification, or null.
+         * @return The limit, or zero if notifications of the priority are not capped.
+         */
+        public int limitFor(String priority) {
+            if (priority == null || priorityLimits.isEmpty()) {
+                return limit;
+            }
+            return priorityLimits.getOrDefault(priority.toLowerCase(Locale.ROOT), limit);
+        }
+    }
+}
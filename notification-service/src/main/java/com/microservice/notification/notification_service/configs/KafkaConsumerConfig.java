@@ -0,0 +1,46 @@
+package com.microservice.notification.notification_service.configs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Configuration class for the Kafka listener containers of the notification channels.
+ * <p>
+ * The channel listeners hand their records to a key-ordered executor and acknowledge each record
+ * once it has been processed, so records of a partition complete out of order. The containers
+ * therefore use manual acknowledgment with asynchronous acks: offsets are committed only up to the
+ * lowest record not yet acknowledged, and the consumer pauses fetching until the records of the
+ * last poll have all been acknowledged, which bounds the records in flight to one poll.
+ * </p>
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    public static final String KEY_ORDERED_CONTAINER_FACTORY = "keyOrderedContainerFactory";
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+    /**
+     * Creates the container factory of the listeners processing records out of order.
+     *
+     * @param configurer      the configurer applying the {@code spring.kafka.listener} properties.
+     * @param consumerFactory the consumer factory configured from the {@code spring.kafka.consumer} properties.
+     * @return a {@link ConcurrentKafkaListenerContainerFactory} with out-of-order acknowledgment.
+     */
+    @Bean(name = KEY_ORDERED_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> keyOrderedContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        logger.info("Creating key-ordered Kafka listener container factory");
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+}
@@ -0,0 +1,51 @@
+package com.microservice.notification.notification_service.configs;
+
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+/**
+ * Configuration class declaring the Kafka topics of the notification channels and of the status
+ * transitions.
+ * <p>
+ * A listener never runs more consumers than its topic has partitions, so each channel topic is
+ * created with enough partitions for the configured listener concurrency. Topics that already
+ * exist are left unchanged.
+ * </p>
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaTopicConfig.class);
+
+    @Value("${notification.kafka.partitions:6}")
+    private int partitions;
+
+    @Value("${notification.kafka.replicas:1}")
+    private int replicas;
+
+    /**
+     * Declares the channel topics, created by the {@link KafkaAdmin} on startup when missing.
+     *
+     * @return the topics of every notification channel, and the topic of the status transitions.
+     */
+    @Bean
+    public KafkaAdmin.NewTopics notificationTopics() {
+        logger.info("Declaring notification topics with {} partitions", partitions);
+        return new KafkaAdmin.NewTopics(
+                topic(NotificationConstants.SMS_KAFKA_TOPIC),
+                topic(NotificationConstants.EMAIL_KAFKA_TOPIC),
+                topic(NotificationConstants.WHATSAPP_KAFKA_TOPIC),
+                topic(NotificationConstants.STATUS_KAFKA_TOPIC));
+    }
+
+    private NewTopic topic(String name) {
+        return TopicBuilder.name(name).partitions(partitions).replicas(replicas).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.microservice.notification.notification_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration properties for re-driving notifications that are stuck before delivery.
+ * <p>
+ * A notification is stuck once it has stayed in {@code RECEIVED} longer than the threshold of its
+ * channel. Thresholds can be overridden per channel; a channel whose threshold is zero is never
+ * reaped.
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "notification.redrive")
+public class RedriveProperties {
+
+    /**
+     * Whether stuck notifications are re-driven in the background.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a notification may stay in {@code RECEIVED} before it is considered stuck.
+     */
+    private Duration stuckAfter = Duration.ofMinutes(15);
+
+    /**
+     * Per-channel overrides of the stuck threshold, keyed by channel.
+     */
+    private Map<String, Duration> channelStuckAfter = new HashMap<>();
+
+    /**
+     * The maximum number of notifications read and re-sent as one batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * The maximum number of notifications re-driven per second, by the reaper and by each re-drive job.
+     */
+    private int rate = 200;
+
+    /**
+     * The number of times the reaper re-drives a notification before marking it undelivered.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Returns the stuck threshold of a channel.
+     *
+     * @param channel The channel of the notifications.
+     * @return The threshold, or null if stuck notifications of the channel are not reaped.
+     */
+    public Duration stuckAfterFor(String channel) {
+        Duration threshold = channelStuckAfter.getOrDefault(channel.toLowerCase(Locale.ROOT), stuckAfter);
+        return threshold == null || threshold.isZero() ? null : threshold;
+    }
+}
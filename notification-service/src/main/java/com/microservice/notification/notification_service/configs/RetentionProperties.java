@@ -0,0 +1,73 @@
+package com.microservice.notification.notification_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration properties for the retention of notifications in a terminal status.
+ * <p>
+ * Retention windows are configured per status, and can be overridden per channel and status.
+ * A status without a window is never purged.
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "notification.retention")
+public class RetentionProperties {
+
+    /**
+     * Whether expired notifications are purged at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The maximum number of notifications deleted by a single statement.
+     */
+    private int batchSize = 500;
+
+    /**
+     * The pause between two delete batches, leaving room for the request path.
+     */
+    private Duration batchPause = Duration.ofMillis(50);
+
+    /**
+     * The retention window per status, keyed by status.
+     */
+    private Map<String, Duration> windows = new HashMap<>();
+
+    /**
+     * Per-channel overrides of the retention windows, keyed by channel then status.
+     */
+    private Map<String, Map<String, Duration>> channelWindows = new HashMap<>();
+
+    /**
+     * Whether purged notifications are archived to local files before being deleted.
+     */
+    private boolean archiveEnabled = false;
+
+    /**
+     * The directory holding the archive files.
+     */
+    private String archiveDir = System.getProperty("java.io.tmpdir") + "/notification-archive";
+
+    /**
+     * Returns the retention window of notifications in a given status and channel.
+     *
+     * @param status  The status of the notifications.
+     * @param channel The channel of the notifications.
+     * @return The retention window, or null if such notifications are kept forever.
+     */
+    public Duration windowFor(String status, String channel) {
+        Map<String, Duration> overrides = channelWindows.get(channel.toLowerCase(Locale.ROOT));
+        if (overrides != null && overrides.containsKey(status.toLowerCase(Locale.ROOT))) {
+            return overrides.get(status.toLowerCase(Locale.ROOT));
+        }
+        return windows.get(status.toLowerCase(Locale.ROOT));
+    }
+}
@@ -2,6 +2,7 @@ package com.microservice.notification.notification_service.configs;
 
 import com.microservice.notification.notification_service.filter.JwtAuthFilter;
 import com.microservice.notification.notification_service.services.UserInfoUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -80,9 +81,12 @@ public class SecurityConfig {
         logger.info("Configuring SecurityFilterChain");
         return http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Streamed responses were authorized on the initial dispatch
                         .requestMatchers("/auth/authenticate").permitAll()
                         .requestMatchers("/actuator/circuitbreakers").permitAll()
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**", "/actuator/pipeline").authenticated()
                         .requestMatchers("/h2-console/**").permitAll()
+                        .requestMatchers("/notification/admin/**").hasRole("ADMIN")
                         .requestMatchers("/notification/**").authenticated())
                 .sessionManagement(Customizer.withDefaults())
                 .authenticationProvider(authenticationProvider())
@@ -0,0 +1,8 @@
+package com.microservice.notification.notification_service.constants;
+
+public enum CampaignStatusEnum {
+    RECEIVED,
+    EXPANDING,
+    COMPLETED,
+    FAILED
+}
@@ -6,5 +6,8 @@ public class NotificationConstants {
     public static final String SMS_KAFKA_TOPIC = "SMS_TOPIC";
     public static final String EMAIL_KAFKA_TOPIC = "EMAIL_TOPIC";
     public static final String WHATSAPP_KAFKA_TOPIC = "WHATSAPP_TOPIC";
+    public static final String STATUS_KAFKA_TOPIC = "NOTIFICATION_STATUS_TOPIC";
+    public static final String SMS_LISTENER_ID = "sms-consumer";
+    public static final String EMAIL_LISTENER_ID = "email-consumer";
 
 }
@@ -0,0 +1,30 @@
+package com.microservice.notification.notification_service.constants;
+
+import java.util.Locale;
+
+public enum NotificationPriorityEnum {
+    HIGH,
+    LOW,
+    OTHER;
+
+    /**
+     * Maps a free-form priority onto the known priorities, so that it can tag metrics and key
+     * aggregates without creating a series for every value a client sends.
+     *
+     * @param priority The priority of a notification, possibly null.
+     * @return The matching priority, or {@link #OTHER} if the priority is missing or unknown.
+     */
+    public static NotificationPriorityEnum of(String priority) {
+        if (priority != null) {
+            switch (priority.trim().toUpperCase(Locale.ROOT)) {
+                case "HIGH":
+                    return HIGH;
+                case "LOW":
+                    return LOW;
+                default:
+                    break;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -3,5 +3,7 @@ package com.microservice.notification.notification_service.constants;
 public enum NotificationStatusEnum {
     RECEIVED,
     DELEIVERED,
-    UNDELEIVERED
+    UNDELEIVERED,
+    SUPPRESSED,
+    CAPPED
 }
@@ -2,17 +2,42 @@ package com.microservice.notification.notification_service.consumers;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.microservice.notification.notification_service.configs.KafkaConsumerConfig;
 import com.microservice.notification.notification_service.constants.NotificationConstants;
 import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
-import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.FieldValidationError;
 import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.services.ClaimCheckService;
+import com.microservice.notification.notification_service.services.ContentStore;
+import com.microservice.notification.notification_service.services.DeliveryTrackingService;
+import com.microservice.notification.notification_service.services.StatusStreamService;
+import com.microservice.notification.notification_service.services.StatusWriteBehind;
+import com.microservice.notification.notification_service.services.WebhookDispatcher;
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.TraceContext;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 /**
  * Consumer service for processing email notifications from Kafka.
  * <p>
@@ -24,33 +49,104 @@ import org.springframework.web.client.RestTemplate;
 public class EmailConsumer {
 
     private static final Logger logger = LogManager.getLogger(EmailConsumer.class);
+    private static final String TRACE_ID = "traceId";
     private final Gson gson = new Gson();
 
     @Autowired
-    private NotificationRepository notificationRepository;
+    private StatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private DeliveryTrackingService deliveryTrackingService;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private StatusStreamService statusStreamService;
+
+    @Autowired
+    private WebhookDispatcher webhookDispatcher;
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private NotificationValidator validator;
+
+    @Autowired
+    @Qualifier("emailListenerExecutor")
+    private KeyOrderedExecutor listenerExecutor;
+
+    @Value("${notification.email.provider-url:https://api.maildelivery.com/send}")
+    private String emailApiUrl;
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private ClaimCheckService claimCheckService;
+
+    /**
+     * Kafka listener for email messages, handing each record to the listener executor.
+     * <p>
+     * Records of different recipients are processed concurrently, and records of one recipient in
+     * the order they were published. Each record is acknowledged once processed and its status
+     * written, and the container commits offsets only up to the lowest record not yet acknowledged.
+     * </p>
+     *
+     * @param record         The Kafka record carrying the raw message in JSON format.
+     * @param acknowledgment The acknowledgment marking the record as processed.
+     */
+    @KafkaListener(id = NotificationConstants.EMAIL_LISTENER_ID, topics = NotificationConstants.EMAIL_KAFKA_TOPIC,
+            groupId = "${notification.consumers.email.group-id:email-notification-consumer-group}",
+            concurrency = "${notification.consumers.email.concurrency:1}",
+            containerFactory = KafkaConsumerConfig.KEY_ORDERED_CONTAINER_FACTORY)
+    public void consume(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        listenerExecutor.execute(record.key(), () -> process(record, acknowledgment));
+    }
+
     /**
-     * Kafka listener for processing messages from the EMAIL Kafka topic.
+     * Processes a record from the EMAIL Kafka topic.
+     * <p>
+     * The record is acknowledged once its status update has been written by the write-behind
+     * updater, or immediately when the message is rejected.
+     * </p>
      *
-     * @param message The raw Kafka message in JSON format.
+     * @param record         The Kafka record carrying the raw message in JSON format.
+     * @param acknowledgment The acknowledgment marking the record as processed.
      */
-    @KafkaListener(topics = NotificationConstants.EMAIL_KAFKA_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(String message) {
+    private void process(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        String message = record.value();
         logger.info("Received message from EMAIL Kafka topic: {}", message);
+        Timer.Sample sample = notificationMetrics.start(NotificationMetrics.CONSUME);
+        NotificationRequest notificationRequest = null;
+        String outcome = NotificationMetrics.FAILURE;
+        boolean acknowledgeOnWrite = false;
         try {
             // Deserialize the JSON message to a NotificationRequest object
-            NotificationRequest notificationRequest = gson.fromJson(message, NotificationRequest.class);
+            notificationRequest = gson.fromJson(message, NotificationRequest.class);
+            if (notificationRequest != null) {
+                // Continue the trace of the publisher and restore the stage timestamps from the headers
+                PipelineHeaders.apply(record, notificationRequest);
+                ThreadContext.put(TRACE_ID, TraceContext.traceId(notificationRequest.getTraceparent()));
+            }
+            // Resolve the body through the content store when the message carries only its hash
+            contentStore.hydrate(notificationRequest);
 
             // Validate the message content
             if (validate(notificationRequest)) {
-                // Deliver email using third-party API
-                sendEmail(notificationRequest);
-                // Update notification status to "DELIVERED"
-                updateNotificationStatus(notificationRequest.getIdentifier(), NotificationStatusEnum.DELEIVERED.name());
-                logger.info("Email delivered and status updated for identifier: {}", notificationRequest.getIdentifier());
+                // Deliver email using third-party API and queue the outcome, acknowledging the record once it has been written
+                if (sendEmail(notificationRequest)) {
+                    updateNotificationStatus(notificationRequest, NotificationStatusEnum.DELEIVERED.name(), "Accepted by email provider",
+                            acknowledgment);
+                    outcome = NotificationMetrics.SUCCESS;
+                    logger.info("Email delivered and status queued for identifier: {}", notificationRequest.getIdentifier());
+                } else {
+                    updateNotificationStatus(notificationRequest, NotificationStatusEnum.UNDELEIVERED.name(), "Email provider call failed",
+                            acknowledgment);
+                    logger.warn("Email not delivered, status queued for identifier: {}", notificationRequest.getIdentifier());
+                }
+                acknowledgeOnWrite = true;
             } else {
                 logger.warn("Validation failed for message: {}", message);
             }
@@ -58,71 +154,99 @@ public class EmailConsumer {
             logger.error("Invalid message format received: {}", message, e);
         } catch (Exception e) {
             logger.error("Unexpected error while processing EMAIL message: {}", message, e);
+        } finally {
+            if (!acknowledgeOnWrite) {
+                acknowledgment.acknowledge();
+            }
+            notificationMetrics.stop(sample, NotificationMetrics.CONSUME, NotificationTypeEnum.EMAIL.name(),
+                    notificationRequest == null ? null : notificationRequest.getPriority(), outcome);
+            ThreadContext.remove(TRACE_ID);
         }
     }
 
     /**
      * Sends an email using a third-party email delivery service.
+     * <p>
+     * When the body was offloaded to the blob store, it is streamed from the blob store straight
+     * into the provider request instead of being loaded into memory. The trace context is passed on
+     * to the provider, and the time the provider accepted the email is stamped on the notification.
+     * </p>
      *
      * @param notificationRequest The notification details containing the recipient, subject, and message body.
+     * @return true if the provider accepted the email; false if the call failed.
      */
-    private void sendEmail(NotificationRequest notificationRequest) {
+    private boolean sendEmail(NotificationRequest notificationRequest) {
         logger.info("Sending email to recipient: {}", notificationRequest.getEmail());
-        String emailApiUrl = "https://api.maildelivery.com/send";
-        String payload = gson.toJson(notificationRequest);
-
+        String traceparent = TraceContext.continueOrStart(notificationRequest.getTraceparent());
+        Timer.Sample sample = notificationMetrics.start(NotificationMetrics.PROVIDER_CALL);
+        String outcome = NotificationMetrics.FAILURE;
         try {
-            restTemplate.postForEntity(emailApiUrl, payload, String.class);
+            if (notificationRequest.getContentRef() != null) {
+                byte[] envelope = claimCheckService.envelope(notificationRequest);
+                long contentLength = claimCheckService.jsonLength(notificationRequest, envelope);
+                restTemplate.execute(emailApiUrl, HttpMethod.POST, request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    request.getHeaders().setContentLength(contentLength);
+                    request.getHeaders().set(TraceContext.TRACEPARENT, traceparent);
+                    claimCheckService.writeJson(notificationRequest, envelope, request.getBody());
+                }, response -> null);
+                claimCheckService.release(notificationRequest);
+            } else {
+                String payload = gson.toJson(notificationRequest);
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(TraceContext.TRACEPARENT, traceparent);
+                restTemplate.postForEntity(emailApiUrl, new HttpEntity<>(payload, headers), String.class);
+            }
+            notificationRequest.setProviderAcceptedAt(System.currentTimeMillis());
+            outcome = NotificationMetrics.SUCCESS;
             logger.info("Email sent successfully to: {}", notificationRequest.getEmail());
+            return true;
         } catch (Exception ex) {
             logger.error("Error while sending email to: {}", notificationRequest.getEmail(), ex);
+            return false;
+        } finally {
+            notificationMetrics.stop(sample, NotificationMetrics.PROVIDER_CALL, NotificationTypeEnum.EMAIL.name(),
+                    notificationRequest.getPriority(), outcome);
         }
     }
 
     /**
-     * Validates the NotificationRequest object to ensure all required fields are present.
+     * Validates the NotificationRequest object against the rules shared with the publish API.
      *
      * @param notificationRequest The deserialized NotificationRequest object.
      * @return true if the request is valid; false otherwise.
      */
-    private boolean validate(NotificationRequest notificationRequest) {
-        if (notificationRequest == null) {
-            logger.error("Validation failed: NotificationRequest is null");
-            return false;
-        }
-
-        if (notificationRequest.getIdentifier() == null || notificationRequest.getIdentifier().isEmpty()) {
-            logger.error("Validation failed: Identifier is missing");
-            return false;
-        }
-
-        if (notificationRequest.getEmail() == null || notificationRequest.getEmail().isEmpty()) {
-            logger.error("Validation failed: Recipient email is missing");
+    boolean validate(NotificationRequest notificationRequest) {
+        List<FieldValidationError> errors = validator.validate(notificationRequest, NotificationValidator.Stage.EMAIL_CONSUMER);
+        if (!errors.isEmpty()) {
+            logger.error("Validation failed: {}", errors);
             return false;
         }
-
-        if (notificationRequest.getNotificationContent() == null || notificationRequest.getNotificationContent().isEmpty()) {
-            logger.error("Validation failed: Email message content is missing");
-            return false;
-        }
-
         return true;
     }
 
     /**
-     * Updates the notification status in the database.
-     * If the notification with the given identifier is not found, logs a warning.
+     * Queues a status update of the notification with the write-behind updater.
+     * <p>
+     * Once the status has been written, it is recorded for delivery tracking, pushed to status
+     * stream subscribers and callback URLs, and the Kafka record is acknowledged.
+     * </p>
      *
-     * @param identifier The unique identifier of the notification.
-     * @param status     The new status to set for the notification (e.g., DELIVERED).
+     * @param notificationRequest The notification whose status changed.
+     * @param status              The new status to set for the notification (e.g., DELIVERED).
+     * @param reason              Why the notification moved to the status.
+     * @param acknowledgment      The acknowledgment of the Kafka record carrying the notification.
      */
-    private void updateNotificationStatus(String identifier, String status) {
-        notificationRepository.findByIdentifier(identifier).ifPresentOrElse(notification -> {
-            notification.setStatus(status);
-            notificationRepository.save(notification);
-            logger.info("Status updated successfully for identifier: {}", identifier);
-        }, () -> {
-            logger.warn("Notification with identifier {} not found in the database.", identifier);
+    private void updateNotificationStatus(NotificationRequest notificationRequest, String status, String reason,
+                                          Acknowledgment acknowledgment) {
+        statusWriteBehind.enqueue(notificationRequest, status, reason, () -> {
+            try {
+                deliveryTrackingService.recordStatus(notificationRequest, status);
+                statusStreamService.publish(notificationRequest, status);
+                webhookDispatcher.enqueue(notificationRequest, status);
+            } finally {
+                acknowledgment.acknowledge();
+            }
         });
     }
 }
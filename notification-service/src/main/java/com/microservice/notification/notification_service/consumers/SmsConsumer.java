@@ -2,16 +2,35 @@ package com.microservice.notification.notification_service.consumers;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.microservice.notification.notification_service.configs.KafkaConsumerConfig;
 import com.microservice.notification.notification_service.constants.NotificationConstants;
 import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
-import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.FieldValidationError;
 import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.services.ContentStore;
+import com.microservice.notification.notification_service.services.DeliveryTrackingService;
+import com.microservice.notification.notification_service.services.StatusStreamService;
+import com.microservice.notification.notification_service.services.StatusWriteBehind;
+import com.microservice.notification.notification_service.services.WebhookDispatcher;
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.TraceContext;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Consumer service for processing SMS notifications from Kafka.
  * <p>
@@ -23,29 +42,90 @@ import org.springframework.stereotype.Service;
 public class SmsConsumer {
 
     private static final Logger logger = LogManager.getLogger(SmsConsumer.class);
+    private static final String TRACE_ID = "traceId";
     private final Gson gson = new Gson();
 
     @Autowired
-    private NotificationRepository notificationRepository;
+    private StatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private DeliveryTrackingService deliveryTrackingService;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private StatusStreamService statusStreamService;
+
+    @Autowired
+    private WebhookDispatcher webhookDispatcher;
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private NotificationValidator validator;
+
+    @Autowired
+    @Qualifier("smsListenerExecutor")
+    private KeyOrderedExecutor listenerExecutor;
 
     /**
-     * Kafka listener for processing SMS messages from the Kafka topic.
+     * Kafka listener for SMS messages, handing each record to the listener executor.
+     * <p>
+     * Records of different recipients are processed concurrently, and records of one recipient in
+     * the order they were published. Each record is acknowledged once processed and its status
+     * written, and the container commits offsets only up to the lowest record not yet acknowledged.
+     * </p>
      *
-     * @param message The raw Kafka message in JSON format.
+     * @param record         The Kafka record carrying the raw message in JSON format.
+     * @param acknowledgment The acknowledgment marking the record as processed.
      */
-    @KafkaListener(topics = NotificationConstants.SMS_KAFKA_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(String message) {
+    @KafkaListener(id = NotificationConstants.SMS_LISTENER_ID, topics = NotificationConstants.SMS_KAFKA_TOPIC,
+            groupId = "${notification.consumers.sms.group-id:sms-notification-consumer-group}",
+            concurrency = "${notification.consumers.sms.concurrency:1}",
+            containerFactory = KafkaConsumerConfig.KEY_ORDERED_CONTAINER_FACTORY)
+    public void consume(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        listenerExecutor.execute(record.key(), () -> process(record, acknowledgment));
+    }
+
+    /**
+     * Processes a record from the SMS Kafka topic.
+     * <p>
+     * The record is acknowledged once its status update has been written by the write-behind
+     * updater, or immediately when the message is rejected.
+     * </p>
+     *
+     * @param record         The Kafka record carrying the raw message in JSON format.
+     * @param acknowledgment The acknowledgment marking the record as processed.
+     */
+    private void process(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        String message = record.value();
         logger.info("Received message from Kafka: {}", message);
 
+        Timer.Sample sample = notificationMetrics.start(NotificationMetrics.CONSUME);
+        NotificationRequest notificationRequest = null;
+        String outcome = NotificationMetrics.FAILURE;
+        boolean acknowledgeOnWrite = false;
         try {
             // Deserialize the JSON message into a NotificationRequest object
-            NotificationRequest notificationRequest = gson.fromJson(message, NotificationRequest.class);
+            notificationRequest = gson.fromJson(message, NotificationRequest.class);
+            if (notificationRequest != null) {
+                // Continue the trace of the publisher and restore the stage timestamps from the headers
+                PipelineHeaders.apply(record, notificationRequest);
+                ThreadContext.put(TRACE_ID, TraceContext.traceId(notificationRequest.getTraceparent()));
+            }
+            // Resolve the body through the content store when the message carries only its hash
+            contentStore.hydrate(notificationRequest);
 
             // Validate the message content
             if (validate(notificationRequest)) {
-                // Update the notification status to "DELIVERED"
-                updateNotificationStatus(notificationRequest.getIdentifier(), NotificationStatusEnum.DELEIVERED.name());
-                logger.info("Notification status updated to DELIVERED for identifier: {}", notificationRequest.getIdentifier());
+                // Queue the "DELIVERED" status, acknowledging the record once it has been written
+                updateNotificationStatus(notificationRequest, NotificationStatusEnum.DELEIVERED.name(), "Processed by SMS consumer",
+                        acknowledgment);
+                acknowledgeOnWrite = true;
+                outcome = NotificationMetrics.SUCCESS;
+                logger.info("Notification status DELIVERED queued for identifier: {}", notificationRequest.getIdentifier());
             } else {
                 logger.warn("Validation failed for message: {}", message);
             }
@@ -53,56 +133,53 @@ public class SmsConsumer {
             logger.error("Invalid message format received: {}", message, e);
         } catch (Exception e) {
             logger.error("Unexpected error while processing message: {}", message, e);
+        } finally {
+            if (!acknowledgeOnWrite) {
+                acknowledgment.acknowledge();
+            }
+            notificationMetrics.stop(sample, NotificationMetrics.CONSUME, NotificationTypeEnum.SMS.name(),
+                    notificationRequest == null ? null : notificationRequest.getPriority(), outcome);
+            ThreadContext.remove(TRACE_ID);
         }
     }
 
     /**
-     * Validates the NotificationRequest object to ensure all required fields are present.
+     * Validates the NotificationRequest object against the rules shared with the publish API.
      *
      * @param notificationRequest The deserialized NotificationRequest object.
      * @return true if the request is valid; false otherwise.
      */
-    private boolean validate(NotificationRequest notificationRequest) {
-        if (notificationRequest == null) {
-            logger.error("Validation failed: NotificationRequest is null");
-            return false;
-        }
-
-        if (notificationRequest.getIdentifier() == null || notificationRequest.getIdentifier().isEmpty()) {
-            logger.error("Validation failed: Identifier is missing");
+    boolean validate(NotificationRequest notificationRequest) {
+        List<FieldValidationError> errors = validator.validate(notificationRequest, NotificationValidator.Stage.SMS_CONSUMER);
+        if (!errors.isEmpty()) {
+            logger.error("Validation failed: {}", errors);
             return false;
         }
-
-        if (notificationRequest.getNotificationType() == null || notificationRequest.getNotificationType().isEmpty()) {
-            logger.error("Validation failed: Notification type is missing");
-            return false;
-        }
-
-        if ((notificationRequest.getPhone() == null || notificationRequest.getPhone().isEmpty()) &&
-                (notificationRequest.getEmail() == null || notificationRequest.getEmail().isEmpty())) {
-            logger.error("Validation failed: Recipient information (phone/email) is missing");
-            return false;
-        }
-
         return true;
     }
 
     /**
-     * Updates the notification status in the database.
+     * Queues a status update of the notification with the write-behind updater.
      * <p>
-     * If the notification with the given identifier is not found, logs a warning.
+     * Once the status has been written, it is recorded for delivery tracking, pushed to status
+     * stream subscribers and callback URLs, and the Kafka record is acknowledged.
      * </p>
      *
-     * @param identifier The unique identifier of the notification.
-     * @param status     The new status to set for the notification (e.g., DELIVERED).
+     * @param notificationRequest The notification whose status changed.
+     * @param status              The new status to set for the notification (e.g., DELIVERED).
+     * @param reason              Why the notification moved to the status.
+     * @param acknowledgment      The acknowledgment of the Kafka record carrying the notification.
      */
-    private void updateNotificationStatus(String identifier, String status) {
-        notificationRepository.findByIdentifier(identifier).ifPresentOrElse(notification -> {
-            notification.setStatus(status);
-            notificationRepository.save(notification);
-            logger.info("Status updated successfully for identifier: {}", identifier);
-        }, () -> {
-            logger.warn("Notification with identifier {} not found in the database.", identifier);
+    private void updateNotificationStatus(NotificationRequest notificationRequest, String status, String reason,
+                                          Acknowledgment acknowledgment) {
+        statusWriteBehind.enqueue(notificationRequest, status, reason, () -> {
+            try {
+                deliveryTrackingService.recordStatus(notificationRequest, status);
+                statusStreamService.publish(notificationRequest, status);
+                webhookDispatcher.enqueue(notificationRequest, status);
+            } finally {
+                acknowledgment.acknowledge();
+            }
         });
     }
 }
@@ -0,0 +1,156 @@
+package com.microservice.notification.notification_service.controllers;
+
+import com.microservice.notification.notification_service.entities.Campaign;
+import com.microservice.notification.notification_service.entities.CampaignRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.services.CampaignService;
+import com.microservice.notification.notification_service.services.DeliveryTrackingService;
+import com.microservice.notification.notification_service.utils.TraceContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.security.Principal;
+
+/**
+ * REST controller for managing campaigns.
+ * <p>
+ * Provides endpoints to create a campaign from shared content plus a streamed recipient list,
+ * and to follow the progress of its expansion into per-recipient notifications.
+ * </p>
+ */
+@RestController
+@RequestMapping("/notification/campaign")
+public class CampaignController {
+
+    private static final Logger logger = LogManager.getLogger(CampaignController.class);
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private DeliveryTrackingService deliveryTrackingService;
+
+    @Value("${notification.search.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Endpoint to create a new campaign.
+     *
+     * @param campaignRequest The campaign details shared by all recipients.
+     * @param recipients      The uploaded recipient list, one phone number or email address per line.
+     * @param principal       The authenticated client creating the campaign.
+     * @param traceparent     The trace context of the client, if it sent one.
+     * @return A response entity containing the accepted campaign or an error message.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createCampaign(@RequestPart("campaign") CampaignRequest campaignRequest,
+                                            @RequestPart("recipients") MultipartFile recipients,
+                                            Principal principal,
+                                            @RequestHeader(value = TraceContext.TRACEPARENT, required = false) String traceparent) {
+        logger.info("Campaign request received with a recipient list of {} bytes", recipients.getSize());
+
+        try (InputStream recipientStream = recipients.getInputStream()) {
+            Campaign campaign = campaignService.createCampaign(campaignRequest, principal.getName(),
+                    TraceContext.continueOrStart(traceparent), recipientStream);
+            logger.info("Campaign accepted with identifier: {}", campaign.getCampaignId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(campaign);
+        } catch (InvalidRequestException exception) {
+            logger.error("Failed to create campaign: {}", exception.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        } catch (TaskRejectedException exception) {
+            logger.warn("Campaign rejected, too many campaigns waiting");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Too many campaigns are waiting to be expanded. Please try again later.");
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to retrieve a campaign and its progress counters by its identifier.
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @param principal  The authenticated client requesting the campaign.
+     * @return A response entity containing the campaign or an error message.
+     */
+    @GetMapping("/{campaignId}")
+    public ResponseEntity<?> getCampaign(@PathVariable String campaignId, Principal principal) {
+        logger.info("Campaign progress request received for identifier: {}", campaignId);
+
+        if (!StringUtils.hasText(campaignId)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid Request: Campaign identifier cannot be null or empty.");
+        }
+
+        try {
+            return ResponseEntity.ok(campaignService.getCampaign(campaignId, principal.getName()));
+        } catch (InvalidRequestException exception) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred while retrieving campaign: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to retrieve the number of campaign recipients in each delivery status.
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @param principal  The authenticated client requesting the counts.
+     * @return A response entity containing the counts per status or an error message.
+     */
+    @GetMapping("/{campaignId}/delivery")
+    public ResponseEntity<?> getDeliveryCounts(@PathVariable String campaignId, Principal principal) {
+        logger.info("Delivery counts request received for campaign: {}", campaignId);
+
+        try {
+            campaignService.getCampaign(campaignId, principal.getName());
+            return ResponseEntity.ok(deliveryTrackingService.getCounts(campaignId));
+        } catch (InvalidRequestException exception) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint to retrieve the ordinals of the campaign recipients in a given delivery status.
+     *
+     * @param campaignId     The unique identifier of the campaign.
+     * @param status         The delivery status to look up.
+     * @param excludeRetried Whether recipients that have already been re-driven should be left out.
+     * @param limit          The maximum number of ordinals to return, capped at the maximum page size.
+     * @param principal      The authenticated client requesting the recipients.
+     * @return A response entity containing the matching recipient ordinals or an error message.
+     */
+    @GetMapping("/{campaignId}/delivery/recipients")
+    public ResponseEntity<?> getDeliveryRecipients(@PathVariable String campaignId,
+                                                   @RequestParam String status,
+                                                   @RequestParam(defaultValue = "false") boolean excludeRetried,
+                                                   @RequestParam(defaultValue = "1000") int limit,
+                                                   Principal principal) {
+        logger.info("Delivery recipients request received for campaign: {} and status: {}", campaignId, status);
+
+        if (limit < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid Request: Limit must be at least 1.");
+        }
+
+        try {
+            campaignService.getCampaign(campaignId, principal.getName());
+            return ResponseEntity.ok(deliveryTrackingService.findRecipients(campaignId, status.toUpperCase(), excludeRetried,
+                    Math.min(limit, maxPageSize)));
+        } catch (InvalidRequestException exception) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+        }
+    }
+}
@@ -2,22 +2,44 @@ package com.microservice.notification.notification_service.controllers;
 
 import com.google.gson.Gson;
 import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.entities.ErrorResponse;
 import com.microservice.notification.notification_service.entities.NotificationRequest;
 import com.microservice.notification.notification_service.entities.NotificationResponse;
+import com.microservice.notification.notification_service.entities.NotificationSearchCriteria;
+import com.microservice.notification.notification_service.entities.NotificationStatusEvent;
 import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.services.AsyncIngestService;
+import com.microservice.notification.notification_service.services.NotificationSearchService;
 import com.microservice.notification.notification_service.services.NotificationService;
+import com.microservice.notification.notification_service.services.StatusHistoryService;
+import com.microservice.notification.notification_service.services.StatusStreamService;
+import com.microservice.notification.notification_service.utils.TraceContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing notifications.
  * <p>
- * Provides endpoints to publish notifications, check notification statuses, and perform a health check.
+ * Provides endpoints to publish notifications, check, stream or trace the history of notification statuses,
+ * search notifications, and perform a health check.
  * </p>
  */
 @RestController
@@ -25,11 +47,25 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
     private static final Logger logger = LogManager.getLogger(NotificationController.class);
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String TRACE_ID = "traceId";
     private final Gson gson = new Gson();
 
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationSearchService notificationSearchService;
+
+    @Autowired
+    private StatusStreamService statusStreamService;
+
+    @Autowired
+    private StatusHistoryService statusHistoryService;
+
+    @Autowired
+    private AsyncIngestService asyncIngestService;
+
     /**
      * Endpoint to perform a health check for the notification service.
      *
@@ -45,19 +81,79 @@ public class NotificationController {
      * Endpoint to publish a new notification.
      *
      * @param notificationRequest The request payload containing notification details.
-     * @return A response entity containing the notification response or an error message.
+     * @param principal           The authenticated client publishing the notification.
+     * @param traceparent         The trace context of the client, if it sent one.
+     * @return A response entity containing the notification response, with status 429 when the recipient is
+     * over its frequency cap, or an error message.
      */
     @PostMapping("/publish")
-    public ResponseEntity<?> publishNotification(@RequestBody NotificationRequest notificationRequest) {
+    public ResponseEntity<?> publishNotification(@RequestBody NotificationRequest notificationRequest, Principal principal,
+                                                 @RequestHeader(value = TraceContext.TRACEPARENT, required = false) String traceparent) {
+        long receivedAt = System.currentTimeMillis();
         logger.info("Request for notification received: {}", gson.toJson(notificationRequest));
+        notificationRequest.setOwner(principal.getName());
+        notificationRequest.setReceivedAt(receivedAt);
+        notificationRequest.setTraceparent(TraceContext.continueOrStart(traceparent));
+        ThreadContext.put(TRACE_ID, TraceContext.traceId(notificationRequest.getTraceparent()));
 
         try {
             NotificationResponse response = notificationService.publishNotification(notificationRequest);
+            if (NotificationStatusEnum.CAPPED.name().equals(response.getStatus())) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+            }
             logger.info("Notification published successfully: {}", gson.toJson(response));
             return ResponseEntity.ok(response);
         } catch (InvalidRequestException exception) {
             logger.error("Failed to publish notification: {}", exception.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+            return badRequest(exception);
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        } finally {
+            ThreadContext.remove(TRACE_ID);
+        }
+    }
+
+    /**
+     * Endpoint to accept a notification for asynchronous publishing.
+     * <p>
+     * The notification is validated and given its identifier, then buffered and published in the
+     * background, so it may not be visible to status lookups for a short while after the response.
+     * When the buffer is full the request is refused with 429 and should be retried later. A notification
+     * to a recipient on the suppression list is answered with 200 and the {@code SUPPRESSED} status, and
+     * one to a recipient over its frequency cap with 429 and the {@code CAPPED} status; neither is sent.
+     * </p>
+     *
+     * @param notificationRequest The request payload containing notification details.
+     * @param principal           The authenticated client publishing the notification.
+     * @param traceparent         The trace context of the client, if it sent one.
+     * @return A 202 response entity containing the notification identifier, a 200 or 429 response entity
+     * for a suppressed or capped notification, or an error message.
+     */
+    @PostMapping("/publish/async")
+    public ResponseEntity<?> publishNotificationAsync(@RequestBody NotificationRequest notificationRequest, Principal principal,
+                                                      @RequestHeader(value = TraceContext.TRACEPARENT, required = false) String traceparent) {
+        notificationRequest.setOwner(principal.getName());
+        notificationRequest.setReceivedAt(System.currentTimeMillis());
+        notificationRequest.setTraceparent(TraceContext.continueOrStart(traceparent));
+
+        try {
+            if (!asyncIngestService.accept(notificationRequest)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body("We are experiencing a high load at the moment. Please try again later.");
+            }
+            if (NotificationStatusEnum.SUPPRESSED.name().equals(notificationRequest.getStatus())) {
+                return ResponseEntity.ok(NotificationResponse.getResponse(notificationRequest));
+            }
+            if (NotificationStatusEnum.CAPPED.name().equals(notificationRequest.getStatus())) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(NotificationResponse.getResponse(notificationRequest));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(NotificationResponse.getResponse(notificationRequest));
+        } catch (InvalidRequestException exception) {
+            logger.error("Failed to accept notification: {}", exception.getMessage());
+            return badRequest(exception);
         } catch (Exception exception) {
             logger.error("Unexpected error occurred: {}", exception.getMessage(), exception);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -93,4 +189,163 @@ public class NotificationController {
                     .body("An unexpected error occurred. Please try again later.");
         }
     }
+
+    /**
+     * Endpoint to retrieve the delivery history of a notification by its identifier.
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return A response entity containing every status transition of the notification, oldest first, or an error message.
+     */
+    @GetMapping("/statusHistory/{identifier}")
+    public ResponseEntity<?> getStatusHistory(@PathVariable String identifier) {
+        logger.info("Status history request received for identifier: {}", identifier);
+
+        if (!StringUtils.hasText(identifier)) {
+            logger.warn("Invalid identifier received for status history");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid Request: Identifier cannot be null or empty.");
+        }
+
+        try {
+            List<NotificationStatusEvent> history = statusHistoryService.getHistory(identifier);
+            return ResponseEntity.ok(history);
+        } catch (InvalidRequestException exception) {
+            logger.warn("No notification found for identifier: {}", identifier);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred while retrieving status history: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to retrieve the statuses of many notifications at once.
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return A response entity containing a map of identifier to status, or an error message.
+     */
+    @PostMapping("/statusByIds")
+    public ResponseEntity<?> getStatusByIds(@RequestBody List<String> identifiers) {
+        logger.info("Bulk status check request received for {} identifiers", identifiers == null ? 0 : identifiers.size());
+
+        try {
+            Map<String, String> statuses = notificationService.getNotificationStatusesByIds(identifiers);
+            return ResponseEntity.ok(statuses);
+        } catch (InvalidRequestException exception) {
+            logger.warn("Invalid bulk status check request: {}", exception.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred while retrieving statuses: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to subscribe to notification status transitions over Server-Sent Events.
+     * <p>
+     * When identifiers are given, only their transitions are streamed; otherwise every transition
+     * of a notification published by the authenticated client is streamed.
+     * </p>
+     *
+     * @param identifiers The identifiers of the notifications to follow, if any.
+     * @param principal   The authenticated client subscribing.
+     * @return The emitter streaming {@code status} events.
+     */
+    @GetMapping(value = "/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@RequestParam(required = false) List<String> identifiers, Principal principal) {
+        logger.info("Status stream request received from: {}", principal.getName());
+        return statusStreamService.subscribe(principal.getName(), identifiers == null ? List.of() : identifiers);
+    }
+
+    /**
+     * Endpoint to search notifications with keyset pagination.
+     *
+     * @param status           The status of the notifications to find.
+     * @param notificationType The type of the notifications to find.
+     * @param priority         The priority of the notifications to find.
+     * @param from             The inclusive lower bound of the creation time.
+     * @param to               The exclusive upper bound of the creation time.
+     * @param afterCreatedAt   The creation time part of the cursor returned with the previous page; absent for the first page.
+     * @param afterId          The primary key part of the cursor returned with the previous page; 0 for the first page.
+     * @param limit            The maximum number of notifications in the page.
+     * @return A response entity containing the page of notifications, or an error message.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) String status,
+                                    @RequestParam(name = "type", required = false) String notificationType,
+                                    @RequestParam(required = false) String priority,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                    @RequestParam(required = false) Long afterCreatedAt,
+                                    @RequestParam(defaultValue = "0") int afterId,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        NotificationSearchCriteria criteria = toCriteria(status, notificationType, priority, from, to, afterCreatedAt, afterId);
+        logger.info("Search request received: {}", criteria);
+
+        try {
+            return ResponseEntity.ok(notificationSearchService.search(criteria, limit));
+        } catch (InvalidRequestException exception) {
+            logger.warn("Invalid search request: {}", exception.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred while searching: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to stream every notification matching a search as newline-delimited JSON.
+     * <p>
+     * Selected when the client accepts {@code application/x-ndjson}. Matches are fetched page by
+     * page while they are written, so memory stays constant however many notifications match.
+     * </p>
+     *
+     * @param status           The status of the notifications to find.
+     * @param notificationType The type of the notifications to find.
+     * @param priority         The priority of the notifications to find.
+     * @param from             The inclusive lower bound of the creation time.
+     * @param to               The exclusive upper bound of the creation time.
+     * @param afterCreatedAt   The creation time after which to start streaming; absent to stream from the beginning.
+     * @param afterId          The primary key after which to start streaming, among notifications created at {@code afterCreatedAt}.
+     * @return A response entity streaming the matching notifications, or an error message.
+     */
+    @GetMapping(value = "/search", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(@RequestParam(required = false) String status,
+                                                              @RequestParam(name = "type", required = false) String notificationType,
+                                                              @RequestParam(required = false) String priority,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                              @RequestParam(required = false) Long afterCreatedAt,
+                                                              @RequestParam(defaultValue = "0") int afterId) {
+        NotificationSearchCriteria criteria = toCriteria(status, notificationType, priority, from, to, afterCreatedAt, afterId);
+        logger.info("Streaming search request received: {}", criteria);
+        try {
+            notificationSearchService.validateCursor(criteria);
+        } catch (InvalidRequestException exception) {
+            logger.warn("Invalid search request: {}", exception.getMessage());
+            byte[] message = exception.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+        }
+        StreamingResponseBody body = out -> notificationSearchService.stream(criteria, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    private static NotificationSearchCriteria toCriteria(String status, String notificationType, String priority,
+                                                         Instant from, Instant to, Long afterCreatedAt, int afterId) {
+        return new NotificationSearchCriteria(status, notificationType, priority,
+                from == null ? null : from.toEpochMilli(), to == null ? null : to.toEpochMilli(), afterCreatedAt, afterId);
+    }
+
+    /**
+     * Builds the response to a refused notification, listing the invalid fields when it failed validation.
+     */
+    private ResponseEntity<?> badRequest(InvalidRequestException exception) {
+        if (exception.getErrors().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), exception.getMessage(), exception.getErrors()));
+    }
 }
@@ -0,0 +1,83 @@
+package com.microservice.notification.notification_service.controllers;
+
+import com.microservice.notification.notification_service.entities.RedriveJob;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.services.RedriveService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * REST controller for re-driving notifications, restricted to administrators.
+ * <p>
+ * Provides endpoints to start a throttled job re-sending to Kafka the notifications of a channel
+ * that moved to a given status within a time range, and to follow the progress of the job.
+ * </p>
+ */
+@RestController
+@RequestMapping("/notification/admin/redrive")
+public class RedriveController {
+
+    private static final Logger logger = LogManager.getLogger(RedriveController.class);
+
+    @Autowired
+    private RedriveService redriveService;
+
+    /**
+     * Endpoint to start a re-drive job.
+     *
+     * @param status    The current status of the notifications to re-drive.
+     * @param channel   The channel of the notifications to re-drive.
+     * @param from      The inclusive lower bound of the time the notifications moved to the status, if any.
+     * @param to        The exclusive upper bound of the time the notifications moved to the status; defaults to now.
+     * @param principal The authenticated administrator starting the job.
+     * @return A 202 response entity containing the queued job, or an error message.
+     */
+    @PostMapping
+    public ResponseEntity<?> startRedrive(@RequestParam String status,
+                                          @RequestParam String channel,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                          Principal principal) {
+        logger.info("Re-drive request received from {} for {} notifications in status {}", principal.getName(), channel, status);
+
+        try {
+            RedriveJob job = redriveService.startJob(status, channel, from, to);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (InvalidRequestException exception) {
+            logger.error("Failed to start re-drive: {}", exception.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        } catch (TaskRejectedException exception) {
+            logger.warn("Re-drive rejected, too many jobs waiting");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Too many re-drive jobs are waiting to run. Please try again later.");
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Endpoint to retrieve a re-drive job and its progress by its identifier.
+     *
+     * @param jobId The unique identifier of the job.
+     * @return A response entity containing the job or an error message.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getRedrive(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(redriveService.getJob(jobId));
+        } catch (InvalidRequestException exception) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(exception.getMessage());
+        }
+    }
+}
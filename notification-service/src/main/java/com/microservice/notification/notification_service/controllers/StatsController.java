@@ -0,0 +1,66 @@
+package com.microservice.notification.notification_service.controllers;
+
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.services.DeliveryStatsService;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * REST controller for the real-time delivery statistics.
+ * <p>
+ * Provides an endpoint returning how many notifications reached each status per minute, by
+ * channel and priority. The counts are served from the local state of the statistics stream, so
+ * dashboards polling the endpoint put no load on the database.
+ * </p>
+ */
+@RestController
+@RequestMapping("/notification/stats")
+public class StatsController {
+
+    private static final Logger logger = LogManager.getLogger(StatsController.class);
+
+    @Autowired
+    private DeliveryStatsService deliveryStatsService;
+
+    /**
+     * Endpoint to retrieve the per-minute delivery statistics of a time range.
+     *
+     * @param from     The inclusive start of the range; defaults to one hour before its end.
+     * @param to       The exclusive end of the range; defaults to now.
+     * @param channel  The channel to count, if any.
+     * @param status   The status to count, if any.
+     * @param priority The priority to count, if any.
+     * @return A response entity containing the per-minute counts, or an error message.
+     */
+    @GetMapping
+    public ResponseEntity<?> getStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                      @RequestParam(required = false) String channel,
+                                      @RequestParam(required = false) String status,
+                                      @RequestParam(required = false) String priority) {
+        try {
+            return ResponseEntity.ok(deliveryStatsService.getStats(from, to, channel, status, priority));
+        } catch (InvalidRequestException exception) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        } catch (InvalidStateStoreException exception) {
+            logger.warn("Delivery statistics unavailable: {}", exception.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Delivery statistics are not available yet. Please try again later.");
+        } catch (Exception exception) {
+            logger.error("Unexpected error occurred: {}", exception.getMessage(), exception);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred. Please try again later.");
+        }
+    }
+}
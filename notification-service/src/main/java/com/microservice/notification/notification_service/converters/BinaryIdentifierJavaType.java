@@ -0,0 +1,85 @@
+package com.microservice.notification.notification_service.converters;
+
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+import java.sql.Types;
+
+/**
+ * Hibernate Java type that stores notification identifiers as 16 bytes instead of 36 characters.
+ * <p>
+ * Identifiers keep their textual form everywhere in the application and are only packed into
+ * bytes at the database boundary, which makes the identifier columns and indexes less than half
+ * their textual size. Unlike a JPA attribute converter, the type also applies to primary keys, and
+ * to every query parameter compared with an identifier column; a malformed identifier is bound as
+ * null, so looking it up finds nothing.
+ * </p>
+ */
+public class BinaryIdentifierJavaType extends AbstractClassJavaType<String> {
+
+    public BinaryIdentifierJavaType() {
+        super(String.class);
+    }
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators indicators) {
+        return indicators.getTypeConfiguration().getJdbcTypeRegistry().getDescriptor(Types.VARBINARY);
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string == null ? null : string.toString();
+    }
+
+    /**
+     * Converts the identifier into the 16 bytes bound to statements.
+     *
+     * @param value   The identifier in its 36-character form.
+     * @param type    The type requested by the JDBC binder.
+     * @param options The options of the current session.
+     * @return The identifier in the requested form.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (byte[].class.isAssignableFrom(type)) {
+            return (X) TimeOrderedIds.toBytes(value);
+        }
+        if (String.class.isAssignableFrom(type)) {
+            return (X) value;
+        }
+        throw unknownUnwrap(type);
+    }
+
+    /**
+     * Converts the 16 bytes read from a result set back into the identifier.
+     *
+     * @param value   The value read by the JDBC extractor.
+     * @param options The options of the current session.
+     * @return The identifier in its 36-character form.
+     */
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return TimeOrderedIds.fromBytes(bytes);
+        }
+        if (value instanceof String string) {
+            return string;
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
@@ -0,0 +1,110 @@
+package com.microservice.notification.notification_service.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JPA attribute converter that stores text as bytes, deflating large values transparently.
+ * <p>
+ * The first byte of the stored value records whether the remaining bytes are raw UTF-8 or
+ * deflated UTF-8. Values below the compression threshold, or values that do not shrink when
+ * deflated, are stored raw so that small bodies pay no compression cost.
+ * </p>
+ */
+@Converter
+public class CompressedContentConverter implements AttributeConverter<String, byte[]> {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    /**
+     * Converts the text into its stored byte form.
+     *
+     * @param attribute The text to store.
+     * @return The stored bytes, prefixed by the encoding marker.
+     */
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        byte[] bytes = attribute.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= COMPRESSION_THRESHOLD) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length) {
+                return prefix(DEFLATED, deflated);
+            }
+        }
+        return prefix(RAW, bytes);
+    }
+
+    /**
+     * Converts the stored bytes back into text.
+     *
+     * @param dbData The stored bytes, prefixed by the encoding marker.
+     * @return The original text.
+     */
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null || dbData.length == 0) {
+            return null;
+        }
+        byte[] bytes = Arrays.copyOfRange(dbData, 1, dbData.length);
+        if (dbData[0] == DEFLATED) {
+            bytes = inflate(bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] prefix(byte marker, byte[] bytes) {
+        byte[] result = new byte[bytes.length + 1];
+        result[0] = marker;
+        System.arraycopy(bytes, 0, result, 1, bytes.length);
+        return result;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Stored content is truncated or corrupt");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Stored content is not valid deflate data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservice.notification.notification_service.dao;
+
+import com.microservice.notification.notification_service.entities.Campaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing the {@link Campaign} entity in the database.
+ * <p>
+ * This interface extends JpaRepository to provide CRUD operations for {@link Campaign} entities.
+ * </p>
+ */
+@Repository
+public interface CampaignRepository extends JpaRepository<Campaign, Integer> {
+
+    /**
+     * Retrieves a {@link Campaign} entity based on its unique campaign identifier.
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @return An {@link Optional} containing the {@link Campaign} if found, otherwise empty.
+     */
+    Optional<Campaign> findByCampaignId(String campaignId);
+
+    /**
+     * Retrieves the campaigns in any of the given statuses.
+     *
+     * @param statuses The statuses of the campaigns to retrieve.
+     * @return The campaigns in one of the statuses.
+     */
+    List<Campaign> findByStatusIn(Collection<String> statuses);
+}
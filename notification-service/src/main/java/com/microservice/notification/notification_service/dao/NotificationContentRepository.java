@@ -0,0 +1,35 @@
+package com.microservice.notification.notification_service.dao;
+
+import com.microservice.notification.notification_service.entities.NotificationContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for accessing the {@link NotificationContent} entity in the database.
+ * <p>
+ * This interface extends JpaRepository to provide CRUD operations for {@link NotificationContent} entities,
+ * keyed by the hash of their body.
+ * </p>
+ */
+@Repository
+public interface NotificationContentRepository extends JpaRepository<NotificationContent, String> {
+
+    /**
+     * Deletes the bodies, among the given ones, that no notification or campaign references any more.
+     *
+     * @param contentHashes The hashes of the candidate bodies.
+     * @return The number of bodies deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from NotificationContent c where c.contentHash in :contentHashes"
+            + " and not exists (select n.id from NotificationRequest n where n.contentHash = c.contentHash)"
+            + " and not exists (select k.id from Campaign k where k.contentHash = c.contentHash)")
+    int deleteUnreferenced(@Param("contentHashes") Collection<String> contentHashes);
+}
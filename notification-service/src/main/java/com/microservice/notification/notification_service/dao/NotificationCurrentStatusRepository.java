@@ -0,0 +1,42 @@
+package com.microservice.notification.notification_service.dao;
+
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for reading the {@link NotificationCurrentStatus} view.
+ * <p>
+ * The view is maintained by the status write-behind; this repository only reads it, and deletes
+ * rows together with their notification when it is purged.
+ * </p>
+ */
+@Repository
+public interface NotificationCurrentStatusRepository extends JpaRepository<NotificationCurrentStatus, String> {
+
+    /**
+     * Retrieves the current status of every notification whose identifier is in the given collection.
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return The current status of each notification that has left its initial status.
+     */
+    List<NotificationCurrentStatus> findByIdentifierIn(Collection<String> identifiers);
+
+    /**
+     * Deletes the current status of the given notifications in a single statement.
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from NotificationCurrentStatus s where s.identifier in :identifiers")
+    int deleteByIdentifierIn(@Param("identifiers") Collection<String> identifiers);
+}
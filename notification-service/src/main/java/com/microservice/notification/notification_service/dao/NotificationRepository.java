@@ -1,18 +1,30 @@
 package com.microservice.notification.notification_service.dao;
 
 import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for accessing the {@link NotificationRequest} entity in the database.
  * <p>
- * This interface extends JpaRepository to provide CRUD operations for NotificationRequest entities.
+ * This interface extends JpaRepository to provide CRUD operations for NotificationRequest entities,
+ * and JpaSpecificationExecutor to run searches built from optional filters.
  * </p>
  */
 @Repository
-public interface NotificationRepository extends JpaRepository<NotificationRequest, Integer> {
+public interface NotificationRepository extends JpaRepository<NotificationRequest, Integer>,
+        JpaSpecificationExecutor<NotificationRequest> {
 
     /**
      * Retrieves a NotificationRequest entity based on its unique identifier.
@@ -21,4 +33,109 @@ public interface NotificationRepository extends JpaRepository<NotificationReques
      * @return An {@link Optional} containing the NotificationRequest if found, otherwise empty.
      */
     Optional<NotificationRequest> findByIdentifier(String identifier);
+
+    /**
+     * Retrieves the identifier and current status of every notification whose identifier is in the given collection.
+     * <p>
+     * Only the two columns are selected, so the lookup is served by a single indexed {@code IN} query
+     * without loading the full rows. The current status is taken from the status view, falling back
+     * to the status the notification was created with when it has not moved since.
+     * </p>
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return The identifier and status of each notification found.
+     */
+    @Query("select new com.microservice.notification.notification_service.entities.NotificationResponse(n.identifier,"
+            + " coalesce(s.status, n.status)) from NotificationRequest n"
+            + " left join NotificationCurrentStatus s on s.identifier = n.identifier where n.identifier in :identifiers")
+    List<NotificationResponse> findStatusesByIdentifierIn(@Param("identifiers") Collection<String> identifiers);
+
+    /**
+     * Retrieves the next batch of notifications whose current status and channel match, and which moved
+     * to that status before a cutoff.
+     * <p>
+     * Candidates are found through the status view and scanned in primary key order starting after
+     * {@code afterId}, so successive batches never revisit the same rows.
+     * </p>
+     *
+     * @param status           The status of the notifications.
+     * @param notificationType The channel of the notifications.
+     * @param cutoff           The exclusive upper bound of the time of the status transition, in epoch milliseconds.
+     * @param afterId          The primary key after which to resume the scan.
+     * @param pageable         The page limiting the size of the batch.
+     * @return The notifications of the batch, ordered by primary key.
+     */
+    @Query("select n from NotificationRequest n join NotificationCurrentStatus s on s.identifier = n.identifier"
+            + " where s.status = :status and s.notificationType = :notificationType"
+            + " and s.updatedAt < :cutoff and n.id > :afterId order by n.id")
+    List<NotificationRequest> findExpired(@Param("status") String status,
+                                          @Param("notificationType") String notificationType,
+                                          @Param("cutoff") long cutoff,
+                                          @Param("afterId") int afterId,
+                                          Pageable pageable);
+
+    /**
+     * Retrieves the next batch of notifications of a channel that were created in a given status within a
+     * time range and have not moved since.
+     * <p>
+     * The scan follows the channel, status and creation time index and resumes after {@code afterId},
+     * so successive batches never revisit the same rows; notifications with any logged transition are
+     * left to {@link #findInStatusBetween}.
+     * </p>
+     *
+     * @param status           The status the notifications were created with.
+     * @param notificationType The channel of the notifications.
+     * @param from             The inclusive lower bound of the creation time, in epoch milliseconds.
+     * @param to               The exclusive upper bound of the creation time, in epoch milliseconds.
+     * @param afterId          The primary key after which to resume the scan.
+     * @param pageable         The page limiting the size of the batch.
+     * @return The notifications of the batch, ordered by primary key.
+     */
+    @Query("select n from NotificationRequest n where n.notificationType = :notificationType and n.status = :status"
+            + " and n.createdAt >= :from and n.createdAt < :to and n.id > :afterId"
+            + " and not exists (select s.identifier from NotificationCurrentStatus s where s.identifier = n.identifier)"
+            + " order by n.id")
+    List<NotificationRequest> findUnmovedCreatedBetween(@Param("status") String status,
+                                                        @Param("notificationType") String notificationType,
+                                                        @Param("from") long from,
+                                                        @Param("to") long to,
+                                                        @Param("afterId") int afterId,
+                                                        Pageable pageable);
+
+    /**
+     * Retrieves the next batch of notifications of a channel whose current status matches and which moved
+     * to that status within a time range.
+     * <p>
+     * Candidates are found through the status view and scanned in primary key order starting after
+     * {@code afterId}, so successive batches never revisit the same rows.
+     * </p>
+     *
+     * @param status           The current status of the notifications.
+     * @param notificationType The channel of the notifications.
+     * @param from             The inclusive lower bound of the time of the status transition, in epoch milliseconds.
+     * @param to               The exclusive upper bound of the time of the status transition, in epoch milliseconds.
+     * @param afterId          The primary key after which to resume the scan.
+     * @param pageable         The page limiting the size of the batch.
+     * @return The notifications of the batch, ordered by primary key.
+     */
+    @Query("select n from NotificationRequest n join NotificationCurrentStatus s on s.identifier = n.identifier"
+            + " where s.status = :status and s.notificationType = :notificationType"
+            + " and s.updatedAt >= :from and s.updatedAt < :to and n.id > :afterId order by n.id")
+    List<NotificationRequest> findInStatusBetween(@Param("status") String status,
+                                                  @Param("notificationType") String notificationType,
+                                                  @Param("from") long from,
+                                                  @Param("to") long to,
+                                                  @Param("afterId") int afterId,
+                                                  Pageable pageable);
+
+    /**
+     * Deletes the notifications with the given primary keys in a single statement.
+     *
+     * @param ids The primary keys of the notifications to delete.
+     * @return The number of notifications deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from NotificationRequest n where n.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Integer> ids);
 }
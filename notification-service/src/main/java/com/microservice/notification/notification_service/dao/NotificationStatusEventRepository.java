@@ -0,0 +1,66 @@
+package com.microservice.notification.notification_service.dao;
+
+import com.microservice.notification.notification_service.entities.NotificationStatusEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for reading the {@link NotificationStatusEvent} log.
+ * <p>
+ * Events are inserted in batches by the status write-behind; this repository only reads them,
+ * and deletes them together with their notification when it is purged.
+ * </p>
+ */
+@Repository
+public interface NotificationStatusEventRepository extends JpaRepository<NotificationStatusEvent, Long> {
+
+    /**
+     * Retrieves every status transition of a notification, oldest first.
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return The status events of the notification in the order they were written.
+     */
+    List<NotificationStatusEvent> findByIdentifierOrderByIdAsc(String identifier);
+
+    /**
+     * Retrieves the latest status transition of a notification.
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return An {@link Optional} containing the latest event if the notification has any, otherwise empty.
+     */
+    Optional<NotificationStatusEvent> findFirstByIdentifierOrderByIdDesc(String identifier);
+
+    /**
+     * Counts, for each of the given notifications, the status events logged with a given reason.
+     * <p>
+     * Notifications without such an event are left out of the result.
+     * </p>
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @param reason      The reason of the events to count.
+     * @return Pairs of identifier and event count.
+     */
+    @Query("select e.identifier, count(e) from NotificationStatusEvent e"
+            + " where e.identifier in :identifiers and e.reason = :reason group by e.identifier")
+    List<Object[]> countByIdentifierInAndReason(@Param("identifiers") Collection<String> identifiers,
+                                                @Param("reason") String reason);
+
+    /**
+     * Deletes the status events of the given notifications in a single statement.
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return The number of events deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from NotificationStatusEvent e where e.identifier in :identifiers")
+    int deleteByIdentifierIn(@Param("identifiers") Collection<String> identifiers);
+}
@@ -0,0 +1,101 @@
+package com.microservice.notification.notification_service.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a campaign, i.e. a single notification fanned out to a list of recipients.
+ * <p>
+ * This entity is mapped to the "CAMPAIGN" table in the database and holds the shared
+ * notification details together with the progress counters of the recipient expansion.
+ * </p>
+ */
+@Entity
+@Table(name = "CAMPAIGN", indexes = @Index(name = "IDX_CAMPAIGN_CAMPAIGN_ID", columnList = "campaignId", unique = true))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Campaign {
+
+    /**
+     * The unique identifier of the campaign record in the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private int id;
+
+    /**
+     * The unique identifier for the campaign.
+     */
+    private String campaignId;
+
+    /**
+     * The type of notification sent to every recipient (e.g., SMS, Email, etc.).
+     */
+    private String notificationType;
+
+    /**
+     * The priority level of the campaign notifications (e.g., HIGH, LOW).
+     */
+    private String priority;
+
+    /**
+     * The hash referencing the content/message shared by all notifications of the campaign.
+     */
+    @Column(length = 64)
+    private String contentHash;
+
+    /**
+     * The current status of the campaign (e.g., EXPANDING, COMPLETED).
+     */
+    private String status;
+
+    /**
+     * The username of the authenticated client that created the campaign.
+     */
+    private String owner;
+
+    /**
+     * The number of recipients read from the uploaded recipient list so far.
+     */
+    private long totalRecipients;
+
+    /**
+     * The number of per-recipient notifications persisted and sent to Kafka so far.
+     */
+    private long publishedCount;
+
+    /**
+     * The number of recipients whose notification could not be persisted or sent.
+     */
+    private long failedCount;
+
+    /**
+     * The number of recipients skipped because they are on the suppression list.
+     */
+    private long suppressedCount;
+
+    /**
+     * The number of lines of the spooled recipient list whose recipients are persisted, where an
+     * interrupted expansion resumes.
+     */
+    private long expandedLines;
+
+    /**
+     * The recipient ordinal given to the next recipient expanded.
+     */
+    private long nextOrdinal;
+
+    /**
+     * The W3C trace context shared by every notification of the campaign.
+     */
+    @Column(length = 55)
+    private String traceparent;
+
+    /**
+     * The time the campaign request was received by the API, in epoch milliseconds.
+     */
+    private Long receivedAt;
+}
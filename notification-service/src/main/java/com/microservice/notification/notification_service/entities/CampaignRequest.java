@@ -0,0 +1,33 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a request to send one notification to many recipients.
+ * <p>
+ * The content is supplied once with this request, while the recipients are uploaded
+ * separately as a streamed list and expanded into per-recipient notifications.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignRequest {
+
+    /**
+     * The type of notification to send to every recipient (e.g., SMS, Email, etc.).
+     */
+    private String notificationType;
+
+    /**
+     * The priority level of the campaign notifications (e.g., HIGH, LOW).
+     */
+    private String priority;
+
+    /**
+     * The content/message shared by all notifications of the campaign.
+     */
+    private String notificationContent;
+}
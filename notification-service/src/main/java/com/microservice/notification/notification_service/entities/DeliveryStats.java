@@ -0,0 +1,39 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the number of notifications of a channel and priority that reached a status within one minute.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryStats {
+
+    /**
+     * The start of the minute, in epoch milliseconds.
+     */
+    private long minute;
+
+    /**
+     * The channel of the notifications (e.g., SMS, EMAIL).
+     */
+    private String channel;
+
+    /**
+     * The status the notifications reached (e.g., RECEIVED, DELEIVERED).
+     */
+    private String status;
+
+    /**
+     * The priority of the notifications.
+     */
+    private String priority;
+
+    /**
+     * The number of notifications.
+     */
+    private long count;
+}
@@ -4,10 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Represents an error response returned by the service when an error occurs.
  * <p>
- * This class encapsulates the status code and the error message to be sent back to the client in case of an error.
+ * This class encapsulates the status code and the error message to be sent back to the client in case of an error,
+ * along with the invalid fields when the request failed validation.
  * </p>
  */
 @Data
@@ -24,4 +27,9 @@ public class ErrorResponse {
      * A detailed error message describing the cause of the failure.
      */
     private String errorMessage;
+
+    /**
+     * The fields of the request that failed validation, if any.
+     */
+    private List<FieldValidationError> errors;
 }
@@ -0,0 +1,24 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.Data;
+
+/**
+ * Represents a validation failure of one field of a notification request.
+ * <p>
+ * Instances are immutable, so the validator creates each possible error once and shares it
+ * between requests.
+ * </p>
+ */
+@Data
+public class FieldValidationError {
+
+    /**
+     * The name of the invalid field, as it appears in the request payload.
+     */
+    private final String field;
+
+    /**
+     * A message describing why the field is invalid.
+     */
+    private final String message;
+}
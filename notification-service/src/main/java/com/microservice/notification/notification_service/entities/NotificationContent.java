@@ -0,0 +1,37 @@
+package com.microservice.notification.notification_service.entities;
+
+import com.microservice.notification.notification_service.converters.CompressedContentConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a notification body stored once and shared by every notification carrying it.
+ * <p>
+ * This entity is mapped to the "NOTIFICATION_CONTENT" table in the database and is keyed by the
+ * SHA-256 hash of the body, so byte-identical bodies are stored only once. Large bodies are
+ * compressed transparently by {@link CompressedContentConverter}.
+ * </p>
+ */
+@Entity
+@Table(name = "NOTIFICATION_CONTENT")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationContent {
+
+    /**
+     * The hex-encoded SHA-256 hash of the body, used as its key.
+     */
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    /**
+     * The body of the notification.
+     */
+    @Lob
+    @Convert(converter = CompressedContentConverter.class)
+    private String content;
+}
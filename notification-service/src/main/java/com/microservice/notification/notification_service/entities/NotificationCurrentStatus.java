@@ -0,0 +1,56 @@
+package com.microservice.notification.notification_service.entities;
+
+import com.microservice.notification.notification_service.converters.BinaryIdentifierJavaType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
+
+/**
+ * Represents the current status of a notification, derived from its latest status event.
+ * <p>
+ * This entity is mapped to the "NOTIFICATION_CURRENT_STATUS" table, a compact view keyed by
+ * identifier holding one narrow row per notification that has left its initial status. It is
+ * maintained in the same transaction as the {@link NotificationStatusEvent} log, so status reads
+ * never scan the history, and notifications without a row are still in the status they were
+ * created with.
+ * </p>
+ */
+@Entity
+@Table(name = "NOTIFICATION_CURRENT_STATUS", indexes = {
+        @Index(name = "IDX_CURRENT_STATUS_TYPE_UPDATED", columnList = "status, notificationType, updatedAt, identifier")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationCurrentStatus {
+
+    /**
+     * The unique identifier of the notification.
+     */
+    @Id
+    @JavaType(BinaryIdentifierJavaType.class)
+    @Column(length = 16)
+    private String identifier;
+
+    /**
+     * The channel of the notification.
+     */
+    private String notificationType;
+
+    /**
+     * The current status of the notification.
+     */
+    private String status;
+
+    /**
+     * Why the notification moved to its current status.
+     */
+    private String reason;
+
+    /**
+     * The time the notification moved to its current status, in epoch milliseconds.
+     */
+    private Long updatedAt;
+}
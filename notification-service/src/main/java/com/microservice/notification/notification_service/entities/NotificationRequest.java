@@ -1,9 +1,11 @@
 package com.microservice.notification.notification_service.entities;
 
+import com.microservice.notification.notification_service.converters.BinaryIdentifierJavaType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
 
 /**
  * Represents a notification request that contains details about the notification to be sent.
@@ -13,7 +15,13 @@ import lombok.NoArgsConstructor;
  * </p>
  */
 @Entity
-@Table(name = "NOTIFICATION")
+@Table(name = "NOTIFICATION", indexes = {
+        @Index(name = "IDX_NOTIFICATION_IDENTIFIER", columnList = "identifier"),
+        @Index(name = "IDX_NOTIFICATION_TYPE_STATUS_CREATED", columnList = "notificationType, status, createdAt, id"),
+        @Index(name = "IDX_NOTIFICATION_STATUS_CREATED", columnList = "status, createdAt, id"),
+        @Index(name = "IDX_NOTIFICATION_CREATED", columnList = "createdAt, id"),
+        @Index(name = "IDX_NOTIFICATION_CONTENT_HASH", columnList = "contentHash")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -39,6 +47,8 @@ public class NotificationRequest {
     /**
      * The unique identifier for the notification.
      */
+    @JavaType(BinaryIdentifierJavaType.class)
+    @Column(length = 16)
     private String identifier;
 
     /**
@@ -53,11 +63,121 @@ public class NotificationRequest {
 
     /**
      * The content/message of the notification.
+     * <p>
+     * The body is not stored on the notification row; it is kept once in the content store
+     * and referenced through {@link #contentHash}.
+     * </p>
      */
+    @Transient
     private String notificationContent;
 
+    /**
+     * The hash referencing the body of the notification in the content store.
+     */
+    @Column(length = 64)
+    private String contentHash;
+
+    /**
+     * The blob store reference of a large body offloaded out of the Kafka message, if any.
+     */
+    @Transient
+    private String contentRef;
+
     /**
      * The current status of the notification (e.g., PENDING, DELIVERED).
+     * <p>
+     * The column keeps the status the notification was created with. Later transitions are appended
+     * to the {@link NotificationStatusEvent} log and read back from {@link NotificationCurrentStatus}.
+     * </p>
      */
+    @Column(updatable = false)
     private String status;
+
+    /**
+     * The identifier of the campaign this notification was expanded from, if any.
+     */
+    private String campaignId;
+
+    /**
+     * The zero-based position of the recipient within the recipient list of its campaign.
+     */
+    private Long recipientOrdinal;
+
+    /**
+     * The username of the authenticated client that published the notification.
+     */
+    private String owner;
+
+    /**
+     * The URL to post terminal status changes of the notification to, if any.
+     */
+    @Column(length = 2048)
+    private String callbackUrl;
+
+    /**
+     * The time the notification was first persisted, in epoch milliseconds.
+     */
+    private Long createdAt;
+
+    /**
+     * The time the notification row was last written, in epoch milliseconds.
+     */
+    private Long updatedAt;
+
+    /**
+     * The W3C trace context of the notification, continued from the publishing client if it sent one.
+     */
+    @Column(length = 55)
+    private String traceparent;
+
+    /**
+     * The time the publish request was received by the API, in epoch milliseconds.
+     */
+    private Long receivedAt;
+
+    /**
+     * The timestamp of the Kafka record carrying the notification, in epoch milliseconds.
+     * <p>
+     * This and the following pipeline timestamps travel with the message and are recorded on the
+     * status event of the attempt, not on the notification row.
+     * </p>
+     */
+    @Transient
+    private Long enqueuedAt;
+
+    /**
+     * The time a consumer picked the notification up from Kafka, in epoch milliseconds.
+     */
+    @Transient
+    private Long consumedAt;
+
+    /**
+     * The time the delivery provider accepted the notification, in epoch milliseconds.
+     */
+    @Transient
+    private Long providerAcceptedAt;
+
+    /**
+     * The time the terminal status of the notification was written, in epoch milliseconds.
+     */
+    @Transient
+    private Long completedAt;
+
+    /**
+     * Stamps the creation and update times before the notification is first persisted.
+     */
+    @PrePersist
+    void onCreate() {
+        long now = System.currentTimeMillis();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    /**
+     * Stamps the update time before the notification row is updated.
+     */
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = System.currentTimeMillis();
+    }
 }
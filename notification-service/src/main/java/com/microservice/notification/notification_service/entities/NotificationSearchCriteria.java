@@ -0,0 +1,54 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the filters and cursor of a notification search.
+ * <p>
+ * Every filter is optional. Results are returned in creation time order, ties broken by primary
+ * key, and the {@code afterCreatedAt} and {@code afterId} cursor resumes the search right after the
+ * last notification of the previous page.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSearchCriteria {
+
+    /**
+     * The status of the notifications to find (e.g., RECEIVED, DELEIVERED).
+     */
+    private String status;
+
+    /**
+     * The type of the notifications to find (e.g., SMS, EMAIL).
+     */
+    private String notificationType;
+
+    /**
+     * The priority of the notifications to find (e.g., HIGH, LOW).
+     */
+    private String priority;
+
+    /**
+     * The inclusive lower bound of the creation time, in epoch milliseconds.
+     */
+    private Long createdFrom;
+
+    /**
+     * The exclusive upper bound of the creation time, in epoch milliseconds.
+     */
+    private Long createdTo;
+
+    /**
+     * The creation time of the last notification already returned; null to start from the beginning.
+     */
+    private Long afterCreatedAt;
+
+    /**
+     * The primary key of the last notification already returned; 0 to start from the beginning.
+     */
+    private int afterId;
+}
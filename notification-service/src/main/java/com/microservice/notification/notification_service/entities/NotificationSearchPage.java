@@ -0,0 +1,36 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents one page of notification search results.
+ * <p>
+ * The {@code nextAfterCreatedAt} and {@code nextAfterId} cursor is passed back as
+ * {@code afterCreatedAt} and {@code afterId} to fetch the next page, and is null once the last page
+ * has been returned.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSearchPage {
+
+    /**
+     * The notifications of the page, in creation time and primary key order.
+     */
+    private List<NotificationRequest> notifications;
+
+    /**
+     * The creation time part of the cursor of the next page, or null if there are no more results.
+     */
+    private Long nextAfterCreatedAt;
+
+    /**
+     * The primary key part of the cursor of the next page, or null if there are no more results.
+     */
+    private Integer nextAfterId;
+}
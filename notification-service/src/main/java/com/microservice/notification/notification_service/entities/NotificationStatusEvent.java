@@ -0,0 +1,71 @@
+package com.microservice.notification.notification_service.entities;
+
+import com.microservice.notification.notification_service.converters.BinaryIdentifierJavaType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
+
+/**
+ * Represents one status transition of a notification.
+ * <p>
+ * This entity is mapped to the append-only "NOTIFICATION_STATUS_EVENT" table: transitions are
+ * only ever inserted, so the table holds the full delivery history of every notification and
+ * writing it never contends with readers of the notification rows. The pipeline timestamps of
+ * the attempt that produced the transition are recorded with it.
+ * </p>
+ */
+@Entity
+@Table(name = "NOTIFICATION_STATUS_EVENT", indexes = {
+        @Index(name = "IDX_STATUS_EVENT_IDENTIFIER", columnList = "identifier, id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationStatusEvent {
+
+    /**
+     * The sequence number of the event, increasing in the order events were written.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    /**
+     * The unique identifier of the notification.
+     */
+    @JavaType(BinaryIdentifierJavaType.class)
+    @Column(length = 16)
+    private String identifier;
+
+    /**
+     * The status the notification moved to.
+     */
+    private String status;
+
+    /**
+     * Why the notification moved to the status.
+     */
+    private String reason;
+
+    /**
+     * The time of the transition, in epoch milliseconds.
+     */
+    private Long occurredAt;
+
+    /**
+     * The timestamp of the Kafka record that led to the transition, in epoch milliseconds.
+     */
+    private Long enqueuedAt;
+
+    /**
+     * The time a consumer picked the notification up from Kafka, in epoch milliseconds.
+     */
+    private Long consumedAt;
+
+    /**
+     * The time the delivery provider accepted the notification, in epoch milliseconds.
+     */
+    private Long providerAcceptedAt;
+}
@@ -0,0 +1,58 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a re-drive job started by an administrator, and its progress.
+ * <p>
+ * The job re-sends to Kafka every notification of a channel that is in a given status and moved to
+ * it within a time range, at the configured re-drive rate.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveJob {
+
+    /**
+     * The unique identifier of the job.
+     */
+    private String jobId;
+
+    /**
+     * The status of the notifications to re-drive.
+     */
+    private String status;
+
+    /**
+     * The channel of the notifications to re-drive.
+     */
+    private String notificationType;
+
+    /**
+     * The inclusive lower bound of the time the notifications moved to the status, in epoch milliseconds.
+     */
+    private long from;
+
+    /**
+     * The exclusive upper bound of the time the notifications moved to the status, in epoch milliseconds.
+     */
+    private long to;
+
+    /**
+     * The state of the job (e.g., RUNNING, COMPLETED, FAILED).
+     */
+    private volatile String state;
+
+    /**
+     * The number of notifications re-sent to Kafka so far.
+     */
+    private volatile long redrivenCount;
+
+    /**
+     * The number of matching notifications that could not be re-sent.
+     */
+    private volatile long failedCount;
+}
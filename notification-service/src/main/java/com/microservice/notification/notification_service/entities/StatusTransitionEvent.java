@@ -0,0 +1,49 @@
+package com.microservice.notification.notification_service.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a status transition of a notification, as published to the status topic.
+ * <p>
+ * An event is published for every transition once it has been written to the database, keyed by
+ * the identifier of the notification so that the transitions of a notification stay in order. The
+ * record timestamp of the event is the time the transition was written.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusTransitionEvent {
+
+    /**
+     * The unique identifier of the notification.
+     */
+    private String identifier;
+
+    /**
+     * The channel of the notification (e.g., SMS, EMAIL).
+     */
+    private String notificationType;
+
+    /**
+     * The priority of the notification.
+     */
+    private String priority;
+
+    /**
+     * The status the notification moved to.
+     */
+    private String status;
+
+    /**
+     * Why the notification moved to the status.
+     */
+    private String reason;
+
+    /**
+     * The time the transition was written, in epoch milliseconds.
+     */
+    private long occurredAt;
+}
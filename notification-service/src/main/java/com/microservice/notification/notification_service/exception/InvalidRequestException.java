@@ -1,5 +1,9 @@
 package com.microservice.notification.notification_service.exception;
 
+import com.microservice.notification.notification_service.entities.FieldValidationError;
+
+import java.util.List;
+
 /**
  * Custom exception class used to represent invalid requests within the notification service.
  * <p>
@@ -9,6 +13,8 @@ package com.microservice.notification.notification_service.exception;
  */
 public class InvalidRequestException extends RuntimeException {
 
+    private final List<FieldValidationError> errors;
+
     /**
      * Constructs a new InvalidRequestException with the specified error message.
      * <p>
@@ -20,5 +26,26 @@ public class InvalidRequestException extends RuntimeException {
      */
     public InvalidRequestException(String errorMessage) {
         super(errorMessage);
+        this.errors = List.of();
+    }
+
+    /**
+     * Constructs a new InvalidRequestException for a request that failed validation.
+     *
+     * @param errorMessage The detailed error message explaining why the request is invalid.
+     * @param errors       The fields of the request that failed validation.
+     */
+    public InvalidRequestException(String errorMessage, List<FieldValidationError> errors) {
+        super(errorMessage);
+        this.errors = errors;
+    }
+
+    /**
+     * Returns the fields of the request that failed validation.
+     *
+     * @return The invalid fields, empty when the request was refused for another reason.
+     */
+    public List<FieldValidationError> getErrors() {
+        return errors;
     }
 }
@@ -0,0 +1,62 @@
+package com.microservice.notification.notification_service.metrics;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the lag of Kafka listener containers from the metrics their consumers already maintain.
+ * <p>
+ * The lag of every assigned partition is published by the consumer as the {@code records-lag}
+ * fetch metric, so reading it issues no broker requests and is cheap enough to poll.
+ * </p>
+ */
+@Component
+public class ConsumerLagReader {
+
+    private static final String FETCH_METRICS_GROUP = "consumer-fetch-manager-metrics";
+    private static final String RECORDS_LAG = "records-lag";
+
+    /**
+     * Returns the lag of a listener container per topic, summed over the partitions assigned to it.
+     *
+     * @param container The listener container.
+     * @return The lag of the container, keyed by topic.
+     */
+    public Map<String, Long> lagByTopic(MessageListenerContainer container) {
+        Map<String, Long> lagByTopic = new TreeMap<>();
+        for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> entry : clientMetrics.entrySet()) {
+                MetricName name = entry.getKey();
+                String topic = name.tags().get("topic");
+                if (!RECORDS_LAG.equals(name.name()) || !FETCH_METRICS_GROUP.equals(name.group())
+                        || topic == null || !name.tags().containsKey("partition")) {
+                    continue;
+                }
+                Object value = entry.getValue().metricValue();
+                if (value instanceof Number lag && !Double.isNaN(lag.doubleValue())) {
+                    lagByTopic.merge(topic, lag.longValue(), Long::sum);
+                }
+            }
+        }
+        return lagByTopic;
+    }
+
+    /**
+     * Returns the total lag of a listener container over every topic and partition assigned to it.
+     *
+     * @param container The listener container.
+     * @return The total lag of the container.
+     */
+    public long totalLag(MessageListenerContainer container) {
+        long total = 0;
+        for (long lag : lagByTopic(container).values()) {
+            total += lag;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,180 @@
+package com.microservice.notification.notification_service.metrics;
+
+import com.microservice.notification.notification_service.constants.NotificationPriorityEnum;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the timings, outcomes and in-flight counts of every stage of the notification pipeline.
+ * <p>
+ * Each stage is measured by a timer tagged with the channel, priority and outcome of the
+ * notification, publishing a percentile histogram so that latency percentiles can be aggregated
+ * across instances. Meters are cached per tag combination, so recording on the hot path costs a
+ * map lookup rather than a meter registration. Channels and priorities are mapped onto their known
+ * values before tagging, so client-supplied text cannot create unbounded series. Terminal statuses are counted separately, and a
+ * gauge per stage reports how many notifications are currently inside it.
+ * </p>
+ * <p>
+ * Once a notification reaches its terminal status, the stage timestamps it carried through the
+ * pipeline are turned into per-stage and end-to-end latency histograms, so that the time from
+ * publish to delivery can be read as percentiles rather than reconstructed from logs.
+ * </p>
+ */
+@Component
+public class NotificationMetrics {
+
+    public static final String PUBLISH = "notification.publish";
+    public static final String KAFKA_SEND = "notification.kafka.send";
+    public static final String CONSUME = "notification.consume";
+    public static final String PROVIDER_CALL = "notification.provider.call";
+    public static final String STATUS_UPDATE = "notification.status.update";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private static final String STATUS_COUNTER = "notification.status";
+    private static final String STAGE_LATENCY = "notification.latency";
+    private static final String END_TO_END_LATENCY = "notification.latency.end_to_end";
+    private static final String IN_FLIGHT_GAUGE = "notification.inflight";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public NotificationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (String stage : new String[]{PUBLISH, KAFKA_SEND, CONSUME, PROVIDER_CALL, STATUS_UPDATE}) {
+            AtomicInteger count = new AtomicInteger();
+            inFlight.put(stage, count);
+            Gauge.builder(IN_FLIGHT_GAUGE, count, AtomicInteger::get)
+                    .description("Notifications currently inside a pipeline stage")
+                    .tag("stage", stage)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Marks a notification as entering a stage and starts timing it.
+     *
+     * @param stage The name of the stage.
+     * @return The sample to pass to {@link #stop} when the stage completes.
+     */
+    public Timer.Sample start(String stage) {
+        inFlight.get(stage).incrementAndGet();
+        return Timer.start(registry);
+    }
+
+    /**
+     * Marks a notification as leaving a stage and records the time it spent inside it.
+     *
+     * @param sample   The sample returned by {@link #start}.
+     * @param stage    The name of the stage.
+     * @param channel  The channel of the notification, or null if unknown.
+     * @param priority The priority of the notification, or null if unknown.
+     * @param outcome  The outcome of the stage, {@link #SUCCESS} or {@link #FAILURE}.
+     */
+    public void stop(Timer.Sample sample, String stage, String channel, String priority, String outcome) {
+        inFlight.get(stage).decrementAndGet();
+        sample.stop(timer(stage, channelTag(channel), priorityTag(priority), outcome));
+    }
+
+    /**
+     * Counts a notification reaching a status.
+     *
+     * @param channel  The channel of the notification.
+     * @param priority The priority of the notification.
+     * @param status   The status the notification reached.
+     */
+    public void countStatus(String channel, String priority, String status) {
+        String channelTag = channelTag(channel);
+        String priorityTag = priorityTag(priority);
+        counters.computeIfAbsent(channelTag + '|' + priorityTag + '|' + status,
+                key -> Counter.builder(STATUS_COUNTER)
+                        .description("Notifications reaching a status")
+                        .tags("channel", channelTag, "priority", priorityTag, "status", status)
+                        .register(registry)).increment();
+    }
+
+    /**
+     * Records the latency between every pair of consecutive stage timestamps of a notification that
+     * reached its terminal status, and its end-to-end latency.
+     * <p>
+     * Stages whose timestamps are missing, such as the provider call of channels without a provider,
+     * are skipped.
+     * </p>
+     *
+     * @param notification The notification carrying its stage timestamps.
+     */
+    public void recordLatencies(NotificationRequest notification) {
+        String channel = channelTag(notification.getNotificationType());
+        Long providerAcceptedAt = notification.getProviderAcceptedAt();
+        recordLatency(STAGE_LATENCY, "persist", channel, notification.getReceivedAt(), notification.getCreatedAt());
+        recordLatency(STAGE_LATENCY, "send", channel, notification.getCreatedAt(), notification.getEnqueuedAt());
+        recordLatency(STAGE_LATENCY, "queue", channel, notification.getEnqueuedAt(), notification.getConsumedAt());
+        recordLatency(STAGE_LATENCY, "provider", channel, notification.getConsumedAt(), providerAcceptedAt);
+        recordLatency(STAGE_LATENCY, "status", channel,
+                providerAcceptedAt != null ? providerAcceptedAt : notification.getConsumedAt(), notification.getCompletedAt());
+        recordLatency(END_TO_END_LATENCY, "end_to_end", channel, notification.getReceivedAt(), notification.getCompletedAt());
+    }
+
+    /**
+     * Returns how many notifications are currently inside each stage.
+     *
+     * @return The in-flight count of every stage, keyed by stage name.
+     */
+    public Map<String, Integer> inFlightCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        inFlight.forEach((stage, count) -> counts.put(stage, count.get()));
+        return counts;
+    }
+
+    private Timer timer(String stage, String channel, String priority, String outcome) {
+        return timers.computeIfAbsent(stage + '|' + channel + '|' + priority + '|' + outcome,
+                key -> Timer.builder(stage)
+                        .tags("channel", channel, "priority", priority, "outcome", outcome)
+                        .publishPercentileHistogram()
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry));
+    }
+
+    private void recordLatency(String name, String stage, String channel, Long from, Long to) {
+        if (from == null || to == null || to < from) {
+            return;
+        }
+        timers.computeIfAbsent(name + '|' + stage + '|' + channel,
+                key -> Timer.builder(name)
+                        .tags("stage", stage, "channel", channel)
+                        .publishPercentileHistogram()
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry)).record(to - from, TimeUnit.MILLISECONDS);
+    }
+
+    private static String channelTag(String channel) {
+        if (channel == null) {
+            return UNKNOWN;
+        }
+        try {
+            return NotificationTypeEnum.valueOf(channel.trim().toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private static String priorityTag(String priority) {
+        return NotificationPriorityEnum.of(priority).name();
+    }
+}
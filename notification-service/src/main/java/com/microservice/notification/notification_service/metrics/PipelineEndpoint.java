@@ -0,0 +1,55 @@
+package com.microservice.notification.notification_service.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint summarizing the live state of the notification pipeline.
+ * <p>
+ * Reports the number of notifications currently inside each pipeline stage, and the lag of every
+ * Kafka listener per topic, summed over the partitions assigned to it. The lag is read through the
+ * {@link ConsumerLagReader}, so serving the endpoint issues no broker requests.
+ * </p>
+ */
+@Component
+@Endpoint(id = "pipeline")
+public class PipelineEndpoint {
+
+    private final NotificationMetrics metrics;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ConsumerLagReader lagReader;
+
+    public PipelineEndpoint(NotificationMetrics metrics, KafkaListenerEndpointRegistry listenerRegistry, ConsumerLagReader lagReader) {
+        this.metrics = metrics;
+        this.listenerRegistry = listenerRegistry;
+        this.lagReader = lagReader;
+    }
+
+    /**
+     * Returns the in-flight counts of the pipeline stages and the lag of the Kafka listeners.
+     *
+     * @return The pipeline summary.
+     */
+    @ReadOperation
+    public Map<String, Object> pipeline() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("inFlight", metrics.inFlightCounts());
+        summary.put("consumerLag", consumerLag());
+        return summary;
+    }
+
+    private Map<String, Map<String, Long>> consumerLag() {
+        Map<String, Map<String, Long>> lagByListener = new TreeMap<>();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            lagByListener.put(container.getListenerId(), lagReader.lagByTopic(container));
+        }
+        return lagByListener;
+    }
+}
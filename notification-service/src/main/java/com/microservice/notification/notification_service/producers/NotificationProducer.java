@@ -1,13 +1,29 @@
 package com.microservice.notification.notification_service.producers;
 
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.storage.PublishSpool;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.ApiException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.Header;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * This component is responsible for sending messages to a Kafka topic.
  * It uses a KafkaTemplate to send messages and logs the success of the operation.
+ * <p>
+ * Messages the broker cannot take because it is slow or unavailable are appended to the local
+ * {@link PublishSpool} instead of failing, and replayed once the broker recovers. From the first
+ * failure until the {@link SpoolReplayer} has caught up, new messages are appended behind the
+ * spooled ones rather than sent directly, so they reach Kafka in the order they were published.
+ * </p>
  */
 @Component
 public class NotificationProducer {
@@ -15,24 +31,140 @@ public class NotificationProducer {
     private static final Logger logger = LogManager.getLogger(NotificationProducer.class);
 
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final NotificationMetrics metrics;
+    private final PublishSpool spool;
+    private volatile boolean draining;
 
     /**
      * Constructor for NotificationProducer.
      *
      * @param kafkaTemplate The KafkaTemplate used to send messages to Kafka topics.
+     * @param metrics       The pipeline metrics recording the send latency.
+     * @param spool         The local spool keeping messages the broker could not take.
      */
-    public NotificationProducer(KafkaTemplate<String, String> kafkaTemplate) {
+    public NotificationProducer(KafkaTemplate<String, String> kafkaTemplate, NotificationMetrics metrics, PublishSpool spool) {
         this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.spool = spool;
     }
 
     /**
      * Sends a message to the specified Kafka topic.
+     * <p>
+     * The send latency is recorded when the broker acknowledges the message, tagged with the
+     * channel and priority of the notification.
+     * </p>
      *
+     * @param key       The recipient key of the message, keeping the messages of a recipient in order.
      * @param message   The message to be sent to the Kafka topic.
      * @param TOPIC_NAME The name of the Kafka topic to send the message to.
+     * @param channel   The channel of the notification carried by the message.
+     * @param priority  The priority of the notification carried by the message.
+     * @param headers   The trace context and stage timestamps to send with the message.
      */
-    public void sendMessage(String message, String TOPIC_NAME) {
-        kafkaTemplate.send(TOPIC_NAME, message);  // Send message to the Kafka topic
+    public void sendMessage(String key, String message, String TOPIC_NAME, String channel, String priority, List<Header> headers) {
+        send(key, message, TOPIC_NAME, channel, priority, headers);  // Send message to the Kafka topic
         logger.info("Message '{}' has been successfully sent to the topic: {}", message, TOPIC_NAME);  // Log the success of the operation
     }
+
+    /**
+     * Sends a batch of messages to the specified Kafka topic and waits until the batch has been flushed.
+     * <p>
+     * The sends are handed to the producer back to back so that they share record batches,
+     * and the template is flushed once for the whole batch instead of once per message.
+     * </p>
+     *
+     * @param keys       The recipient keys of the messages, in the same order as the messages.
+     * @param messages   The messages to be sent to the Kafka topic.
+     * @param TOPIC_NAME The name of the Kafka topic to send the messages to.
+     * @param channel    The channel of the notifications carried by the messages.
+     * @param priority   The priority of the notifications carried by the messages.
+     * @param headers    The trace context and stage timestamps of each message, in the same order as the messages.
+     */
+    public void sendMessages(List<String> keys, List<String> messages, String TOPIC_NAME, String channel, String priority,
+                             List<List<Header>> headers) {
+        for (int i = 0; i < messages.size(); i++) {
+            send(keys.get(i), messages.get(i), TOPIC_NAME, channel, priority, headers.get(i));
+        }
+        kafkaTemplate.flush();
+        logger.info("Batch of {} messages has been successfully sent to the topic: {}", messages.size(), TOPIC_NAME);
+    }
+
+    private void send(String key, String message, String topic, String channel, String priority, List<Header> headers) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, null, key, message, headers);
+        if (draining || !spool.isEmpty()) {
+            // Keep behind the spooled messages until the replay has caught up
+            spool(record, channel, priority);
+            return;
+        }
+        Timer.Sample sample = metrics.start(NotificationMetrics.KAFKA_SEND);
+        try {
+            kafkaTemplate.send(record).whenComplete((result, error) -> {
+                metrics.stop(sample, NotificationMetrics.KAFKA_SEND, channel, priority,
+                        error == null ? NotificationMetrics.SUCCESS : NotificationMetrics.FAILURE);
+                if (error != null) {
+                    spoolAfterFailure(record, channel, priority, error);
+                }
+            });
+        } catch (RuntimeException e) {
+            metrics.stop(sample, NotificationMetrics.KAFKA_SEND, channel, priority, NotificationMetrics.FAILURE);
+            if (isRejected(e)) {
+                throw e;
+            }
+            draining = true;
+            spool(record, channel, priority);
+        }
+    }
+
+    /**
+     * Lets messages go straight to Kafka again once the replay has emptied the spool.
+     */
+    void replayCaughtUp() {
+        if (draining && spool.isEmpty()) {
+            draining = false;
+            logger.info("Spool replay caught up, sending messages directly to Kafka again");
+        }
+    }
+
+    private void spool(ProducerRecord<String, String> record, String channel, String priority) {
+        try {
+            spool.append(record, channel, priority);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error spooling message for topic: " + record.topic(), e);
+        }
+    }
+
+    private void spoolAfterFailure(ProducerRecord<String, String> record, String channel, String priority, Throwable error) {
+        if (isRejected(error)) {
+            logger.error("Message for topic {} was rejected by Kafka", record.topic(), error);
+            return;
+        }
+        // Messages sent after this one must not overtake it
+        draining = true;
+        try {
+            spool.append(record, channel, priority);
+            logger.warn("Kafka unavailable, spooled message for topic {}: {}", record.topic(), error.getMessage());
+        } catch (IOException e) {
+            logger.error("Message for topic {} could neither be sent nor spooled", record.topic(), e);
+        }
+    }
+
+    /**
+     * Returns whether a send failure means Kafka will never accept the message, as opposed to the
+     * broker being slow, unavailable or the producer being closed.
+     *
+     * @param error The send failure.
+     * @return true if sending the message again cannot succeed.
+     */
+    public static boolean isRejected(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return false;
+            }
+            if (cause instanceof ApiException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,151 @@
+package com.microservice.notification.notification_service.producers;
+
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.storage.PublishSpool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component replaying the messages of the {@link PublishSpool} to Kafka once the broker recovers.
+ * <p>
+ * A dedicated thread checks the spool every replay interval and sends its messages in the order
+ * they were spooled, a batch at a time, waiting for the broker to acknowledge a batch before
+ * removing it from the spool. Sending stops at the first message the broker still cannot take,
+ * and the replay resumes from that message on the next check. Messages Kafka rejects for good are
+ * logged and dropped so that they do not hold up the rest of the spool. Once the spool is empty,
+ * the {@link NotificationProducer} is told to send new messages directly again.
+ * </p>
+ */
+@Component
+public class SpoolReplayer {
+
+    private static final Logger logger = LogManager.getLogger(SpoolReplayer.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final PublishSpool spool;
+    private final NotificationProducer producer;
+    private final NotificationMetrics metrics;
+    private final int batchSize;
+    private final ScheduledExecutorService replayer;
+
+    public SpoolReplayer(KafkaTemplate<String, String> kafkaTemplate, PublishSpool spool, NotificationProducer producer,
+                         NotificationMetrics metrics,
+                         MeterRegistry meterRegistry,
+                         @Value("${notification.spool.replay-batch-size:500}") int batchSize,
+                         @Value("${notification.spool.replay-interval-ms:1000}") long replayIntervalMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool;
+        this.producer = producer;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spool-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Replay runs on its own thread as sends block while the broker is down
+        this.replayer.scheduleWithFixedDelay(this::replay, replayIntervalMs, replayIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("notification.spool.pending", spool, PublishSpool::size)
+                .description("Messages spooled locally while Kafka was unavailable and not yet replayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the spooled messages to Kafka until the spool is empty or the broker fails again.
+     */
+    void replay() {
+        try {
+            long replayed = 0;
+            while (!spool.isEmpty()) {
+                List<PublishSpool.SpooledRecord> batch = spool.read(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int sent = sendBatch(batch);
+                spool.commit(batch.subList(0, sent));
+                replayed += sent;
+                if (sent < batch.size()) {
+                    logger.warn("Replay paused with {} messages left in the spool", spool.size());
+                    break;
+                }
+            }
+            if (replayed > 0) {
+                logger.info("Replayed {} spooled messages to Kafka", replayed);
+            }
+            producer.replayCaughtUp();
+        } catch (Exception e) {
+            logger.error("Error replaying spooled messages", e);
+        }
+    }
+
+    /**
+     * Stops replaying as soon as the application starts shutting down, before the Kafka producer
+     * is closed; messages left in the spool are replayed after the next start.
+     */
+    @EventListener(ContextClosedEvent.class)
+    @PreDestroy
+    public void shutdown() {
+        replayer.shutdown();
+        try {
+            replayer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends a batch of spooled messages and waits for the broker to acknowledge them.
+     *
+     * @return The number of leading messages of the batch that are done with, either acknowledged
+     * or rejected for good.
+     */
+    private int sendBatch(List<PublishSpool.SpooledRecord> batch) throws InterruptedException {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (PublishSpool.SpooledRecord spooled : batch) {
+            Timer.Sample sample = metrics.start(NotificationMetrics.KAFKA_SEND);
+            CompletableFuture<SendResult<String, String>> future;
+            try {
+                future = kafkaTemplate.send(spooled.getRecord());
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            futures.add(future.whenComplete((result, error) -> metrics.stop(sample, NotificationMetrics.KAFKA_SEND,
+                    spooled.getChannel(), spooled.getPriority(), error == null ? NotificationMetrics.SUCCESS : NotificationMetrics.FAILURE)));
+            // A send failing straight away usually means the broker is still down, and later sends would block too
+            if (future.isCompletedExceptionally()) {
+                break;
+            }
+        }
+        kafkaTemplate.flush();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                if (!NotificationProducer.isRejected(e.getCause())) {
+                    return i;
+                }
+                logger.error("Dropping spooled message for topic {} rejected by Kafka",
+                        batch.get(i).getRecord().topic(), e.getCause());
+            }
+        }
+        return futures.size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.microservice.notification.notification_service.producers;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.entities.StatusTransitionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publisher of the written status transitions to the status topic.
+ * <p>
+ * The status write-behind hands over each committed batch of transitions, and a single sender
+ * thread publishes them through a bounded queue, so an unreachable broker never holds up status
+ * writes. The events feed statistics only: the database stays the record of the statuses, so events
+ * that cannot be queued or sent are dropped, and counted by the
+ * {@code notification.status_events.dropped} counter, rather than retried.
+ * </p>
+ */
+@Component
+public class StatusEventPublisher {
+
+    private static final Logger logger = LogManager.getLogger(StatusEventPublisher.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final Gson gson = new Gson();
+    private final ThreadPoolExecutor sender;
+    private final Counter dropped;
+
+    public StatusEventPublisher(KafkaTemplate<String, String> kafkaTemplate, MeterRegistry meterRegistry,
+                                @Value("${notification.stats.publisher.queue-size:1000}") int queueSize) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "status-event-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = Counter.builder("notification.status_events.dropped")
+                .description("Status transitions not published to the status topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a batch of written transitions for publishing.
+     *
+     * @param events The transitions, in the order they were written.
+     */
+    public void publish(List<StatusTransitionEvent> events) {
+        try {
+            sender.execute(() -> send(events));
+        } catch (RejectedExecutionException e) {
+            dropped.increment(events.size());
+        }
+    }
+
+    /**
+     * Publishes the queued transitions before the publisher shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+        try {
+            sender.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(List<StatusTransitionEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            StatusTransitionEvent event = events.get(i);
+            try {
+                kafkaTemplate.send(new ProducerRecord<>(NotificationConstants.STATUS_KAFKA_TOPIC, null, event.getOccurredAt(),
+                                event.getIdentifier(), gson.toJson(event)))
+                        .whenComplete((result, error) -> {
+                            if (error != null) {
+                                dropped.increment();
+                            }
+                        });
+            } catch (Exception e) {
+                // The broker is unreachable, the rest of the batch would wait just as long
+                logger.warn("Dropping {} status events, the status topic is unavailable: {}", events.size() - i, e.getMessage());
+                dropped.increment(events.size() - i);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.FieldValidationError;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.utils.BoundedRingBuffer;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.header.Header;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service accepting notifications for asynchronous publishing.
+ * <p>
+ * A request is validated, checked against the suppression list and the frequency caps, and given
+ * its identifier on the calling thread, then offered to a bounded lock-free ring buffer, so the
+ * caller is answered without waiting on the database or Kafka. When the buffer is full the request is refused rather than queued, letting the client
+ * back off; the buffer is checked before the frequency cap, so a refused request does not count
+ * against its recipient. Drainer threads take the buffered notifications in batches, persist each
+ * batch with one batched insert and send it to Kafka grouped by topic, flushing the producer once
+ * per group.
+ * </p>
+ * <p>
+ * Buffered notifications have already been accepted, so a batch that cannot be persisted is never
+ * dropped: it is persisted one notification at a time instead, retrying with backoff while the
+ * database is unavailable, and only a notification the database rejects outright is given up.
+ * Meanwhile the buffer fills up and new requests are refused. A persisted notification that cannot
+ * be sent stays in {@code RECEIVED} and is picked up by the re-drive.
+ * </p>
+ * <p>
+ * On shutdown the service stops accepting requests and the drainers empty the buffer before they
+ * exit, so every accepted notification is persisted and sent.
+ * </p>
+ */
+@Service
+public class AsyncIngestService {
+
+    private static final Logger logger = LogManager.getLogger(AsyncIngestService.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final NotificationService notificationService;
+    private final NotificationRepository repository;
+    private final NotificationProducer producer;
+    private final ContentStore contentStore;
+    private final ClaimCheckService claimCheckService;
+    private final SuppressionService suppressionService;
+    private final FrequencyCapService frequencyCapService;
+    private final NotificationMetrics metrics;
+    private final BoundedRingBuffer<NotificationRequest> buffer;
+    private final Gson gson;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final List<Thread> drainers = new ArrayList<>();
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    public AsyncIngestService(NotificationService notificationService, NotificationRepository repository,
+                              NotificationProducer producer, ContentStore contentStore, ClaimCheckService claimCheckService,
+                              SuppressionService suppressionService, FrequencyCapService frequencyCapService,
+                              NotificationMetrics metrics, MeterRegistry meterRegistry,
+                              @Value("${notification.ingest.buffer-size:16384}") int bufferSize,
+                              @Value("${notification.ingest.batch-size:500}") int batchSize,
+                              @Value("${notification.ingest.linger-ms:5}") long lingerMs,
+                              @Value("${notification.ingest.drain-threads:1}") int drainThreads) {
+        this.notificationService = notificationService;
+        this.repository = repository;
+        this.producer = producer;
+        this.contentStore = contentStore;
+        this.claimCheckService = claimCheckService;
+        this.suppressionService = suppressionService;
+        this.frequencyCapService = frequencyCapService;
+        this.metrics = metrics;
+        this.buffer = new BoundedRingBuffer<>(bufferSize);
+        this.gson = new Gson();
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        for (int i = 1; i <= drainThreads; i++) {
+            Thread drainer = new Thread(this::drain, "ingest-drainer-" + i);
+            drainer.setDaemon(true);
+            drainers.add(drainer);
+        }
+        Gauge.builder("notification.ingest.buffered", buffer, BoundedRingBuffer::size)
+                .description("Notifications accepted for asynchronous publishing and not yet persisted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the drainer threads.
+     */
+    @PostConstruct
+    public void start() {
+        drainers.forEach(Thread::start);
+        logger.info("Started {} ingest drainers with a buffer of {} notifications", drainers.size(), buffer.capacity());
+    }
+
+    /**
+     * Validates a notification, assigns its identifier and buffers it for publishing.
+     *
+     * @param request The notification to publish.
+     * @return true if the notification was accepted, or dropped because its recipient is suppressed or
+     * over its frequency cap, in which case its status is {@code SUPPRESSED} or {@code CAPPED}; false if
+     * the buffer is full or the service is shutting down.
+     * @throws InvalidRequestException if the notification is invalid.
+     */
+    public boolean accept(NotificationRequest request) throws InvalidRequestException {
+        List<FieldValidationError> errors = notificationService.validate(request);
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException("Invalid request object", errors);
+        }
+        if (!accepting) {
+            return false;
+        }
+        request.setNotificationType(request.getNotificationType().toUpperCase());
+        // Only campaign expansion links a notification to a campaign recipient
+        request.setCampaignId(null);
+        request.setRecipientOrdinal(null);
+        if (buffer.size() >= buffer.capacity()) {
+            logger.warn("Ingest buffer full, rejecting notification for channel: {}", request.getNotificationType());
+            return false;
+        }
+        if (suppressionService.isSuppressed(request)) {
+            // Answered like an accepted notification, but neither persisted nor sent
+            request.setStatus(NotificationStatusEnum.SUPPRESSED.name());
+            metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.SUPPRESSED.name());
+            return true;
+        }
+        if (frequencyCapService.isCapped(request)) {
+            request.setStatus(NotificationStatusEnum.CAPPED.name());
+            metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.CAPPED.name());
+            return true;
+        }
+        request.setIdentifier(TimeOrderedIds.next());
+        request.setStatus(NotificationStatusEnum.RECEIVED.name());
+        if (!buffer.offer(request)) {
+            logger.warn("Ingest buffer full, rejecting notification for channel: {}", request.getNotificationType());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting notifications and waits for the drainers to publish the buffered ones.
+     */
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        running = false;
+        logger.info("Draining {} buffered notifications before shutdown", buffer.size());
+        for (Thread drainer : drainers) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (buffer.size() > 0) {
+            logger.error("Shut down with {} buffered notifications not published", buffer.size());
+        }
+    }
+
+    private void drain() {
+        List<NotificationRequest> batch = new ArrayList<>(batchSize);
+        while (true) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(lingerNanos);
+                continue;
+            }
+            try {
+                publish(batch);
+            } catch (Exception e) {
+                logger.error("Error publishing batch of {} buffered notifications", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<NotificationRequest> batch) {
+        List<NotificationRequest> persisted = persist(batch);
+        Map<String, List<NotificationRequest>> byTopic = new LinkedHashMap<>();
+        for (NotificationRequest request : persisted) {
+            String topic = NotificationService.getTopicByChannel(request.getNotificationType());
+            // Keep large email bodies out of the Kafka message
+            claimCheckService.offload(request);
+            byTopic.computeIfAbsent(topic + '|' + request.getPriority(), key -> new ArrayList<>()).add(request);
+        }
+        for (List<NotificationRequest> group : byTopic.values()) {
+            NotificationRequest first = group.get(0);
+            List<String> keys = new ArrayList<>(group.size());
+            List<String> messages = new ArrayList<>(group.size());
+            List<List<Header>> headers = new ArrayList<>(group.size());
+            for (NotificationRequest request : group) {
+                keys.add(RecipientKey.of(request));
+                messages.add(gson.toJson(request));
+                headers.add(PipelineHeaders.of(request));
+            }
+            try {
+                producer.sendMessages(keys, messages, NotificationService.getTopicByChannel(first.getNotificationType()),
+                        first.getNotificationType(), first.getPriority(), headers);
+                for (NotificationRequest request : group) {
+                    metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.RECEIVED.name());
+                }
+            } catch (Exception e) {
+                logger.error("Error sending {} buffered {} notifications to Kafka, leaving them to the re-drive",
+                        group.size(), first.getNotificationType(), e);
+            }
+        }
+    }
+
+    /**
+     * Persists a batch with one batched insert, falling back to one notification at a time when the batch fails.
+     *
+     * @return The persisted notifications.
+     */
+    private List<NotificationRequest> persist(List<NotificationRequest> batch) {
+        try {
+            for (NotificationRequest request : batch) {
+                request.setContentHash(contentStore.store(request.getNotificationContent()));
+            }
+            repository.saveAll(batch);
+            return batch;
+        } catch (RuntimeException e) {
+            logger.error("Error persisting batch of {} buffered notifications, persisting them one at a time", batch.size(), e);
+        }
+        List<NotificationRequest> persisted = new ArrayList<>(batch.size());
+        for (NotificationRequest request : batch) {
+            if (persistWithRetry(request)) {
+                persisted.add(request);
+            }
+        }
+        return persisted;
+    }
+
+    private boolean persistWithRetry(NotificationRequest request) {
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            // The failed insert was rolled back, so the notification is inserted afresh
+            request.setId(0);
+            try {
+                request.setContentHash(contentStore.store(request.getNotificationContent()));
+                repository.save(request);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Database rejected buffered notification with identifier: {}", request.getIdentifier(), e);
+                return false;
+            } catch (RuntimeException e) {
+                logger.warn("Error persisting buffered notification with identifier: {}, retrying in {} ms",
+                        request.getIdentifier(), backoffMillis, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.CampaignStatusEnum;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.CampaignRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.Campaign;
+import com.microservice.notification.notification_service.entities.CampaignRequest;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Service for fanning out a single notification to a large list of recipients.
+ * <p>
+ * The uploaded recipient list is spooled to local disk and expanded in the background,
+ * one chunk at a time, so that the full list is never held in memory. Every chunk is
+ * persisted with a single batched insert and sent to Kafka as a single batch, and the
+ * progress counters of the campaign are updated after each chunk. The shared content is stored
+ * once in the {@link ContentStore} and every notification carries only its hash.
+ * </p>
+ * <p>
+ * Each chunk is committed together with the campaign progress it completes, so a campaign
+ * interrupted by a restart resumes on startup right after its last committed chunk. A chunk
+ * committed but not yet sent is left to the {@link RedriveService} reaper.
+ * </p>
+ */
+@Service
+public class CampaignService {
+
+    private static final Logger logger = LogManager.getLogger(CampaignService.class);
+
+    private final CampaignRepository campaignRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationProducer producer;
+    private final ContentStore contentStore;
+    private final NotificationValidator validator;
+    private final SuppressionService suppressionService;
+    private final ThreadPoolTaskExecutor campaignExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Gson gson;
+    private final int chunkSize;
+    private final Path spoolDirectory;
+
+    public CampaignService(CampaignRepository campaignRepository,
+                           NotificationRepository notificationRepository,
+                           NotificationProducer producer,
+                           ContentStore contentStore,
+                           NotificationValidator validator,
+                           SuppressionService suppressionService,
+                           @Qualifier("campaignExecutor") ThreadPoolTaskExecutor campaignExecutor,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${notification.campaign.chunk-size:1000}") int chunkSize,
+                           @Value("${notification.campaign.spool-dir:${java.io.tmpdir}/notification-campaigns}") String spoolDirectory) {
+        this.campaignRepository = campaignRepository;
+        this.notificationRepository = notificationRepository;
+        this.producer = producer;
+        this.contentStore = contentStore;
+        this.validator = validator;
+        this.suppressionService = suppressionService;
+        this.campaignExecutor = campaignExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gson = new Gson();
+        this.chunkSize = chunkSize;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+    }
+
+    /**
+     * Creates a campaign and schedules the expansion of its recipient list.
+     * <p>
+     * The recipient stream is copied to a spool file before this method returns, so the caller
+     * may close it right away. Recipients are read one per line; lines containing an '@' are
+     * treated as email addresses and all other non-blank lines as phone numbers. Recipients that
+     * are not valid for the campaign's channel are skipped and counted as failed, and recipients on
+     * the suppression list are skipped and counted as suppressed.
+     * </p>
+     *
+     * @param request     The campaign details shared by all recipients.
+     * @param owner       The username of the client creating the campaign.
+     * @param traceparent The trace context of the request creating the campaign.
+     * @param recipients  The stream of recipients, one per line.
+     * @return The created campaign with its identifier and initial progress counters.
+     * @throws InvalidRequestException if the campaign details are invalid.
+     * @throws IOException             if the recipient list could not be spooled to disk.
+     * @throws TaskRejectedException   if too many campaigns are already waiting to be expanded; the
+     *                                 campaign is then marked failed.
+     */
+    public Campaign createCampaign(CampaignRequest request, String owner, String traceparent, InputStream recipients) throws InvalidRequestException, IOException {
+        if (!validate(request)) {
+            throw new InvalidRequestException("Invalid campaign request object");
+        }
+
+        Campaign campaign = new Campaign();
+        campaign.setCampaignId(TimeOrderedIds.next());
+        campaign.setNotificationType(request.getNotificationType().toUpperCase());
+        campaign.setPriority(request.getPriority());
+        campaign.setContentHash(contentStore.store(request.getNotificationContent()));
+        campaign.setStatus(CampaignStatusEnum.RECEIVED.name());
+        campaign.setOwner(owner);
+        campaign.setTraceparent(traceparent);
+        campaign.setReceivedAt(System.currentTimeMillis());
+
+        Files.createDirectories(spoolDirectory);
+        Path spoolFile = spoolFileOf(campaign);
+        long bytes = Files.copy(recipients, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Spooled {} bytes of recipients for campaign: {}", bytes, campaign.getCampaignId());
+
+        campaignRepository.save(campaign);
+        try {
+            campaignExecutor.execute(() -> expandCampaign(campaign, spoolFile));
+        } catch (TaskRejectedException e) {
+            logger.warn("Campaign {} rejected, too many campaigns waiting to be expanded", campaign.getCampaignId());
+            campaign.setStatus(CampaignStatusEnum.FAILED.name());
+            campaignRepository.save(campaign);
+            deleteSpool(spoolFile);
+            throw e;
+        }
+        return campaign;
+    }
+
+    /**
+     * Resumes the expansion of the campaigns interrupted by a restart of the service.
+     * <p>
+     * Campaigns whose spool file is gone cannot be resumed and are marked failed. Campaigns the
+     * executor has no room for are left as they are and resumed on the next start.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        List<Campaign> interrupted = campaignRepository.findByStatusIn(
+                List.of(CampaignStatusEnum.RECEIVED.name(), CampaignStatusEnum.EXPANDING.name()));
+        for (Campaign campaign : interrupted) {
+            Path spoolFile = spoolFileOf(campaign);
+            if (!Files.exists(spoolFile)) {
+                logger.warn("Spool file of interrupted campaign {} is gone, marking it failed", campaign.getCampaignId());
+                campaign.setStatus(CampaignStatusEnum.FAILED.name());
+                campaignRepository.save(campaign);
+                continue;
+            }
+            try {
+                campaignExecutor.execute(() -> expandCampaign(campaign, spoolFile));
+                logger.info("Resuming campaign {} after line {}", campaign.getCampaignId(), campaign.getExpandedLines());
+            } catch (TaskRejectedException e) {
+                logger.warn("No room to resume campaign {}, leaving it for the next start", campaign.getCampaignId());
+            }
+        }
+    }
+
+    /**
+     * Retrieves a campaign, including its progress counters, by its identifier.
+     * <p>
+     * A campaign owned by another client is reported as not found, so that clients cannot tell
+     * which identifiers exist.
+     * </p>
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @param owner      The username of the client requesting the campaign.
+     * @return The campaign.
+     * @throws InvalidRequestException if no campaign owned by the client exists with the given identifier.
+     */
+    public Campaign getCampaign(String campaignId, String owner) throws InvalidRequestException {
+        return campaignRepository.findByCampaignId(campaignId)
+                .filter(campaign -> owner.equals(campaign.getOwner()))
+                .orElseThrow(() -> {
+                    logger.warn("No campaign found with identifier: {}", campaignId);
+                    return new InvalidRequestException("No campaign found with this identifier.");
+                });
+    }
+
+    /**
+     * Reads the spooled recipient list chunk by chunk and publishes a notification per recipient,
+     * starting after the lines already expanded when the campaign is resumed.
+     *
+     * @param campaign  The campaign being expanded.
+     * @param spoolFile The spool file holding the recipient list.
+     */
+    private void expandCampaign(Campaign campaign, Path spoolFile) {
+        logger.info("Expanding campaign: {}", campaign.getCampaignId());
+        campaign.setStatus(CampaignStatusEnum.EXPANDING.name());
+        campaignRepository.save(campaign);
+
+        String topic = NotificationService.getTopicByChannel(campaign.getNotificationType());
+        List<NotificationRequest> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8)) {
+            String line;
+            long ordinal = campaign.getNextOrdinal();
+            long lineNumber = 0;
+            while (lineNumber < campaign.getExpandedLines() && reader.readLine() != null) {
+                lineNumber++;
+            }
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String recipient = line.trim();
+                if (recipient.isEmpty()) {
+                    continue;
+                }
+                if (!validator.isValidRecipient(campaign.getNotificationType(), recipient)) {
+                    logger.warn("Skipping invalid recipient on line {} of campaign: {}", lineNumber, campaign.getCampaignId());
+                    campaign.setTotalRecipients(campaign.getTotalRecipients() + 1);
+                    campaign.setFailedCount(campaign.getFailedCount() + 1);
+                    continue;
+                }
+                if (suppressionService.isSuppressed(recipient)) {
+                    campaign.setTotalRecipients(campaign.getTotalRecipients() + 1);
+                    campaign.setSuppressedCount(campaign.getSuppressedCount() + 1);
+                    continue;
+                }
+                chunk.add(toNotification(campaign, recipient, ordinal++));
+                if (chunk.size() == chunkSize) {
+                    publishChunk(campaign, chunk, topic, lineNumber, ordinal);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                publishChunk(campaign, chunk, topic, lineNumber, ordinal);
+            }
+            campaign.setStatus(CampaignStatusEnum.COMPLETED.name());
+            logger.info("Campaign {} expanded: {} recipients, {} published, {} failed, {} suppressed", campaign.getCampaignId(),
+                    campaign.getTotalRecipients(), campaign.getPublishedCount(), campaign.getFailedCount(),
+                    campaign.getSuppressedCount());
+        } catch (Exception e) {
+            logger.error("Error while expanding campaign: {}", campaign.getCampaignId(), e);
+            campaign.setStatus(CampaignStatusEnum.FAILED.name());
+        } finally {
+            campaignRepository.save(campaign);
+            deleteSpool(spoolFile);
+        }
+    }
+
+    /**
+     * Persists a chunk of notifications with one batched insert, sends it to Kafka as one batch
+     * and records the outcome in the campaign progress counters.
+     * <p>
+     * The insert and the campaign progress it completes are committed in one transaction, so a
+     * resumed expansion neither skips nor repeats a recipient.
+     * </p>
+     *
+     * @param campaign      The campaign the chunk belongs to.
+     * @param chunk         The notifications of the chunk; cleared once published.
+     * @param topic         The Kafka topic of the campaign's channel.
+     * @param expandedLines The number of spool lines read up to the end of the chunk.
+     * @param nextOrdinal   The recipient ordinal following the last one of the chunk.
+     */
+    private void publishChunk(Campaign campaign, List<NotificationRequest> chunk, String topic, long expandedLines, long nextOrdinal) {
+        campaign.setTotalRecipients(campaign.getTotalRecipients() + chunk.size());
+        campaign.setExpandedLines(expandedLines);
+        campaign.setNextOrdinal(nextOrdinal);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                notificationRepository.saveAll(chunk);
+                campaignRepository.save(campaign);
+            });
+        } catch (Exception e) {
+            logger.error("Error persisting chunk of {} notifications for campaign: {}", chunk.size(), campaign.getCampaignId(), e);
+            campaign.setFailedCount(campaign.getFailedCount() + chunk.size());
+            campaignRepository.save(campaign);
+            chunk.clear();
+            return;
+        }
+        try {
+            List<String> keys = new ArrayList<>(chunk.size());
+            List<String> messages = new ArrayList<>(chunk.size());
+            for (NotificationRequest notification : chunk) {
+                keys.add(RecipientKey.of(notification));
+                messages.add(gson.toJson(notification));
+            }
+            // The chunk shares one trace and was persisted by one batched insert, so its rows share their headers
+            producer.sendMessages(keys, messages, topic, campaign.getNotificationType(), campaign.getPriority(),
+                    Collections.nCopies(chunk.size(), PipelineHeaders.of(chunk.get(0))));
+            campaign.setPublishedCount(campaign.getPublishedCount() + chunk.size());
+        } catch (Exception e) {
+            logger.error("Error publishing chunk of {} notifications for campaign: {}, leaving them to the re-drive",
+                    chunk.size(), campaign.getCampaignId(), e);
+            campaign.setFailedCount(campaign.getFailedCount() + chunk.size());
+        }
+        campaignRepository.save(campaign);
+        chunk.clear();
+    }
+
+    private Path spoolFileOf(Campaign campaign) {
+        return spoolDirectory.resolve(campaign.getCampaignId() + ".recipients");
+    }
+
+    private static void deleteSpool(Path spoolFile) {
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete spool file: {}", spoolFile, e);
+        }
+    }
+
+    private NotificationRequest toNotification(Campaign campaign, String recipient, long ordinal) {
+        NotificationRequest notification = new NotificationRequest();
+        if (recipient.indexOf('@') >= 0) {
+            notification.setEmail(recipient);
+        } else {
+            notification.setPhone(recipient);
+        }
+        notification.setIdentifier(TimeOrderedIds.next());
+        notification.setNotificationType(campaign.getNotificationType());
+        notification.setPriority(campaign.getPriority());
+        notification.setContentHash(campaign.getContentHash());
+        notification.setStatus(NotificationStatusEnum.RECEIVED.name());
+        notification.setCampaignId(campaign.getCampaignId());
+        notification.setRecipientOrdinal(ordinal);
+        notification.setOwner(campaign.getOwner());
+        notification.setTraceparent(campaign.getTraceparent());
+        notification.setReceivedAt(campaign.getReceivedAt());
+        return notification;
+    }
+
+    private boolean validate(CampaignRequest request) {
+        if (request == null) {
+            logger.error("Validation failed: CampaignRequest is null");
+            return false;
+        }
+
+        if (request.getNotificationType() == null || NotificationService.getTopicByChannel(request.getNotificationType()) == null) {
+            logger.error("Validation failed: Invalid notification type: {}", request.getNotificationType());
+            return false;
+        }
+
+        if (request.getNotificationContent() == null || request.getNotificationContent().isEmpty()) {
+            logger.error("Validation failed: Message content is missing");
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,143 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.storage.BlobStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Service implementing the claim-check pattern for large email bodies.
+ * <p>
+ * Email bodies above the configured size are written to the {@link BlobStore} before the
+ * notification is sent to Kafka, and the message carries only the blob reference. The body is
+ * stored already JSON-encoded, so the consumer can stream it straight into the provider request
+ * behind the JSON envelope of the notification instead of loading it into memory. Blobs are
+ * stored under the notification identifier and deleted once the email is delivered, or at the
+ * latest when the notification is purged.
+ * </p>
+ */
+@Service
+public class ClaimCheckService {
+
+    private static final Logger logger = LogManager.getLogger(ClaimCheckService.class);
+    private static final byte[] CONTENT_FIELD = ",\"notificationContent\":".getBytes(StandardCharsets.UTF_8);
+
+    private final BlobStore blobStore;
+    private final Gson gson;
+    private final boolean enabled;
+    private final int thresholdChars;
+
+    public ClaimCheckService(BlobStore blobStore,
+                             @Value("${notification.claim-check.enabled:true}") boolean enabled,
+                             @Value("${notification.claim-check.threshold-chars:65536}") int thresholdChars) {
+        this.blobStore = blobStore;
+        this.gson = new Gson();
+        this.enabled = enabled;
+        this.thresholdChars = thresholdChars;
+    }
+
+    /**
+     * Moves the body of a large email notification to the blob store.
+     * <p>
+     * The notification is left untouched when claim-check is disabled, when it is not an email,
+     * when its body is below the threshold, or when the body could not be stored.
+     * </p>
+     *
+     * @param notification The notification about to be sent to Kafka.
+     */
+    public void offload(NotificationRequest notification) {
+        String content = notification.getNotificationContent();
+        if (!enabled || content == null || content.length() < thresholdChars
+                || !NotificationTypeEnum.EMAIL.name().equalsIgnoreCase(notification.getNotificationType())) {
+            return;
+        }
+        try {
+            String reference = blobStore.put(notification.getIdentifier(), writer -> gson.toJson(content, writer));
+            notification.setContentRef(reference);
+            notification.setNotificationContent(null);
+            logger.info("Offloaded email body of {} chars for identifier: {}", content.length(), notification.getIdentifier());
+        } catch (IOException e) {
+            logger.error("Error offloading email body, sending it inline for identifier: {}", notification.getIdentifier(), e);
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the JSON document written by {@link #writeJson(NotificationRequest, byte[], OutputStream)}.
+     *
+     * @param notification The notification carrying a blob reference.
+     * @param envelope     The JSON envelope of the notification, as returned by {@link #envelope(NotificationRequest)}.
+     * @return The size of the JSON document.
+     * @throws IOException if the blob could not be found.
+     */
+    public long jsonLength(NotificationRequest notification, byte[] envelope) throws IOException {
+        return envelope.length - 1 + CONTENT_FIELD.length + blobStore.size(notification.getContentRef()) + 1;
+    }
+
+    /**
+     * Serialises a notification carrying a blob reference without its body.
+     *
+     * @param notification The notification carrying a blob reference.
+     * @return The JSON envelope of the notification.
+     */
+    public byte[] envelope(NotificationRequest notification) {
+        return gson.toJson(notification).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a notification as JSON, streaming its body from the blob store.
+     *
+     * @param notification The notification carrying a blob reference.
+     * @param envelope     The JSON envelope of the notification, as returned by {@link #envelope(NotificationRequest)}.
+     * @param out          The output to write the JSON document to.
+     * @throws IOException if the blob could not be read or the output written.
+     */
+    public void writeJson(NotificationRequest notification, byte[] envelope, OutputStream out) throws IOException {
+        // Reopen the envelope object, append the body field and close it again
+        out.write(envelope, 0, envelope.length - 1);
+        out.write(CONTENT_FIELD);
+        blobStore.transferTo(notification.getContentRef(), out);
+        out.write('}');
+        out.flush();
+    }
+
+    /**
+     * Deletes the blob of a notification once it has been delivered.
+     *
+     * @param notification The notification carrying a blob reference.
+     */
+    public void release(NotificationRequest notification) {
+        try {
+            blobStore.delete(notification.getContentRef());
+        } catch (IOException e) {
+            logger.warn("Error deleting email body blob for identifier: {}", notification.getIdentifier(), e);
+        }
+    }
+
+    /**
+     * Deletes the blob a notification may have been offloaded to, when the notification is purged.
+     * <p>
+     * The blob reference is not persisted with the notification, so the blob is found through the
+     * identifier it was stored under.
+     * </p>
+     *
+     * @param notification The purged notification.
+     */
+    public void discard(NotificationRequest notification) {
+        if (!NotificationTypeEnum.EMAIL.name().equalsIgnoreCase(notification.getNotificationType())) {
+            return;
+        }
+        try {
+            blobStore.delete(blobStore.referenceOf(notification.getIdentifier()));
+        } catch (IOException e) {
+            logger.warn("Error deleting email body blob of purged identifier: {}", notification.getIdentifier(), e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationContentRepository;
+import com.microservice.notification.notification_service.entities.NotificationContent;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed store for notification bodies.
+ * <p>
+ * Bodies are keyed by their SHA-256 hash so that notifications carrying byte-identical bodies
+ * share a single NOTIFICATION_CONTENT row. A bounded least-recently-used cache of hot bodies
+ * sits in front of the table, so consumers resolving the same body for a bulk send hit the
+ * database only once. Bodies are collected by {@link #sweep(Collection)} once the last notification
+ * or campaign referencing them is gone.
+ * </p>
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger logger = LogManager.getLogger(ContentStore.class);
+
+    private final NotificationContentRepository repository;
+    private final Map<String, String> hotBodies;
+
+    public ContentStore(NotificationContentRepository repository,
+                        @Value("${notification.content.cache-size:1000}") int cacheSize) {
+        this.repository = repository;
+        this.hotBodies = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Stores a body unless an identical one is already stored.
+     *
+     * @param content The body to store.
+     * @return The hash referencing the stored body.
+     */
+    public String store(String content) {
+        String contentHash = hash(content);
+        if (getCached(contentHash) != null) {
+            return contentHash;
+        }
+        if (!repository.existsById(contentHash)) {
+            try {
+                repository.save(new NotificationContent(contentHash, content));
+                logger.info("Stored new notification body with hash: {}", contentHash);
+            } catch (DataIntegrityViolationException e) {
+                // Another thread stored the same body concurrently
+                logger.debug("Notification body already stored with hash: {}", contentHash);
+            }
+        }
+        putCached(contentHash, content);
+        return contentHash;
+    }
+
+    /**
+     * Resolves a body by its hash.
+     *
+     * @param contentHash The hash referencing the body.
+     * @return The body, or null if no body is stored under the hash.
+     */
+    public String resolve(String contentHash) {
+        String content = getCached(contentHash);
+        if (content != null) {
+            return content;
+        }
+        content = repository.findById(contentHash).map(NotificationContent::getContent).orElse(null);
+        if (content == null) {
+            logger.warn("No notification body found with hash: {}", contentHash);
+            return null;
+        }
+        putCached(contentHash, content);
+        return content;
+    }
+
+    /**
+     * Fills in the body of a notification that only carries its content hash.
+     * <p>
+     * Notifications whose body was offloaded to the blob store are left untouched, since their
+     * body is streamed from the blob store instead.
+     * </p>
+     *
+     * @param notification The notification to complete.
+     */
+    public void hydrate(NotificationRequest notification) {
+        if (notification != null && notification.getNotificationContent() == null
+                && notification.getContentRef() == null && notification.getContentHash() != null) {
+            notification.setNotificationContent(resolve(notification.getContentHash()));
+        }
+    }
+
+    /**
+     * Deletes the given bodies that are no longer referenced by any notification or campaign.
+     * <p>
+     * Bodies still in the hot cache were stored or resolved recently and are kept, so a body that
+     * is being stored again for a new notification is not deleted before that notification is saved.
+     * </p>
+     *
+     * @param contentHashes The hashes of the bodies whose last known reference was removed.
+     * @return The number of bodies deleted.
+     */
+    public int sweep(Collection<String> contentHashes) {
+        List<String> candidates = new ArrayList<>(contentHashes.size());
+        synchronized (hotBodies) {
+            for (String contentHash : contentHashes) {
+                if (contentHash != null && !hotBodies.containsKey(contentHash)) {
+                    candidates.add(contentHash);
+                }
+            }
+        }
+        return candidates.isEmpty() ? 0 : repository.deleteUnreferenced(candidates);
+    }
+
+    private String getCached(String contentHash) {
+        synchronized (hotBodies) {
+            return hotBodies.get(contentHash);
+        }
+    }
+
+    private void putCached(String contentHash, String content) {
+        synchronized (hotBodies) {
+            hotBodies.put(contentHash, content);
+        }
+    }
+
+    private static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.DeliveryStatsProperties;
+import com.microservice.notification.notification_service.constants.NotificationPriorityEnum;
+import com.microservice.notification.notification_service.entities.DeliveryStats;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.stats.DeliveryStatsTopology;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service answering delivery statistics queries from the local state of the statistics stream.
+ * <p>
+ * Queries read the per-minute counts from the window store of {@link DeliveryStatsTopology}
+ * through Kafka Streams interactive queries, and never touch the database. The store of each
+ * stream task holds the counts of the records it read, so the counts of a minute and key are summed
+ * over the local tasks. Each instance answers for the partitions assigned to it, so with several
+ * instances a dashboard sums the answers of all of them; no record is counted by two instances.
+ * </p>
+ */
+@Service
+public class DeliveryStatsService {
+
+    private static final Logger logger = LogManager.getLogger(DeliveryStatsService.class);
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(1);
+
+    private final StreamsBuilderFactoryBean streamsBuilder;
+    private final DeliveryStatsProperties properties;
+
+    public DeliveryStatsService(StreamsBuilderFactoryBean streamsBuilder, DeliveryStatsProperties properties) {
+        this.streamsBuilder = streamsBuilder;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the per-minute counts of a time range, optionally narrowed to a channel, status and priority.
+     *
+     * @param from     The inclusive start of the range, rounded down to the minute; defaults to one hour before its end.
+     * @param to       The exclusive end of the range; defaults to now.
+     * @param channel  The channel to count, or null for every channel.
+     * @param status   The status to count, or null for every status.
+     * @param priority The priority to count, or null for every priority.
+     * @return The non-zero counts, ordered by minute, channel, status and priority.
+     * @throws InvalidRequestException    if the range is empty or longer than the configured maximum.
+     * @throws InvalidStateStoreException if the statistics stream is not running or is still restoring its state.
+     */
+    public List<DeliveryStats> getStats(Instant from, Instant to, String channel, String status, String priority)
+            throws InvalidRequestException {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = (from != null ? from : end.minus(DEFAULT_RANGE)).truncatedTo(ChronoUnit.MINUTES);
+        if (!start.isBefore(end)) {
+            throw new InvalidRequestException("The start of the range must be before its end");
+        }
+        if (Duration.between(start, end).compareTo(properties.getMaxRange()) > 0) {
+            throw new InvalidRequestException("The range must not be longer than " + properties.getMaxRange());
+        }
+        ReadOnlyWindowStore<String, Long> store = store();
+        Instant last = end.minusMillis(1);
+        String key = channel != null && status != null && priority != null
+                ? DeliveryStatsTopology.keyOf(channel, status, priority) : null;
+        Map<Windowed<String>, Long> totals = new HashMap<>();
+        // Range queries read the stores of every local task, where a single-key fetch stops at the first one holding the key
+        try (KeyValueIterator<Windowed<String>, Long> counts = key != null
+                ? store.fetch(key, key, start, last) : store.fetchAll(start, last)) {
+            while (counts.hasNext()) {
+                KeyValue<Windowed<String>, Long> count = counts.next();
+                totals.merge(count.key, count.value, Long::sum);
+            }
+        }
+        List<DeliveryStats> stats = new ArrayList<>();
+        for (Map.Entry<Windowed<String>, Long> total : totals.entrySet()) {
+            String[] parts = DeliveryStatsTopology.partsOf(total.getKey().key());
+            if (matches(channel, parts[0]) && matches(status, parts[1])
+                    && (priority == null || NotificationPriorityEnum.of(priority).name().equals(parts[2]))) {
+                stats.add(new DeliveryStats(total.getKey().window().start(), parts[0], parts[1], parts[2], total.getValue()));
+            }
+        }
+        stats.sort(Comparator.comparingLong(DeliveryStats::getMinute)
+                .thenComparing(DeliveryStats::getChannel)
+                .thenComparing(DeliveryStats::getStatus)
+                .thenComparing(DeliveryStats::getPriority));
+        logger.debug("Read {} delivery statistics between {} and {}", stats.size(), start, end);
+        return stats;
+    }
+
+    private ReadOnlyWindowStore<String, Long> store() {
+        KafkaStreams streams = streamsBuilder.getKafkaStreams();
+        if (streams == null) {
+            throw new InvalidStateStoreException("The delivery statistics stream is not running");
+        }
+        return streams.store(StoreQueryParameters.fromNameAndType(DeliveryStatsTopology.STORE, QueryableStoreTypes.windowStore()));
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.equalsIgnoreCase(value);
+    }
+}
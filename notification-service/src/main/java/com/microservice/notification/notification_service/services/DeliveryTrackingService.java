@@ -0,0 +1,361 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.CampaignStatusEnum;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.CampaignRepository;
+import com.microservice.notification.notification_service.entities.Campaign;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.utils.CompressedBitmap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service tracking the delivery state of campaign recipients in compressed bitmaps.
+ * <p>
+ * Every campaign keeps one bitmap per notification status, indexed by recipient ordinal, plus a
+ * bitmap of the recipients that have been re-driven. Consumers record status changes as they
+ * write them, so aggregate counts and set queries such as "failed but not retried" are answered
+ * in memory without scanning the NOTIFICATION table. The bitmaps are snapshotted to local disk
+ * periodically and restored on startup.
+ * </p>
+ * <p>
+ * Only campaigns that exist are tracked: a status carrying an unknown campaign identifier is
+ * ignored, so that bitmaps cannot be created or altered through anything but campaign expansion.
+ * A campaign is finished once its expansion ended and each of its published recipients reached a
+ * terminal status; its bitmaps are evicted, and their snapshot deleted, once it has been finished
+ * and idle for the configured period.
+ * </p>
+ */
+@Service
+public class DeliveryTrackingService {
+
+    private static final Logger logger = LogManager.getLogger(DeliveryTrackingService.class);
+    private static final String SNAPSHOT_SUFFIX = ".bitmaps";
+    private static final String RETRIED = "RETRIED";
+
+    private static final List<String> TERMINAL_STATUSES = List.of(NotificationStatusEnum.DELEIVERED.name(),
+            NotificationStatusEnum.UNDELEIVERED.name());
+
+    private final Map<String, CampaignDelivery> campaigns = new ConcurrentHashMap<>();
+    private final CampaignRepository campaignRepository;
+    private final Path snapshotDirectory;
+    private final Duration evictAfter;
+
+    public DeliveryTrackingService(CampaignRepository campaignRepository,
+                                   @Value("${notification.delivery-tracking.snapshot-dir:${java.io.tmpdir}/notification-delivery}") String snapshotDirectory,
+                                   @Value("${notification.delivery-tracking.evict-after:1d}") Duration evictAfter) {
+        this.campaignRepository = campaignRepository;
+        this.snapshotDirectory = Paths.get(snapshotDirectory);
+        this.evictAfter = evictAfter;
+    }
+
+    /**
+     * Records the new status of a campaign notification.
+     * <p>
+     * Notifications that were not expanded from a campaign, or whose campaign does not exist, are ignored.
+     * </p>
+     *
+     * @param notification The notification whose status changed.
+     * @param status       The new status of the notification.
+     */
+    public void recordStatus(NotificationRequest notification, String status) {
+        if (notification.getCampaignId() == null || notification.getRecipientOrdinal() == null
+                || !isTrackable(notification.getCampaignId(), notification.getRecipientOrdinal())) {
+            return;
+        }
+        while (true) {
+            CampaignDelivery delivery = deliveryOf(notification.getCampaignId(), notification.getRecipientOrdinal());
+            if (delivery == null) {
+                return;
+            }
+            int ordinal = Math.toIntExact(notification.getRecipientOrdinal());
+            synchronized (delivery) {
+                if (delivery.evicted) {
+                    continue;
+                }
+                for (Map.Entry<String, CompressedBitmap> entry : delivery.byStatus.entrySet()) {
+                    if (!entry.getKey().equals(status)) {
+                        entry.getValue().remove(ordinal);
+                    }
+                }
+                delivery.byStatus.computeIfAbsent(status, key -> new CompressedBitmap()).add(ordinal);
+                delivery.touch();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Marks a campaign recipient as re-driven after a failed delivery.
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @param ordinal    The ordinal of the recipient within the campaign.
+     */
+    public void markRetried(String campaignId, long ordinal) {
+        if (!isTrackable(campaignId, ordinal)) {
+            return;
+        }
+        while (true) {
+            CampaignDelivery delivery = deliveryOf(campaignId, ordinal);
+            if (delivery == null) {
+                return;
+            }
+            synchronized (delivery) {
+                if (delivery.evicted) {
+                    continue;
+                }
+                delivery.retried.add(Math.toIntExact(ordinal));
+                delivery.touch();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of recipients currently in each status, plus the number of re-driven recipients.
+     *
+     * @param campaignId The unique identifier of the campaign.
+     * @return A map of status to recipient count.
+     * @throws InvalidRequestException if no delivery has been tracked for the campaign.
+     */
+    public Map<String, Long> getCounts(String campaignId) throws InvalidRequestException {
+        CampaignDelivery delivery = getDelivery(campaignId);
+        Map<String, Long> counts = new TreeMap<>();
+        synchronized (delivery) {
+            delivery.byStatus.forEach((status, bitmap) -> counts.put(status, bitmap.cardinality()));
+            counts.put(RETRIED, delivery.retried.cardinality());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the ordinals of the recipients currently in a given status.
+     *
+     * @param campaignId     The unique identifier of the campaign.
+     * @param status         The status to look up.
+     * @param excludeRetried Whether re-driven recipients should be left out.
+     * @param limit          The maximum number of ordinals to return.
+     * @return The matching recipient ordinals in ascending order.
+     * @throws InvalidRequestException if no delivery has been tracked for the campaign.
+     */
+    public List<Integer> findRecipients(String campaignId, String status, boolean excludeRetried, int limit) throws InvalidRequestException {
+        CampaignDelivery delivery = getDelivery(campaignId);
+        CompressedBitmap matches;
+        synchronized (delivery) {
+            CompressedBitmap bitmap = delivery.byStatus.getOrDefault(status, new CompressedBitmap());
+            matches = excludeRetried ? bitmap.andNot(delivery.retried) : bitmap.copy();
+        }
+        List<Integer> ordinals = new ArrayList<>();
+        matches.forEach(ordinal -> {
+            ordinals.add(ordinal);
+            return ordinals.size() < limit;
+        });
+        return ordinals;
+    }
+
+    /**
+     * Writes the bitmaps of every campaign changed since the previous snapshot to local disk.
+     */
+    @Scheduled(fixedDelayString = "${notification.delivery-tracking.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        for (Map.Entry<String, CampaignDelivery> entry : campaigns.entrySet()) {
+            CampaignDelivery delivery = entry.getValue();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            synchronized (delivery) {
+                if (!delivery.dirty || delivery.evicted) {
+                    continue;
+                }
+                try {
+                    delivery.writeTo(new DataOutputStream(buffer));
+                } catch (IOException e) {
+                    logger.error("Error serializing delivery bitmaps for campaign: {}", entry.getKey(), e);
+                    continue;
+                }
+                delivery.dirty = false;
+            }
+            try {
+                Files.createDirectories(snapshotDirectory);
+                Path temporary = snapshotDirectory.resolve(entry.getKey() + SNAPSHOT_SUFFIX + ".tmp");
+                Files.write(temporary, buffer.toByteArray());
+                Files.move(temporary, snapshotDirectory.resolve(entry.getKey() + SNAPSHOT_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.error("Error writing delivery snapshot for campaign: {}", entry.getKey(), e);
+                synchronized (delivery) {
+                    delivery.dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the bitmaps of the campaigns that are finished and have been idle for the eviction
+     * period, or whose campaign no longer exists, and deletes their snapshots.
+     */
+    @Scheduled(fixedDelayString = "${notification.delivery-tracking.eviction-interval-ms:3600000}")
+    public void evictFinished() {
+        long idleBefore = System.currentTimeMillis() - evictAfter.toMillis();
+        for (Map.Entry<String, CampaignDelivery> entry : campaigns.entrySet()) {
+            CampaignDelivery delivery = entry.getValue();
+            long terminal;
+            synchronized (delivery) {
+                if (delivery.updatedAt >= idleBefore) {
+                    continue;
+                }
+                CompressedBitmap terminals = new CompressedBitmap();
+                for (String status : TERMINAL_STATUSES) {
+                    terminals = terminals.or(delivery.byStatus.getOrDefault(status, terminals));
+                }
+                terminal = terminals.cardinality();
+            }
+            Optional<Campaign> campaign = campaignRepository.findByCampaignId(entry.getKey());
+            if (campaign.isEmpty() || isFinished(campaign.get(), terminal)) {
+                synchronized (delivery) {
+                    // Keep the campaign if a status was recorded since the checks
+                    if (delivery.updatedAt >= idleBefore || !campaigns.remove(entry.getKey(), delivery)) {
+                        continue;
+                    }
+                    delivery.evicted = true;
+                }
+                deleteSnapshot(entry.getKey());
+                logger.info("Evicted delivery tracking of campaign: {}", entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Restores the bitmaps of every campaign from the snapshots found on local disk.
+     */
+    @PostConstruct
+    public void restoreSnapshots() {
+        if (!Files.isDirectory(snapshotDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(snapshotDirectory, "*" + SNAPSHOT_SUFFIX)) {
+            for (Path snapshot : snapshots) {
+                String fileName = snapshot.getFileName().toString();
+                String campaignId = fileName.substring(0, fileName.length() - SNAPSHOT_SUFFIX.length());
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                    CampaignDelivery delivery = CampaignDelivery.readFrom(in);
+                    delivery.updatedAt = Files.getLastModifiedTime(snapshot).toMillis();
+                    campaigns.put(campaignId, delivery);
+                } catch (IOException e) {
+                    logger.error("Error reading delivery snapshot: {}", snapshot, e);
+                }
+            }
+            logger.info("Restored delivery tracking for {} campaigns", campaigns.size());
+        } catch (IOException e) {
+            logger.error("Error listing delivery snapshots in: {}", snapshotDirectory, e);
+        }
+    }
+
+    /**
+     * Writes a final snapshot when the service shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    /**
+     * Returns the bitmaps of a campaign, starting to track it on its first status if the campaign
+     * exists. A status arriving after the campaign was evicted starts tracking it afresh.
+     *
+     * @return The bitmaps, or null if the status must be ignored.
+     */
+    private CampaignDelivery deliveryOf(String campaignId, long ordinal) {
+        CampaignDelivery delivery = campaigns.get(campaignId);
+        if (delivery != null) {
+            return delivery;
+        }
+        // Only the first status of a campaign since startup reaches the database
+        Optional<Campaign> campaign = campaignRepository.findByCampaignId(campaignId);
+        if (campaign.isEmpty()) {
+            logger.warn("Ignoring status of recipient {} of unknown campaign: {}", ordinal, campaignId);
+            return null;
+        }
+        return campaigns.computeIfAbsent(campaignId, id -> new CampaignDelivery());
+    }
+
+    /**
+     * Checks that a recipient ordinal fits the bitmaps, which are indexed by int.
+     */
+    private static boolean isTrackable(String campaignId, long ordinal) {
+        if (ordinal < 0 || ordinal > Integer.MAX_VALUE) {
+            logger.warn("Ignoring status of out-of-range recipient {} of campaign: {}", ordinal, campaignId);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isFinished(Campaign campaign, long terminal) {
+        boolean expanded = CampaignStatusEnum.COMPLETED.name().equals(campaign.getStatus())
+                || CampaignStatusEnum.FAILED.name().equals(campaign.getStatus());
+        return expanded && terminal >= campaign.getPublishedCount();
+    }
+
+    private void deleteSnapshot(String campaignId) {
+        try {
+            Files.deleteIfExists(snapshotDirectory.resolve(campaignId + SNAPSHOT_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Could not delete delivery snapshot of campaign: {}", campaignId, e);
+        }
+    }
+
+    private CampaignDelivery getDelivery(String campaignId) throws InvalidRequestException {
+        CampaignDelivery delivery = campaigns.get(campaignId);
+        if (delivery == null) {
+            throw new InvalidRequestException("No delivery tracked for this campaign.");
+        }
+        return delivery;
+    }
+
+    /**
+     * The delivery bitmaps of a single campaign.
+     */
+    private static final class CampaignDelivery {
+
+        private final Map<String, CompressedBitmap> byStatus = new HashMap<>();
+        private CompressedBitmap retried = new CompressedBitmap();
+        private boolean dirty;
+        private boolean evicted;
+        private long updatedAt = System.currentTimeMillis();
+
+        void touch() {
+            dirty = true;
+            updatedAt = System.currentTimeMillis();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(byStatus.size());
+            for (Map.Entry<String, CompressedBitmap> entry : byStatus.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+            retried.writeTo(out);
+            out.flush();
+        }
+
+        static CampaignDelivery readFrom(DataInputStream in) throws IOException {
+            CampaignDelivery delivery = new CampaignDelivery();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                delivery.byStatus.put(in.readUTF(), CompressedBitmap.readFrom(in));
+            }
+            delivery.retried = CompressedBitmap.readFrom(in);
+            return delivery;
+        }
+    }
+}
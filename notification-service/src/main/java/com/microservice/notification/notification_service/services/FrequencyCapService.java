@@ -0,0 +1,113 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.FrequencyCapProperties;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import com.microservice.notification.notification_service.utils.SlidingWindowCounters;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Service capping how many notifications each recipient receives per channel.
+ * <p>
+ * Every notification published through the API is counted against a sliding window kept per
+ * recipient and channel, and is refused once the recipient reached the limit configured for the
+ * channel and the notification's priority. The counters live in a bounded
+ * {@link SlidingWindowCounters} table sized once from the configuration. A recipient that cannot be
+ * tracked because the table is saturated is let through rather than refused, and counted by the
+ * {@code notification.frequency_cap.untracked} counter.
+ * </p>
+ */
+@Service
+public class FrequencyCapService {
+
+    private static final Logger logger = LogManager.getLogger(FrequencyCapService.class);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final FrequencyCapProperties properties;
+    private final FrequencyCapProperties.Cap[] caps;
+    private final SlidingWindowCounters counters;
+    private final Counter untracked;
+
+    public FrequencyCapService(FrequencyCapProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        // Resolve the caps by channel once, so that checks do no map lookups
+        NotificationTypeEnum[] channels = NotificationTypeEnum.values();
+        this.caps = new FrequencyCapProperties.Cap[channels.length];
+        long maxWindowSeconds = 1;
+        for (NotificationTypeEnum channel : channels) {
+            FrequencyCapProperties.Cap cap = properties.getChannels().get(channel.name().toLowerCase(Locale.ROOT));
+            if (cap != null && cap.getWindow().getSeconds() < 1) {
+                throw new IllegalArgumentException("Frequency cap window of " + channel + " must be at least one second");
+            }
+            if (cap != null) {
+                caps[channel.ordinal()] = cap;
+                maxWindowSeconds = Math.max(maxWindowSeconds, cap.getWindow().getSeconds());
+                logger.info("Capping {} notifications at {} per recipient per {}, priority overrides: {}", channel,
+                        cap.getLimit(), cap.getWindow(), cap.getPriorityLimits());
+            }
+        }
+        this.counters = new SlidingWindowCounters(properties.getMaxRecipients(), maxWindowSeconds);
+        this.untracked = Counter.builder("notification.frequency_cap.untracked")
+                .description("Notifications let through uncapped because their recipient could not be tracked")
+                .register(meterRegistry);
+        Gauge.builder("notification.frequency_cap.recipients", counters,
+                        table -> table.activeKeys(System.currentTimeMillis()))
+                .description("Recipients with notifications counted in a current frequency cap window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a notification against the cap of its recipient and channel.
+     *
+     * @param notification The validated notification.
+     * @return true if the recipient reached the cap and the notification must not be sent; false
+     * if it was counted, or is not capped.
+     */
+    public boolean isCapped(NotificationRequest notification) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        NotificationTypeEnum channel = NotificationValidator.channelOf(notification.getNotificationType());
+        FrequencyCapProperties.Cap cap = channel == null ? null : caps[channel.ordinal()];
+        if (cap == null) {
+            return false;
+        }
+        int limit = cap.limitFor(notification.getPriority());
+        if (limit <= 0) {
+            return false;
+        }
+        Duration window = cap.getWindow();
+        SlidingWindowCounters.Outcome outcome = counters.record(keyOf(channel, RecipientKey.of(notification)), limit,
+                window.getSeconds(), System.currentTimeMillis());
+        if (outcome == SlidingWindowCounters.Outcome.UNTRACKED) {
+            untracked.increment();
+        }
+        return outcome == SlidingWindowCounters.Outcome.LIMITED;
+    }
+
+    /**
+     * Hashes a recipient and channel into a counter key, ignoring the case of the recipient.
+     */
+    private static long keyOf(NotificationTypeEnum channel, String recipient) {
+        long hash = FNV_OFFSET ^ channel.ordinal();
+        for (int i = 0; i < recipient.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(recipient.charAt(i))) * FNV_PRIME;
+        }
+        // Spread the bits with the MurmurHash3 finalizer, the table picks stripes and slots from different halves
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
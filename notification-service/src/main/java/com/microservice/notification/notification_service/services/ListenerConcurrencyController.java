@@ -0,0 +1,205 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.metrics.ConsumerLagReader;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service adjusting the concurrency of the channel listeners to their backlog at runtime.
+ * <p>
+ * On every check, the backlog of each listener is turned into an estimated drain time: its lag
+ * multiplied by the mean processing time of its messages since the previous check, divided by
+ * the number of messages it processes at once. That is the parallelism of its key-ordered
+ * executor when records are handed off to one, and its number of consumers otherwise. A listener expected to need longer than the target drain time
+ * gains a consumer; one expected to drain in under a quarter of it, or with no lag at all, loses
+ * one. Concurrency stays within the configured bounds and never exceeds the partitions assigned
+ * to the listener, and a cooldown after each change lets the consumer group rebalance before the
+ * listener is judged again.
+ * </p>
+ * <p>
+ * A new concurrency only takes effect when the container is restarted. Before stopping it, the
+ * container is paused, the records it already fetched are left to finish in its executor and their
+ * status updates are written, so that every acknowledgment is in before the container commits its
+ * offsets on stop. A listener that does not drain in time keeps its concurrency until the next check.
+ * </p>
+ */
+@Service
+public class ListenerConcurrencyController {
+
+    private static final Logger logger = LogManager.getLogger(ListenerConcurrencyController.class);
+    private static final Map<String, String> CHANNEL_BY_LISTENER = Map.of(
+            NotificationConstants.SMS_LISTENER_ID, NotificationTypeEnum.SMS.name(),
+            NotificationConstants.EMAIL_LISTENER_ID, NotificationTypeEnum.EMAIL.name());
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ConsumerLagReader lagReader;
+    private final MeterRegistry meterRegistry;
+    private final StatusWriteBehind statusWriteBehind;
+    private final Map<String, KeyOrderedExecutor> executorsByListener;
+    private final boolean enabled;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final Duration targetDrainTime;
+    private final Duration cooldown;
+    private final Duration drainTimeout;
+    private final Map<String, long[]> lastProcessing = new HashMap<>();
+    private final Map<String, Long> lastAdjusted = new HashMap<>();
+
+    public ListenerConcurrencyController(KafkaListenerEndpointRegistry listenerRegistry, ConsumerLagReader lagReader,
+                                         MeterRegistry meterRegistry, StatusWriteBehind statusWriteBehind,
+                                         @Qualifier("smsListenerExecutor") KeyOrderedExecutor smsListenerExecutor,
+                                         @Qualifier("emailListenerExecutor") KeyOrderedExecutor emailListenerExecutor,
+                                         @Value("${notification.consumers.autoscale.enabled:false}") boolean enabled,
+                                         @Value("${notification.consumers.autoscale.min-concurrency:1}") int minConcurrency,
+                                         @Value("${notification.consumers.autoscale.max-concurrency:6}") int maxConcurrency,
+                                         @Value("${notification.consumers.autoscale.target-drain-time:60s}") Duration targetDrainTime,
+                                         @Value("${notification.consumers.autoscale.cooldown:2m}") Duration cooldown,
+                                         @Value("${notification.consumers.autoscale.drain-timeout:30s}") Duration drainTimeout) {
+        this.listenerRegistry = listenerRegistry;
+        this.lagReader = lagReader;
+        this.meterRegistry = meterRegistry;
+        this.statusWriteBehind = statusWriteBehind;
+        this.executorsByListener = Map.of(
+                NotificationConstants.SMS_LISTENER_ID, smsListenerExecutor,
+                NotificationConstants.EMAIL_LISTENER_ID, emailListenerExecutor);
+        this.enabled = enabled;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetDrainTime = targetDrainTime;
+        this.cooldown = cooldown;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Checks every channel listener and adds or removes a consumer where its backlog calls for it.
+     */
+    @Scheduled(fixedDelayString = "${notification.consumers.autoscale.interval-ms:30000}",
+            initialDelayString = "${notification.consumers.autoscale.interval-ms:30000}")
+    public void adjustConcurrency() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, String> listener : CHANNEL_BY_LISTENER.entrySet()) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listener.getKey());
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrentContainer && container.isRunning()) {
+                try {
+                    adjust(listener.getKey(), listener.getValue(), concurrentContainer);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error adjusting concurrency of listener: {}", listener.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private void adjust(String listenerId, String channel, ConcurrentMessageListenerContainer<?, ?> container)
+            throws InterruptedException {
+        long lag = lagReader.totalLag(container);
+        double meanProcessingMillis = meanProcessingMillis(channel);
+        KeyOrderedExecutor executor = executorsByListener.get(listenerId);
+        int current = container.getConcurrency();
+        // Records handed off to a parallel executor are processed at its parallelism, whatever the number of consumers
+        int parallelism = executor.getParallelism() > 1 ? executor.getParallelism() : current;
+        int desired = current;
+        if (lag == 0) {
+            desired = current - 1;
+        } else if (!Double.isNaN(meanProcessingMillis)) {
+            double drainMillis = lag * meanProcessingMillis / parallelism;
+            if (drainMillis > targetDrainTime.toMillis()) {
+                desired = current + 1;
+            } else if (drainMillis < targetDrainTime.toMillis() / 4.0) {
+                desired = current - 1;
+            }
+        }
+        int upperBound = maxConcurrency;
+        Collection<TopicPartition> partitions = container.getAssignedPartitions();
+        if (partitions != null && !partitions.isEmpty()) {
+            // Consumers beyond the partition count would sit idle
+            upperBound = Math.min(upperBound, partitions.size());
+        }
+        desired = Math.max(minConcurrency, Math.min(upperBound, desired));
+        if (desired == current) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long adjustedAt = lastAdjusted.get(listenerId);
+        if (adjustedAt != null && now - adjustedAt < cooldown.toMillis()) {
+            return;
+        }
+        logger.info("Changing concurrency of listener {} from {} to {} (lag: {}, mean processing: {} ms)",
+                listenerId, current, desired, lag, meanProcessingMillis);
+        if (restart(listenerId, container, executor, desired)) {
+            lastAdjusted.put(listenerId, now);
+        }
+    }
+
+    /**
+     * Restarts a container with a new concurrency once the records it already fetched are acknowledged.
+     *
+     * @return true if the container was restarted, false if it did not drain in time and was left running.
+     */
+    private boolean restart(String listenerId, ConcurrentMessageListenerContainer<?, ?> container,
+                            KeyOrderedExecutor executor, int concurrency) throws InterruptedException {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        container.pause();
+        try {
+            while (!container.isContainerPaused()) {
+                if (System.nanoTime() >= deadline) {
+                    logger.warn("Listener {} was not paused within {}, keeping its concurrency", listenerId, drainTimeout);
+                    return false;
+                }
+                Thread.sleep(50);
+            }
+            if (!executor.awaitIdle(remaining(deadline)) || !statusWriteBehind.drain(remaining(deadline))) {
+                logger.warn("Listener {} did not drain within {}, keeping its concurrency", listenerId, drainTimeout);
+                return false;
+            }
+            // Acknowledgments queued so far are committed while the container stops
+            container.stop();
+            container.setConcurrency(concurrency);
+        } finally {
+            container.resume();
+        }
+        container.start();
+        return true;
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    private double meanProcessingMillis(String channel) {
+        long count = 0;
+        double totalNanos = 0;
+        for (Timer timer : meterRegistry.find(NotificationMetrics.CONSUME).tag("channel", channel).timers()) {
+            count += timer.count();
+            totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+        long[] previous = lastProcessing.put(channel, new long[]{count, (long) totalNanos});
+        long countDelta = previous == null ? count : count - previous[0];
+        double nanosDelta = previous == null ? totalNanos : totalNanos - previous[1];
+        return countDelta == 0 ? Double.NaN : nanosDelta / countDelta / 1e6;
+    }
+}
@@ -0,0 +1,186 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationSearchCriteria;
+import com.microservice.notification.notification_service.entities.NotificationSearchPage;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for searching notifications by status, type, priority and creation time.
+ * <p>
+ * Searches use keyset pagination over the creation time and primary key: each page continues
+ * strictly after the last {@code (createdAt, id)} pair of the previous one, which is the order of
+ * the creation time indexes, so pages are read straight off an index and deep pages cost the same as
+ * the first page. Status filters are served by the current-status view, since notification rows
+ * keep the status they were created with. Large
+ * result sets can be streamed as newline-delimited JSON, fetching one page at a time so memory
+ * stays constant regardless of the number of matches.
+ * </p>
+ */
+@Service
+public class NotificationSearchService {
+
+    private static final Logger logger = LogManager.getLogger(NotificationSearchService.class);
+
+    private final NotificationRepository repository;
+    private final StatusHistoryService statusHistoryService;
+    private final Gson gson;
+    private final int maxPageSize;
+
+    public NotificationSearchService(NotificationRepository repository, StatusHistoryService statusHistoryService,
+                                     @Value("${notification.search.max-page-size:1000}") int maxPageSize) {
+        this.repository = repository;
+        this.statusHistoryService = statusHistoryService;
+        this.gson = new Gson();
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Returns one page of notifications matching the criteria.
+     *
+     * @param criteria The filters and cursor of the search.
+     * @param limit    The maximum number of notifications to return.
+     * @return The page of notifications, with the cursor of the next page.
+     * @throws InvalidRequestException if the limit is out of range, or the cursor is incomplete.
+     */
+    public NotificationSearchPage search(NotificationSearchCriteria criteria, int limit) throws InvalidRequestException {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new InvalidRequestException("Limit must be between 1 and " + maxPageSize + ".");
+        }
+        validateCursor(criteria);
+        List<NotificationRequest> notifications = fetchPage(criteria, criteria.getAfterCreatedAt(), criteria.getAfterId(), limit);
+        if (notifications.size() < limit) {
+            return new NotificationSearchPage(notifications, null, null);
+        }
+        NotificationRequest last = notifications.get(notifications.size() - 1);
+        return new NotificationSearchPage(notifications, last.getCreatedAt(), last.getId());
+    }
+
+    /**
+     * Checks that the cursor of a search is either absent or complete.
+     *
+     * @param criteria The filters and cursor of the search.
+     * @throws InvalidRequestException if a primary key cursor is given without its creation time.
+     */
+    public void validateCursor(NotificationSearchCriteria criteria) throws InvalidRequestException {
+        if (criteria.getAfterId() != 0 && criteria.getAfterCreatedAt() == null) {
+            throw new InvalidRequestException("afterCreatedAt is required with afterId.");
+        }
+    }
+
+    /**
+     * Streams every notification matching the criteria as newline-delimited JSON.
+     *
+     * @param criteria The filters and starting cursor of the search.
+     * @param out      The output to write the notifications to.
+     * @throws IOException if the output could not be written.
+     */
+    public void stream(NotificationSearchCriteria criteria, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        Long afterCreatedAt = criteria.getAfterCreatedAt();
+        int afterId = criteria.getAfterId();
+        long count = 0;
+        while (true) {
+            List<NotificationRequest> notifications = fetchPage(criteria, afterCreatedAt, afterId, maxPageSize);
+            for (NotificationRequest notification : notifications) {
+                gson.toJson(notification, writer);
+                writer.write('\n');
+            }
+            writer.flush();
+            count += notifications.size();
+            if (notifications.size() < maxPageSize) {
+                break;
+            }
+            NotificationRequest last = notifications.get(notifications.size() - 1);
+            afterCreatedAt = last.getCreatedAt();
+            afterId = last.getId();
+        }
+        logger.info("Streamed {} notifications for search: {}", count, criteria);
+    }
+
+    private List<NotificationRequest> fetchPage(NotificationSearchCriteria criteria, Long afterCreatedAt, int afterId, int limit) {
+        List<NotificationRequest> notifications = repository.findBy(toSpecification(criteria, afterCreatedAt, afterId),
+                query -> query.sortBy(Sort.by("createdAt", "id")).limit(limit).all());
+        statusHistoryService.applyCurrentStatus(notifications);
+        return notifications;
+    }
+
+    private static Specification<NotificationRequest> toSpecification(NotificationSearchCriteria criteria, Long afterCreatedAt,
+                                                                      int afterId) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (afterCreatedAt != null) {
+                // Row value comparison (createdAt, id) > (afterCreatedAt, afterId), spelled out for JPA
+                predicates.add(builder.greaterThanOrEqualTo(root.get("createdAt"), afterCreatedAt));
+                predicates.add(builder.or(builder.greaterThan(root.get("createdAt"), afterCreatedAt),
+                        builder.greaterThan(root.get("id"), afterId)));
+            }
+            if (criteria.getStatus() != null) {
+                predicates.add(hasCurrentStatus(root, query, builder, criteria));
+            }
+            if (criteria.getNotificationType() != null) {
+                predicates.add(builder.equal(root.get("notificationType"), criteria.getNotificationType().toUpperCase()));
+            }
+            if (criteria.getPriority() != null) {
+                predicates.add(builder.equal(root.get("priority"), criteria.getPriority()));
+            }
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(builder.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Matches notifications on their current status through the status view.
+     * <p>
+     * Every stored notification is created {@code RECEIVED} and only gets a view row once it moves,
+     * so {@code RECEIVED} matches the notifications without a view row in another status, and any
+     * other status matches the view rows in that status, found through the status index of the view.
+     * </p>
+     */
+    private static Predicate hasCurrentStatus(Root<NotificationRequest> root, CriteriaQuery<?> query, CriteriaBuilder builder,
+                                              NotificationSearchCriteria criteria) {
+        String status = criteria.getStatus().toUpperCase();
+        Subquery<String> inStatus = query.subquery(String.class);
+        Root<NotificationCurrentStatus> current = inStatus.from(NotificationCurrentStatus.class);
+        inStatus.select(current.get("identifier"));
+        if (NotificationStatusEnum.RECEIVED.name().equals(status)) {
+            inStatus.where(builder.notEqual(current.get("status"), status));
+            return builder.not(root.get("identifier").in(inStatus));
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.equal(current.get("status"), status));
+        if (criteria.getNotificationType() != null) {
+            predicates.add(builder.equal(current.get("notificationType"), criteria.getNotificationType().toUpperCase()));
+        }
+        inStatus.where(predicates.toArray(new Predicate[0]));
+        return root.get("identifier").in(inStatus);
+    }
+}
@@ -4,17 +4,31 @@ import com.google.gson.Gson;
 import com.microservice.notification.notification_service.constants.NotificationConstants;
 import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
 import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.FieldValidationError;
 import com.microservice.notification.notification_service.entities.NotificationRequest;
 import com.microservice.notification.notification_service.entities.NotificationResponse;
 import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
 import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
-import java.util.UUID;
+import java.util.Set;
 
 @Service
 public class NotificationService {
@@ -23,46 +37,99 @@ public class NotificationService {
 
     private final NotificationProducer producer;
     private final NotificationRepository repository;
+    private final ContentStore contentStore;
+    private final ClaimCheckService claimCheckService;
+    private final RetentionService retentionService;
+    private final StatusHistoryService statusHistoryService;
+    private final NotificationMetrics metrics;
+    private final NotificationValidator validator;
+    private final SuppressionService suppressionService;
+    private final FrequencyCapService frequencyCapService;
     private final Gson gson;
-
-    public NotificationService(NotificationProducer producer, NotificationRepository repository) {
+    private final int maxBulkIdentifiers;
+
+    public NotificationService(NotificationProducer producer, NotificationRepository repository, ContentStore contentStore,
+                               ClaimCheckService claimCheckService, RetentionService retentionService,
+                               StatusHistoryService statusHistoryService, NotificationMetrics metrics,
+                               NotificationValidator validator, SuppressionService suppressionService,
+                               FrequencyCapService frequencyCapService,
+                               @Value("${notification.status.max-bulk-identifiers:500}") int maxBulkIdentifiers) {
         this.producer = producer;
         this.repository = repository;
+        this.contentStore = contentStore;
+        this.claimCheckService = claimCheckService;
+        this.retentionService = retentionService;
+        this.statusHistoryService = statusHistoryService;
+        this.metrics = metrics;
+        this.validator = validator;
+        this.suppressionService = suppressionService;
+        this.frequencyCapService = frequencyCapService;
+        this.maxBulkIdentifiers = maxBulkIdentifiers;
         this.gson = new Gson();
     }
 
     @CircuitBreaker(name = "notificationServiceCircuitBreaker", fallbackMethod = "publishNotificationFallback")
     public NotificationResponse publishNotification(NotificationRequest request) throws InvalidRequestException {
-        if (new Random().nextBoolean()) {
-            logger.error("Circuit breaker invoked due to simulated failure.");
-            throw new RuntimeException("Simulated error to trigger circuit breaker.");
-        }
-        if (this.validate(request)) {
-            String identifier = UUID.randomUUID().toString();
-            request.setIdentifier(identifier);
-            request.setStatus(NotificationStatusEnum.RECEIVED.name());
-            // Log the request before processing
-            logger.info("Publishing notification with identifier: {}", identifier);
-            repository.save(request);
-            // Send message to Kafka
-            String topic = getTopicByChannel(request.getNotificationType());
-            if (topic == null) {
-                throw new InvalidRequestException("Invalid notification type: " + request.getNotificationType());
+        Timer.Sample sample = metrics.start(NotificationMetrics.PUBLISH);
+        String outcome = NotificationMetrics.FAILURE;
+        try {
+            if (new Random().nextBoolean()) {
+                logger.error("Circuit breaker invoked due to simulated failure.");
+                throw new RuntimeException("Simulated error to trigger circuit breaker.");
             }
-            try {
-                producer.sendMessage(gson.toJson(request), topic);
-            } catch (Exception e) {
-                logger.error("Error sending message to Kafka: {}", e.getMessage());
-                // Optionally handle retries or fallback logic
-                throw new RuntimeException("Error publishing notification message to Kafka.");
+            List<FieldValidationError> errors = this.validate(request);
+            if (errors.isEmpty()) {
+                request.setNotificationType(request.getNotificationType().toUpperCase());
+                // Only campaign expansion links a notification to a campaign recipient
+                request.setCampaignId(null);
+                request.setRecipientOrdinal(null);
+                if (suppressionService.isSuppressed(request)) {
+                    logger.info("Not publishing {} notification to a suppressed recipient", request.getNotificationType());
+                    outcome = NotificationMetrics.SUCCESS;
+                    metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.SUPPRESSED.name());
+                    return new NotificationResponse(null, NotificationStatusEnum.SUPPRESSED.name());
+                }
+                if (frequencyCapService.isCapped(request)) {
+                    logger.info("Not publishing {} notification to a recipient over its frequency cap", request.getNotificationType());
+                    outcome = NotificationMetrics.SUCCESS;
+                    metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.CAPPED.name());
+                    return new NotificationResponse(null, NotificationStatusEnum.CAPPED.name());
+                }
+                String identifier = TimeOrderedIds.next();
+                request.setIdentifier(identifier);
+                request.setStatus(NotificationStatusEnum.RECEIVED.name());
+                request.setContentHash(contentStore.store(request.getNotificationContent()));
+                // Log the request before processing
+                logger.info("Publishing notification with identifier: {}", identifier);
+                repository.save(request);
+                // Send message to Kafka
+                String topic = getTopicByChannel(request.getNotificationType());
+                if (topic == null) {
+                    throw new InvalidRequestException("Invalid notification type: " + request.getNotificationType());
+                }
+                // Keep large email bodies out of the Kafka message
+                claimCheckService.offload(request);
+                try {
+                    producer.sendMessage(RecipientKey.of(request), gson.toJson(request), topic, request.getNotificationType(),
+                            request.getPriority(), PipelineHeaders.of(request));
+                } catch (Exception e) {
+                    logger.error("Error sending message to Kafka: {}", e.getMessage());
+                    // Optionally handle retries or fallback logic
+                    throw new RuntimeException("Error publishing notification message to Kafka.");
+                }
+
+                // Log successful notification processing
+                logger.info("Notification successfully published with identifier: {}", identifier);
+                outcome = NotificationMetrics.SUCCESS;
+                metrics.countStatus(request.getNotificationType(), request.getPriority(), NotificationStatusEnum.RECEIVED.name());
+
+                return NotificationResponse.getResponse(request);
+            } else {
+                throw new InvalidRequestException("Invalid request object", errors);
             }
-
-            // Log successful notification processing
-            logger.info("Notification successfully published with identifier: {}", identifier);
-
-            return NotificationResponse.getResponse(request);
-        } else {
-            throw new InvalidRequestException("Invalid request object");
+        } finally {
+            metrics.stop(sample, NotificationMetrics.PUBLISH, request == null ? null : request.getNotificationType(),
+                    request == null ? null : request.getPriority(), outcome);
         }
     }
 
@@ -74,14 +141,55 @@ public class NotificationService {
     }
 
     public NotificationRequest getNotificationStatusById(String identifier) throws InvalidRequestException {
-        return repository.findByIdentifier(identifier)
+        Optional<NotificationRequest> stored = repository.findByIdentifier(identifier);
+        // The row keeps the status it was created with; the current one comes from the latest status event
+        stored.ifPresent(statusHistoryService::applyLatestEvent);
+        NotificationRequest notification = stored
+                .or(() -> retentionService.findArchived(identifier))
                 .orElseThrow(() -> {
                     logger.warn("No notification found with identifier: {}", identifier);
                     return new InvalidRequestException("No notification found with this identifier.");
                 });
+        contentStore.hydrate(notification);
+        return notification;
+    }
+
+    /**
+     * Retrieves the statuses of many notifications with a single query.
+     * <p>
+     * Identifiers that do not match any notification are left out of the result.
+     * </p>
+     *
+     * @param identifiers The unique identifiers of the notifications.
+     * @return A map of identifier to status, in the order the identifiers were given.
+     * @throws InvalidRequestException if no identifiers or too many identifiers are given.
+     */
+    public Map<String, String> getNotificationStatusesByIds(List<String> identifiers) throws InvalidRequestException {
+        if (identifiers == null || identifiers.isEmpty()) {
+            throw new InvalidRequestException("At least one identifier is required.");
+        }
+        Set<String> uniqueIdentifiers = new LinkedHashSet<>(identifiers);
+        uniqueIdentifiers.removeIf(identifier -> identifier == null || identifier.isEmpty());
+        if (uniqueIdentifiers.isEmpty() || uniqueIdentifiers.size() > maxBulkIdentifiers) {
+            throw new InvalidRequestException("Between 1 and " + maxBulkIdentifiers + " identifiers are allowed.");
+        }
+
+        Map<String, String> found = new HashMap<>();
+        for (NotificationResponse response : repository.findStatusesByIdentifierIn(uniqueIdentifiers)) {
+            found.put(response.getIdentifier(), response.getStatus());
+        }
+        Map<String, String> statuses = new LinkedHashMap<>();
+        for (String identifier : uniqueIdentifiers) {
+            String status = found.get(identifier);
+            if (status != null) {
+                statuses.put(identifier, status);
+            }
+        }
+        logger.info("Resolved {} of {} identifiers in bulk status lookup", statuses.size(), uniqueIdentifiers.size());
+        return statuses;
     }
 
-    private String getTopicByChannel(String channel) {
+    static String getTopicByChannel(String channel) {
         switch (channel.toUpperCase()) {
             case "SMS":
                 return NotificationConstants.SMS_KAFKA_TOPIC;
@@ -95,56 +203,17 @@ public class NotificationService {
         }
     }
 
-    private boolean validate(NotificationRequest request) {
-        if (request == null) {
-            logger.error("Validation failed: NotificationRequest is null");
-            return false;
-        }
-
-        if (request.getNotificationType() == null || request.getNotificationType().isEmpty()) {
-            logger.error("Validation failed: Notification type is missing");
-            return false;
-        }
-
-        if (!isValidNotificationType(request.getNotificationType())) {
-            logger.error("Validation failed: Invalid notification type: {}", request.getNotificationType());
-            return false;
-        }
-
-        if ((request.getPhone() == null || request.getPhone().isEmpty()) && (request.getEmail() == null || request.getEmail().isEmpty())) {
-            logger.error("Validation failed: Recipient is missing");
-            return false;
-        }
-
-        if (request.getNotificationContent() == null || request.getNotificationContent().isEmpty()) {
-            logger.error("Validation failed: Message content is missing");
-            return false;
-        }
-
-        logger.info("Validation passed for NotificationRequest: {}", request);
-        return true;
-    }
-
-    private boolean isValidNotificationType(String type) {
-        return "SMS".equalsIgnoreCase(type) ||
-                "EMAIL".equalsIgnoreCase(type) ||
-                "WHATSAPP".equalsIgnoreCase(type);
-    }
-
     /**
-     * Updates the notification status in the database.
-     * If the notification with the given identifier is not found, logs a warning.
+     * Validates a notification submitted by a client.
      *
-     * @param identifier The unique identifier of the notification.
-     * @param status     The new status to set for the notification (e.g., DELIVERED).
+     * @param request The notification to validate.
+     * @return The invalid fields of the notification; empty if it is valid.
      */
-    private void updateNotificationStatus(String identifier, String status) {
-        repository.findByIdentifier(identifier).ifPresentOrElse(notification -> {
-            notification.setStatus(status);
-            repository.save(notification);
-            logger.info("Status updated successfully for identifier: {}", identifier);
-        }, () -> {
-            logger.warn("Notification with identifier {} not found in the database.", identifier);
-        });
+    List<FieldValidationError> validate(NotificationRequest request) {
+        List<FieldValidationError> errors = validator.validate(request, NotificationValidator.Stage.API);
+        if (!errors.isEmpty()) {
+            logger.error("Validation failed: {}", errors);
+        }
+        return errors;
     }
 }
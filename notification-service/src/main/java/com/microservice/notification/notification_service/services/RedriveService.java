@@ -0,0 +1,362 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.configs.RedriveProperties;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.dao.NotificationStatusEventRepository;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.RedriveJob;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.metrics.ConsumerLagReader;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.storage.PublishSpool;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import org.apache.kafka.common.header.Header;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service re-sending to Kafka notifications that never made it through the pipeline.
+ * <p>
+ * A notification can stay in {@code RECEIVED} forever when its Kafka message was lost, or when the
+ * service crashed between persisting it and sending it. A background reaper periodically re-drives,
+ * channel by channel, every notification that has stayed in {@code RECEIVED} past the stuck
+ * threshold of its channel, and marks it undelivered once it has been re-driven the maximum number
+ * of times. Administrators can also start re-drive jobs for any status, channel and time range.
+ * </p>
+ * <p>
+ * A notification that is only slow is not stuck, and re-sending it would deliver it twice. The
+ * reaper therefore skips its scan while messages are waiting in the publish spool, skips a channel
+ * while its listener is stopped or lagging behind its topic, and never scans channels without a
+ * listener, whose notifications no re-drive can move.
+ * </p>
+ * <p>
+ * Candidates are found with keyset scans over the primary key, both among notifications that never
+ * moved from the status they were created with and, through the status view, among those that
+ * moved to the status later. They are re-sent in batches, with a pause after every batch keeping
+ * the reaper and each job under the configured rate. Every re-drive is logged as a transition back
+ * to {@code RECEIVED}, so the same notification is not picked again until it is stuck once more.
+ * Scans and jobs run on a dedicated executor, never on the scheduler or request threads.
+ * </p>
+ */
+@Service
+public class RedriveService {
+
+    private static final Logger logger = LogManager.getLogger(RedriveService.class);
+    private static final String REDRIVE_REASON = "Re-driven";
+    private static final String QUEUED = "QUEUED";
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+    private static final Map<NotificationTypeEnum, String> LISTENER_BY_CHANNEL = new EnumMap<>(Map.of(
+            NotificationTypeEnum.SMS, NotificationConstants.SMS_LISTENER_ID,
+            NotificationTypeEnum.EMAIL, NotificationConstants.EMAIL_LISTENER_ID));
+
+    private final NotificationRepository repository;
+    private final NotificationStatusEventRepository eventRepository;
+    private final NotificationProducer producer;
+    private final ContentStore contentStore;
+    private final ClaimCheckService claimCheckService;
+    private final StatusWriteBehind statusWriteBehind;
+    private final DeliveryTrackingService deliveryTrackingService;
+    private final RedriveProperties properties;
+    private final ThreadPoolTaskExecutor redriveExecutor;
+    private final PublishSpool spool;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ConsumerLagReader lagReader;
+    private final Map<String, RedriveJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean reaping = new AtomicBoolean();
+    private final Gson gson;
+
+    public RedriveService(NotificationRepository repository, NotificationStatusEventRepository eventRepository,
+                          NotificationProducer producer, ContentStore contentStore, ClaimCheckService claimCheckService,
+                          StatusWriteBehind statusWriteBehind, DeliveryTrackingService deliveryTrackingService,
+                          RedriveProperties properties, @Qualifier("redriveExecutor") ThreadPoolTaskExecutor redriveExecutor,
+                          PublishSpool spool, KafkaListenerEndpointRegistry listenerRegistry, ConsumerLagReader lagReader) {
+        this.repository = repository;
+        this.eventRepository = eventRepository;
+        this.producer = producer;
+        this.contentStore = contentStore;
+        this.claimCheckService = claimCheckService;
+        this.statusWriteBehind = statusWriteBehind;
+        this.deliveryTrackingService = deliveryTrackingService;
+        this.properties = properties;
+        this.redriveExecutor = redriveExecutor;
+        this.spool = spool;
+        this.listenerRegistry = listenerRegistry;
+        this.lagReader = lagReader;
+        this.gson = new Gson();
+    }
+
+    /**
+     * Starts a scan for stuck notifications, unless the previous one is still running.
+     */
+    @Scheduled(fixedDelayString = "${notification.redrive.interval-ms:60000}", initialDelayString = "${notification.redrive.interval-ms:60000}")
+    public void reapStuck() {
+        if (!properties.isEnabled() || !reaping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            redriveExecutor.execute(() -> {
+                try {
+                    reap();
+                } finally {
+                    reaping.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            reaping.set(false);
+            logger.warn("Re-drive executor busy, skipping the scan for stuck notifications");
+        }
+    }
+
+    /**
+     * Starts a job re-driving the notifications of a channel that moved to a status within a time range.
+     * <p>
+     * Notifications that move to the status after the job has started are left out, so the job
+     * does not pick up the notifications it re-drives itself.
+     * </p>
+     *
+     * @param status           The current status of the notifications to re-drive.
+     * @param notificationType The channel of the notifications to re-drive.
+     * @param from             The inclusive lower bound of the time the notifications moved to the status.
+     * @param to               The exclusive upper bound of the time the notifications moved to the status.
+     * @return The queued job.
+     * @throws InvalidRequestException if the status, channel or time range is invalid.
+     * @throws TaskRejectedException   if too many jobs are already waiting to run.
+     */
+    public RedriveJob startJob(String status, String notificationType, Instant from, Instant to) throws InvalidRequestException {
+        String normalizedStatus = normalize(status, NotificationStatusEnum.class, "status");
+        String channel = normalize(notificationType, NotificationTypeEnum.class, "channel");
+        long startedAt = System.currentTimeMillis();
+        long fromMillis = from == null ? 0 : from.toEpochMilli();
+        long toMillis = to == null ? startedAt : Math.min(to.toEpochMilli(), startedAt);
+        if (fromMillis >= toMillis) {
+            throw new InvalidRequestException("The start of the time range must be before its end and before now.");
+        }
+
+        RedriveJob job = new RedriveJob(UUID.randomUUID().toString(), normalizedStatus, channel, fromMillis, toMillis, QUEUED, 0, 0);
+        jobs.put(job.getJobId(), job);
+        try {
+            redriveExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        logger.info("Queued re-drive job {} for {} notifications in status {} between {} and {}",
+                job.getJobId(), channel, normalizedStatus, Instant.ofEpochMilli(fromMillis), Instant.ofEpochMilli(toMillis));
+        return job;
+    }
+
+    /**
+     * Retrieves a re-drive job and its progress.
+     *
+     * @param jobId The unique identifier of the job.
+     * @return The job.
+     * @throws InvalidRequestException if no job exists with the identifier.
+     */
+    public RedriveJob getJob(String jobId) throws InvalidRequestException {
+        RedriveJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new InvalidRequestException("No re-drive job found with this identifier.");
+        }
+        return job;
+    }
+
+    void reap() {
+        if (!spool.isEmpty()) {
+            // Spooled notifications are still on their way to Kafka
+            logger.info("Skipping the scan for stuck notifications while {} messages wait in the publish spool", spool.size());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<NotificationTypeEnum, String> listener : LISTENER_BY_CHANNEL.entrySet()) {
+            NotificationTypeEnum channel = listener.getKey();
+            Duration threshold = properties.stuckAfterFor(channel.name());
+            if (threshold == null || !isCaughtUp(channel, listener.getValue())) {
+                continue;
+            }
+            RedriveJob progress = new RedriveJob(null, NotificationStatusEnum.RECEIVED.name(), channel.name(),
+                    0, now - threshold.toMillis(), RUNNING, 0, 0);
+            try {
+                redrive(progress, properties.getMaxAttempts());
+                if (progress.getRedrivenCount() > 0 || progress.getFailedCount() > 0) {
+                    logger.warn("Re-drove {} {} notifications stuck in RECEIVED for over {}, {} given up or failed",
+                            progress.getRedrivenCount(), channel, threshold, progress.getFailedCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error re-driving stuck {} notifications", channel, e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the listener of a channel is running and has consumed every message of its
+     * topic, so that a notification still in {@code RECEIVED} is not merely waiting to be consumed.
+     */
+    private boolean isCaughtUp(NotificationTypeEnum channel, String listenerId) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+        if (container == null || !container.isRunning()) {
+            logger.info("Skipping the scan for stuck {} notifications while listener {} is stopped", channel, listenerId);
+            return false;
+        }
+        long lag = lagReader.totalLag(container);
+        if (lag > 0) {
+            logger.info("Skipping the scan for stuck {} notifications while listener {} lags by {} messages",
+                    channel, listenerId, lag);
+            return false;
+        }
+        return true;
+    }
+
+    private void runJob(RedriveJob job) {
+        job.setState(RUNNING);
+        try {
+            redrive(job, 0);
+            job.setState(COMPLETED);
+            logger.info("Re-drive job {} completed with {} notifications re-driven and {} failed",
+                    job.getJobId(), job.getRedrivenCount(), job.getFailedCount());
+        } catch (InterruptedException e) {
+            job.setState(FAILED);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            job.setState(FAILED);
+            logger.error("Re-drive job {} failed", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * Re-drives every notification matching a job, first those that never moved from the status
+     * they were created with, then those that moved to the status later.
+     *
+     * @param job         The criteria of the re-drive, also receiving its progress.
+     * @param maxAttempts The number of re-drives after which a notification is marked undelivered, or 0 for no limit.
+     */
+    private void redrive(RedriveJob job, int maxAttempts) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        long nanosPerNotification = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getRate());
+        for (boolean unmoved : new boolean[]{true, false}) {
+            int afterId = 0;
+            while (true) {
+                long started = System.nanoTime();
+                List<NotificationRequest> batch = unmoved
+                        ? repository.findUnmovedCreatedBetween(job.getStatus(), job.getNotificationType(), job.getFrom(), job.getTo(),
+                        afterId, PageRequest.of(0, batchSize))
+                        : repository.findInStatusBetween(job.getStatus(), job.getNotificationType(), job.getFrom(), job.getTo(),
+                        afterId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+                redriveBatch(batch, maxAttempts, job);
+                long pause = batch.size() * nanosPerNotification - (System.nanoTime() - started);
+                if (pause > 0) {
+                    TimeUnit.NANOSECONDS.sleep(pause);
+                }
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void redriveBatch(List<NotificationRequest> batch, int maxAttempts, RedriveJob job) {
+        Map<String, Long> attempts = maxAttempts > 0 ? countAttempts(batch) : Map.of();
+        String giveUpReason = "Not processed after " + maxAttempts + " re-drives";
+        Map<String, List<NotificationRequest>> byTopic = new LinkedHashMap<>();
+        for (NotificationRequest notification : batch) {
+            if (maxAttempts > 0 && attempts.getOrDefault(notification.getIdentifier(), 0L) >= maxAttempts) {
+                statusWriteBehind.enqueue(statusOf(notification), NotificationStatusEnum.UNDELEIVERED.name(), giveUpReason, () -> {
+                });
+                job.setFailedCount(job.getFailedCount() + 1);
+                continue;
+            }
+            String topic = NotificationService.getTopicByChannel(notification.getNotificationType());
+            contentStore.hydrate(notification);
+            // Keep large email bodies out of the Kafka message
+            claimCheckService.offload(notification);
+            byTopic.computeIfAbsent(topic + '|' + notification.getPriority(), key -> new ArrayList<>()).add(notification);
+        }
+        for (List<NotificationRequest> group : byTopic.values()) {
+            NotificationRequest first = group.get(0);
+            List<String> keys = new ArrayList<>(group.size());
+            List<String> messages = new ArrayList<>(group.size());
+            List<List<Header>> headers = new ArrayList<>(group.size());
+            for (NotificationRequest notification : group) {
+                keys.add(RecipientKey.of(notification));
+                messages.add(gson.toJson(notification));
+                headers.add(PipelineHeaders.ofRedrive(notification));
+            }
+            try {
+                producer.sendMessages(keys, messages, NotificationService.getTopicByChannel(first.getNotificationType()),
+                        first.getNotificationType(), first.getPriority(), headers);
+            } catch (Exception e) {
+                logger.error("Error re-sending {} {} notifications to Kafka", group.size(), first.getNotificationType(), e);
+                job.setFailedCount(job.getFailedCount() + group.size());
+                continue;
+            }
+            for (NotificationRequest notification : group) {
+                statusWriteBehind.enqueue(statusOf(notification), NotificationStatusEnum.RECEIVED.name(), REDRIVE_REASON, () -> {
+                });
+                if (notification.getCampaignId() != null && notification.getRecipientOrdinal() != null) {
+                    deliveryTrackingService.markRetried(notification.getCampaignId(), notification.getRecipientOrdinal());
+                }
+            }
+            job.setRedrivenCount(job.getRedrivenCount() + group.size());
+        }
+    }
+
+    private Map<String, Long> countAttempts(List<NotificationRequest> batch) {
+        List<String> identifiers = new ArrayList<>(batch.size());
+        for (NotificationRequest notification : batch) {
+            identifiers.add(notification.getIdentifier());
+        }
+        Map<String, Long> attempts = new HashMap<>();
+        for (Object[] row : eventRepository.countByIdentifierInAndReason(identifiers, REDRIVE_REASON)) {
+            attempts.put((String) row[0], (Long) row[1]);
+        }
+        return attempts;
+    }
+
+    /**
+     * Returns the notification to log a re-drive transition for, without its stage timestamps, so
+     * the transition is not recorded as the end of the original delivery attempt.
+     */
+    private static NotificationRequest statusOf(NotificationRequest notification) {
+        NotificationRequest status = new NotificationRequest();
+        status.setIdentifier(notification.getIdentifier());
+        status.setNotificationType(notification.getNotificationType());
+        status.setPriority(notification.getPriority());
+        return status;
+    }
+
+    private static <E extends Enum<E>> String normalize(String value, Class<E> type, String name) throws InvalidRequestException {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidRequestException("Invalid " + name + ": " + value);
+        }
+    }
+}
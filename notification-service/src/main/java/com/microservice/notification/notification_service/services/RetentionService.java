@@ -0,0 +1,162 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.RetentionProperties;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.storage.NotificationArchive;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service purging notifications that have stayed in a terminal status past their retention window.
+ * <p>
+ * Expired notifications are found with keyset scans over the primary key and deleted in bounded
+ * batches, each in its own short transaction, with a pause between batches so that the purge
+ * never holds locks the request path is waiting on. When archiving is enabled, every batch is
+ * appended to the {@link NotificationArchive}, with its current status and body, before it is
+ * deleted. The status history and claim-check blobs of purged notifications are deleted with
+ * them, and their bodies are swept from the content store once no other notification or campaign
+ * references them. Purges run on a dedicated
+ * executor, never on the scheduler thread shared with the other periodic jobs.
+ * </p>
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LogManager.getLogger(RetentionService.class);
+    private static final List<NotificationStatusEnum> TERMINAL_STATUSES =
+            List.of(NotificationStatusEnum.DELEIVERED, NotificationStatusEnum.UNDELEIVERED);
+
+    private final NotificationRepository repository;
+    private final StatusHistoryService statusHistoryService;
+    private final NotificationArchive archive;
+    private final ContentStore contentStore;
+    private final ClaimCheckService claimCheckService;
+    private final RetentionProperties properties;
+    private final ThreadPoolTaskExecutor retentionExecutor;
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    public RetentionService(NotificationRepository repository, StatusHistoryService statusHistoryService,
+                            NotificationArchive archive, ContentStore contentStore, ClaimCheckService claimCheckService,
+                            RetentionProperties properties, @Qualifier("retentionExecutor") ThreadPoolTaskExecutor retentionExecutor) {
+        this.repository = repository;
+        this.statusHistoryService = statusHistoryService;
+        this.archive = archive;
+        this.contentStore = contentStore;
+        this.claimCheckService = claimCheckService;
+        this.properties = properties;
+        this.retentionExecutor = retentionExecutor;
+    }
+
+    /**
+     * Starts a purge of the expired notifications, unless the previous one is still running.
+     */
+    @Scheduled(fixedDelayString = "${notification.retention.interval-ms:600000}", initialDelayString = "${notification.retention.interval-ms:600000}")
+    public void purgeExpired() {
+        if (!properties.isEnabled() || !purging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            retentionExecutor.execute(() -> {
+                try {
+                    purgeAll();
+                } finally {
+                    purging.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            purging.set(false);
+            logger.warn("Retention executor busy, skipping the purge of expired notifications");
+        }
+    }
+
+    /**
+     * Looks up a purged notification in the archive.
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return An {@link Optional} containing the archived notification if found, otherwise empty.
+     */
+    public Optional<NotificationRequest> findArchived(String identifier) {
+        if (!properties.isArchiveEnabled()) {
+            return Optional.empty();
+        }
+        return archive.find(identifier);
+    }
+
+    /**
+     * Purges every expired notification, one status and channel at a time.
+     */
+    private void purgeAll() {
+        long now = System.currentTimeMillis();
+        for (NotificationStatusEnum status : TERMINAL_STATUSES) {
+            for (NotificationTypeEnum channel : NotificationTypeEnum.values()) {
+                Duration window = properties.windowFor(status.name(), channel.name());
+                if (window == null) {
+                    continue;
+                }
+                try {
+                    long purged = purge(status.name(), channel.name(), now - window.toMillis());
+                    if (purged > 0) {
+                        logger.info("Purged {} {} notifications in status {} older than {}", purged, channel, status, window);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error purging {} notifications in status {}", channel, status, e);
+                }
+            }
+        }
+    }
+
+    private long purge(String status, String channel, long cutoff) throws IOException, InterruptedException {
+        long purged = 0;
+        int afterId = 0;
+        while (true) {
+            List<NotificationRequest> batch = repository.findExpired(status, channel, cutoff, afterId,
+                    PageRequest.of(0, properties.getBatchSize()));
+            if (batch.isEmpty()) {
+                return purged;
+            }
+            if (properties.isArchiveEnabled()) {
+                statusHistoryService.applyCurrentStatus(batch);
+                batch.forEach(contentStore::hydrate);
+                archive.append(batch);
+            }
+            List<Integer> ids = new ArrayList<>(batch.size());
+            List<String> identifiers = new ArrayList<>(batch.size());
+            Set<String> contentHashes = new HashSet<>();
+            for (NotificationRequest notification : batch) {
+                ids.add(notification.getId());
+                identifiers.add(notification.getIdentifier());
+                contentHashes.add(notification.getContentHash());
+            }
+            purged += repository.deleteByIdIn(ids);
+            statusHistoryService.deleteHistory(identifiers);
+            batch.forEach(claimCheckService::discard);
+            contentStore.sweep(contentHashes);
+            afterId = ids.get(ids.size() - 1);
+            if (batch.size() < properties.getBatchSize()) {
+                return purged;
+            }
+            Thread.sleep(properties.getBatchPause().toMillis());
+        }
+    }
+}
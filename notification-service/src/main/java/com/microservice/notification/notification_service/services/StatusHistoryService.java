@@ -0,0 +1,114 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.dao.NotificationCurrentStatusRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.dao.NotificationStatusEventRepository;
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationStatusEvent;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service reading the status of notifications from the status event log and its derived view.
+ * <p>
+ * Notification rows are never updated and keep the status they were created with, which is
+ * {@code RECEIVED} for every stored notification; every later transition lives in the
+ * {@link NotificationStatusEvent} log, and the latest one per notification in the compact
+ * {@link NotificationCurrentStatus} view. This service overlays the current status on
+ * notifications read from their table, and serves the full history of a notification, which
+ * starts with its creation followed by every logged transition.
+ * </p>
+ */
+@Service
+public class StatusHistoryService {
+
+    private static final Logger logger = LogManager.getLogger(StatusHistoryService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationStatusEventRepository eventRepository;
+    private final NotificationCurrentStatusRepository currentStatusRepository;
+
+    public StatusHistoryService(NotificationRepository notificationRepository,
+                                NotificationStatusEventRepository eventRepository,
+                                NotificationCurrentStatusRepository currentStatusRepository) {
+        this.notificationRepository = notificationRepository;
+        this.eventRepository = eventRepository;
+        this.currentStatusRepository = currentStatusRepository;
+    }
+
+    /**
+     * Returns the delivery history of a notification, oldest first.
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return The creation of the notification followed by each of its status transitions.
+     * @throws InvalidRequestException if no notification exists with the identifier.
+     */
+    public List<NotificationStatusEvent> getHistory(String identifier) throws InvalidRequestException {
+        NotificationRequest notification = notificationRepository.findByIdentifier(identifier).orElseThrow(() -> {
+            logger.warn("No notification found with identifier: {}", identifier);
+            return new InvalidRequestException("No notification found with this identifier.");
+        });
+        List<NotificationStatusEvent> history = new ArrayList<>();
+        history.add(new NotificationStatusEvent(0, identifier, NotificationStatusEnum.RECEIVED.name(), "Received",
+                notification.getCreatedAt(), null, null, null));
+        history.addAll(eventRepository.findByIdentifierOrderByIdAsc(identifier));
+        return history;
+    }
+
+    /**
+     * Sets the current status of a notification, and the pipeline timestamps of the attempt that
+     * led to it, from its latest status event.
+     *
+     * @param notification The notification read from its table.
+     */
+    public void applyLatestEvent(NotificationRequest notification) {
+        eventRepository.findFirstByIdentifierOrderByIdDesc(notification.getIdentifier()).ifPresent(event -> {
+            notification.setStatus(event.getStatus());
+            notification.setUpdatedAt(event.getOccurredAt());
+            notification.setEnqueuedAt(event.getEnqueuedAt());
+            notification.setConsumedAt(event.getConsumedAt());
+            notification.setProviderAcceptedAt(event.getProviderAcceptedAt());
+            notification.setCompletedAt(event.getOccurredAt());
+        });
+    }
+
+    /**
+     * Sets the current status of each notification from the status view, with a single query.
+     *
+     * @param notifications The notifications read from their table.
+     */
+    public void applyCurrentStatus(Collection<NotificationRequest> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Map<String, NotificationRequest> byIdentifier = new HashMap<>();
+        for (NotificationRequest notification : notifications) {
+            byIdentifier.put(notification.getIdentifier(), notification);
+        }
+        for (NotificationCurrentStatus current : currentStatusRepository.findByIdentifierIn(byIdentifier.keySet())) {
+            NotificationRequest notification = byIdentifier.get(current.getIdentifier());
+            notification.setStatus(current.getStatus());
+            notification.setUpdatedAt(current.getUpdatedAt());
+        }
+    }
+
+    /**
+     * Deletes the status events and current status of purged notifications.
+     *
+     * @param identifiers The unique identifiers of the purged notifications.
+     */
+    public void deleteHistory(Collection<String> identifiers) {
+        eventRepository.deleteByIdentifierIn(identifiers);
+        currentStatusRepository.deleteByIdentifierIn(identifiers);
+    }
+}
@@ -0,0 +1,256 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service pushing notification status transitions to subscribed clients over Server-Sent Events.
+ * <p>
+ * A client subscribes either to a set of identifiers or to every notification it published.
+ * Connections are held by the servlet container's asynchronous support, so an idle subscription
+ * costs no thread. Consumers look up the matching subscriptions and offer each transition to a
+ * bounded queue per subscription, so a consumer never blocks on a client. A small pool of sender
+ * threads drains the queues, one subscription at a time per thread, so a slow client delays its
+ * own events rather than everyone's.
+ * </p>
+ * <p>
+ * A subscription whose queue is full has fallen behind: the event is dropped and counted, and the
+ * subscription is completed, so its client reconnects and reads the current statuses instead of
+ * silently missing transitions. Heartbeats go through the same queues, so they never block the
+ * scheduler either.
+ * </p>
+ */
+@Service
+public class StatusStreamService {
+
+    private static final Logger logger = LogManager.getLogger(StatusStreamService.class);
+    private static final String STATUS_EVENT = "status";
+
+    private final Map<String, Set<Subscription>> byIdentifier = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscription>> bySubject = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final Counter dropped;
+    private final Counter evicted;
+    private final long timeoutMs;
+    private final int subscriptionQueueSize;
+
+    public StatusStreamService(MeterRegistry meterRegistry,
+                               @Value("${notification.status-stream.timeout-ms:1800000}") long timeoutMs,
+                               @Value("${notification.status-stream.subscription-queue-size:256}") int subscriptionQueueSize,
+                               @Value("${notification.status-stream.sender-threads:4}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.subscriptionQueueSize = subscriptionQueueSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "status-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = Counter.builder("notification.status_stream.dropped")
+                .description("Status stream events dropped because their subscription fell behind")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("notification.status_stream.evicted")
+                .description("Status stream subscriptions completed because they fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a subscription for the status transitions of the given notifications, or of every
+     * notification published by the subject when no identifiers are given.
+     *
+     * @param subject     The username of the subscribing client.
+     * @param identifiers The identifiers to follow; empty to follow every notification of the subject.
+     * @return The emitter streaming the transitions to the client.
+     */
+    public SseEmitter subscribe(String subject, Collection<String> identifiers) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(subject, emitter, Set.copyOf(identifiers), subscriptionQueueSize);
+        subscriptions.add(subscription);
+        if (identifiers.isEmpty()) {
+            addTo(bySubject, subject, subscription);
+        } else {
+            for (String identifier : identifiers) {
+                addTo(byIdentifier, identifier, subscription);
+            }
+        }
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+        logger.info("Status stream opened for subject: {} with {} identifiers", subject, identifiers.size());
+        return emitter;
+    }
+
+    /**
+     * Queues a status transition for delivery to the matching subscriptions.
+     *
+     * @param notification The notification whose status changed.
+     * @param status       The new status of the notification.
+     */
+    public void publish(NotificationRequest notification, String status) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        String identifier = notification.getIdentifier();
+        String owner = notification.getOwner();
+        NotificationResponse event = new NotificationResponse(identifier, status);
+        Set<Subscription> identifierSubscriptions = byIdentifier.get(identifier);
+        if (identifierSubscriptions != null) {
+            for (Subscription subscription : identifierSubscriptions) {
+                // Subscribers only see transitions of notifications they published
+                if (owner == null || owner.equals(subscription.subject)) {
+                    enqueue(subscription, SseEmitter.event().name(STATUS_EVENT).data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+        Set<Subscription> subjectSubscriptions = owner == null ? null : bySubject.get(owner);
+        if (subjectSubscriptions != null) {
+            for (Subscription subscription : subjectSubscriptions) {
+                enqueue(subscription, SseEmitter.event().name(STATUS_EVENT).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscription so that idle connections stay open through proxies
+     * and broken connections are detected and released.
+     */
+    @Scheduled(fixedDelayString = "${notification.status-stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            enqueue(subscription, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * Completes every open subscription when the service shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (!subscription.events.offer(event)) {
+            dropped.increment();
+            evict(subscription);
+            return;
+        }
+        if (subscription.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the subscription is completed with the others
+                subscription.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.events.poll()) != null) {
+                if (!send(subscription, event)) {
+                    subscription.events.clear();
+                    return;
+                }
+            }
+            subscription.scheduled.set(false);
+            // An event queued after the last poll but before the flag was cleared found the drain still scheduled
+            if (subscription.events.isEmpty() || !subscription.scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping broken status stream for subject: {}", subscription.subject);
+            unsubscribe(subscription);
+            subscription.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void evict(Subscription subscription) {
+        if (!subscriptions.contains(subscription)) {
+            return;
+        }
+        evicted.increment();
+        logger.warn("Status stream of subject {} fell behind by {} events, completing it", subscription.subject,
+                subscriptionQueueSize);
+        unsubscribe(subscription);
+        subscription.emitter.complete();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        if (subscription.identifiers.isEmpty()) {
+            removeFrom(bySubject, subscription.subject, subscription);
+        } else {
+            for (String identifier : subscription.identifiers) {
+                removeFrom(byIdentifier, identifier, subscription);
+            }
+        }
+    }
+
+    private static void addTo(Map<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.compute(key, (k, set) -> {
+            Set<Subscription> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscription);
+            return result;
+        });
+    }
+
+    private static void removeFrom(Map<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * An open status stream, the notifications it follows and the events waiting to be sent to it.
+     */
+    private static final class Subscription {
+
+        private final String subject;
+        private final SseEmitter emitter;
+        private final Set<String> identifiers;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscription(String subject, SseEmitter emitter, Set<String> identifiers, int queueSize) {
+            this.subject = subject;
+            this.emitter = emitter;
+            this.identifiers = identifiers;
+            this.events = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
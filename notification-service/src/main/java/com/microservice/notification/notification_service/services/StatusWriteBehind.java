@@ -0,0 +1,279 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationStatusEvent;
+import com.microservice.notification.notification_service.entities.StatusTransitionEvent;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.producers.StatusEventPublisher;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service writing notification status transitions to the database behind the consumers.
+ * <p>
+ * Consumers enqueue a transition together with a callback and return without touching the
+ * database. A single flusher thread writes the pending transitions every flush interval, or as
+ * soon as a full batch is pending. Every transition is appended to the
+ * {@link NotificationStatusEvent} log with one batched insert, and the
+ * {@link NotificationCurrentStatus} view is brought up to date with one batched merge in the same
+ * transaction: a batched update of the existing rows followed by a batched insert of the missing
+ * ones, in plain SQL rather than a vendor-specific upsert. This is safe because the flusher is the
+ * only writer of the view. Notification rows are never updated and keep the status they were
+ * created with. Several transitions of the same notification within one window are all logged but
+ * coalesced into a single merge carrying the latest status.
+ * </p>
+ * <p>
+ * The callbacks of a transition run only once the batch covering it has been committed, so
+ * consumers acknowledge their Kafka records, and let their offsets be committed, only after the
+ * status is durable. A batch that fails is kept and retried on the next flush, so no transition
+ * is lost. Once committed, the transitions are also handed to the {@link StatusEventPublisher}, so
+ * that statistics are derived from the status topic rather than from the database.
+ * </p>
+ */
+@Service
+public class StatusWriteBehind {
+
+    private static final Logger logger = LogManager.getLogger(StatusWriteBehind.class);
+    private static final String INSERT_EVENT = "INSERT INTO NOTIFICATION_STATUS_EVENT (identifier, status, reason, occurred_at,"
+            + " enqueued_at, consumed_at, provider_accepted_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_CURRENT_STATUS = "UPDATE NOTIFICATION_CURRENT_STATUS SET notification_type = ?, status = ?,"
+            + " reason = ?, updated_at = ? WHERE identifier = ?";
+    private static final String INSERT_CURRENT_STATUS = "INSERT INTO NOTIFICATION_CURRENT_STATUS (identifier, notification_type,"
+            + " status, reason, updated_at) SELECT ?, ?, ?, ?, ? FROM NOTIFICATION WHERE identifier = ? AND NOT EXISTS"
+            + " (SELECT 1 FROM NOTIFICATION_CURRENT_STATUS WHERE identifier = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationMetrics metrics;
+    private final StatusEventPublisher eventPublisher;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private Map<String, PendingStatus> pending = new LinkedHashMap<>();
+
+    public StatusWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, NotificationMetrics metrics,
+                             StatusEventPublisher eventPublisher,
+                             @Value("${notification.status.write-behind.batch-size:500}") int batchSize,
+                             @Value("${notification.status.write-behind.flush-interval-ms:100}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "status-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a status transition of a notification for the next flush.
+     *
+     * @param notification The notification whose status changed, carrying its stage timestamps.
+     * @param status       The new status of the notification.
+     * @param reason       Why the notification moved to the status.
+     * @param onFlushed    The callback to run once the transition has been written.
+     */
+    public void enqueue(NotificationRequest notification, String status, String reason, Runnable onFlushed) {
+        Timer.Sample sample = metrics.start(NotificationMetrics.STATUS_UPDATE);
+        int size;
+        synchronized (this) {
+            PendingStatus previous = pending.get(notification.getIdentifier());
+            PendingStatus transition = new PendingStatus(notification, status, reason);
+            if (previous != null) {
+                transition.transitions.addAll(previous.transitions);
+            }
+            transition.transitions.add(new Transition(notification, status, reason, sample, onFlushed));
+            pending.put(notification.getIdentifier(), transition);
+            size = pending.size();
+        }
+        if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes every pending transition on the flusher thread and waits for it, so that the callbacks
+     * of every transition enqueued so far, including those of a flush already in progress, have run.
+     * Transitions of a batch that fails are kept for the next flush as usual, and their callbacks
+     * have not run.
+     *
+     * @param timeout The maximum time to wait.
+     * @return true if the pending transitions were written, false if the timeout elapsed first.
+     * @throws InterruptedException if the calling thread was interrupted while waiting.
+     */
+    public boolean drain(Duration timeout) throws InterruptedException {
+        try {
+            flusher.submit(this::flush).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Pending status updates were not written within {}", timeout, e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the pending transitions in batches and runs their callbacks.
+     */
+    void flush() {
+        flushRequested.set(false);
+        Map<String, PendingStatus> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        List<PendingStatus> statuses = new ArrayList<>(batch.values());
+        for (int from = 0; from < statuses.size(); from += batchSize) {
+            List<PendingStatus> chunk = statuses.subList(from, Math.min(from + batchSize, statuses.size()));
+            try {
+                write(chunk);
+            } catch (Exception e) {
+                logger.error("Error writing {} status updates, retrying on the next flush", statuses.size() - from, e);
+                requeue(statuses.subList(from, statuses.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining transitions before the service shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void write(List<PendingStatus> chunk) {
+        long now = System.currentTimeMillis();
+        List<Transition> transitions = new ArrayList<>();
+        for (PendingStatus status : chunk) {
+            status.notification.setCompletedAt(now);
+            for (Transition transition : status.transitions) {
+                transition.notification.setCompletedAt(now);
+                transitions.add(transition);
+            }
+        }
+        transactionTemplate.executeWithoutResult(transaction -> {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, transitions, transitions.size(), (statement, transition) -> {
+                NotificationRequest notification = transition.notification;
+                statement.setBytes(1, TimeOrderedIds.toBytes(notification.getIdentifier()));
+                statement.setString(2, transition.status);
+                statement.setString(3, transition.reason);
+                statement.setLong(4, now);
+                statement.setObject(5, notification.getEnqueuedAt());
+                statement.setObject(6, notification.getConsumedAt());
+                statement.setObject(7, notification.getProviderAcceptedAt());
+            });
+            jdbcTemplate.batchUpdate(UPDATE_CURRENT_STATUS, chunk, chunk.size(), (statement, status) -> {
+                NotificationRequest notification = status.notification;
+                statement.setString(1, notification.getNotificationType());
+                statement.setString(2, status.status);
+                statement.setString(3, status.reason);
+                statement.setLong(4, now);
+                statement.setBytes(5, TimeOrderedIds.toBytes(notification.getIdentifier()));
+            });
+            // Only notifications still stored get a view row, so a transition racing a purge leaves none behind
+            jdbcTemplate.batchUpdate(INSERT_CURRENT_STATUS, chunk, chunk.size(), (statement, status) -> {
+                NotificationRequest notification = status.notification;
+                byte[] identifier = TimeOrderedIds.toBytes(notification.getIdentifier());
+                statement.setBytes(1, identifier);
+                statement.setString(2, notification.getNotificationType());
+                statement.setString(3, status.status);
+                statement.setString(4, status.reason);
+                statement.setLong(5, now);
+                statement.setBytes(6, identifier);
+                statement.setBytes(7, identifier);
+            });
+        });
+        List<StatusTransitionEvent> events = new ArrayList<>(transitions.size());
+        for (Transition transition : transitions) {
+            NotificationRequest notification = transition.notification;
+            events.add(new StatusTransitionEvent(notification.getIdentifier(), notification.getNotificationType(),
+                    notification.getPriority(), transition.status, transition.reason, now));
+        }
+        eventPublisher.publish(events);
+        for (Transition transition : transitions) {
+            complete(transition);
+        }
+    }
+
+    private void complete(Transition transition) {
+        NotificationRequest notification = transition.notification;
+        metrics.stop(transition.sample, NotificationMetrics.STATUS_UPDATE, notification.getNotificationType(),
+                notification.getPriority(), NotificationMetrics.SUCCESS);
+        metrics.countStatus(notification.getNotificationType(), notification.getPriority(), transition.status);
+        metrics.recordLatencies(notification);
+        try {
+            transition.onFlushed.run();
+        } catch (Exception e) {
+            logger.error("Error completing status update for identifier: {}", notification.getIdentifier(), e);
+        }
+    }
+
+    private void requeue(List<PendingStatus> failed) {
+        synchronized (this) {
+            Map<String, PendingStatus> merged = new LinkedHashMap<>();
+            for (PendingStatus status : failed) {
+                merged.put(status.notification.getIdentifier(), status);
+            }
+            // Transitions queued since the failed flush are newer, so they win the coalescing
+            for (PendingStatus newer : pending.values()) {
+                PendingStatus older = merged.get(newer.notification.getIdentifier());
+                if (older != null) {
+                    newer.transitions.addAll(0, older.transitions);
+                }
+                merged.put(newer.notification.getIdentifier(), newer);
+            }
+            pending = merged;
+        }
+    }
+
+    private static final class PendingStatus {
+        private final NotificationRequest notification;
+        private final String status;
+        private final String reason;
+        private final List<Transition> transitions = new ArrayList<>(1);
+
+        private PendingStatus(NotificationRequest notification, String status, String reason) {
+            this.notification = notification;
+            this.status = status;
+            this.reason = reason;
+        }
+    }
+
+    private record Transition(NotificationRequest notification, String status, String reason, Timer.Sample sample,
+                              Runnable onFlushed) {
+    }
+}
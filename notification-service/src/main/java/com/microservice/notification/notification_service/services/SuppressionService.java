@@ -0,0 +1,280 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.utils.RecipientKey;
+import com.microservice.notification.notification_service.utils.SuppressionSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Service keeping the list of recipients who opted out of notifications, and checking recipients
+ * against it before notifications are persisted and published.
+ * <p>
+ * The list is a text file with one phone number or email address per line. Blank lines and lines
+ * starting with '#' are ignored. It is streamed into an off-heap {@link SuppressionSet} when the
+ * application starts, and a dedicated thread checks it again every refresh interval:
+ * </p>
+ * <ul>
+ *     <li>lines appended to the file are added to the live set, without rebuilding it;</li>
+ *     <li>a file that was replaced or rewritten, or that outgrew the headroom of the live set, is
+ *     loaded into a new set in the background, which then replaces the live one with a single
+ *     volatile write.</li>
+ * </ul>
+ * <p>
+ * Requests are never paused by a reload. They keep checking the previous set until the new one is
+ * swapped in. The memory of a replaced set is released once no request uses it any more. To
+ * remove recipients from the list, replace the file instead of editing it in place.
+ * </p>
+ */
+@Service
+public class SuppressionService {
+
+    private static final Logger logger = LogManager.getLogger(SuppressionService.class);
+
+    private final Path file;
+    private final long refreshIntervalMs;
+    private final ScheduledExecutorService loader;
+    private final ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+    private final StringBuilder line = new StringBuilder(SuppressionSet.MAX_LENGTH + 1);
+    private volatile SuppressionSet recipients = new SuppressionSet(1, 1);
+
+    // Identity of the loaded file, only touched by the loader thread
+    private Object loadedFileKey;
+    private FileTime loadedModified;
+    private long loadedBytes;
+    private long skippedLines;
+
+    public SuppressionService(MeterRegistry meterRegistry,
+                              @Value("${notification.suppression.file:}") String file,
+                              @Value("${notification.suppression.refresh-interval-ms:10000}") long refreshIntervalMs) {
+        this.file = file.isBlank() ? null : Paths.get(file);
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suppression-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("notification.suppression.recipients", this, service -> service.recipients.size())
+                .description("Recipients on the suppression list")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the suppression list before the application accepts notifications, then schedules its refresh.
+     */
+    @PostConstruct
+    public void start() {
+        if (file == null) {
+            logger.info("No suppression list configured");
+            return;
+        }
+        refresh();
+        loader.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks whether the recipient of a notification opted out of notifications on its channel.
+     *
+     * @param notification The validated notification to check.
+     * @return true if the notification must not be sent.
+     */
+    public boolean isSuppressed(NotificationRequest notification) {
+        return recipients.contains(RecipientKey.of(notification));
+    }
+
+    /**
+     * Checks whether a recipient opted out of notifications.
+     *
+     * @param recipient The phone number or email address of the recipient.
+     * @return true if notifications must not be sent to the recipient.
+     */
+    public boolean isSuppressed(String recipient) {
+        return recipients.contains(recipient);
+    }
+
+    /**
+     * Stops checking the suppression list for changes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Brings the live set up to date with the suppression list file.
+     */
+    void refresh() {
+        try {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                if (loadedModified != null) {
+                    logger.warn("Suppression list {} is missing, keeping the {} loaded recipients", file, recipients.size());
+                } else {
+                    logger.info("Suppression list {} does not exist yet", file);
+                }
+                return;
+            }
+            boolean sameFile = loadedModified != null && Objects.equals(attributes.fileKey(), loadedFileKey);
+            if (sameFile && attributes.size() == loadedBytes && attributes.lastModifiedTime().equals(loadedModified)) {
+                return;
+            }
+            if (sameFile && attributes.size() > loadedBytes && append(attributes)) {
+                return;
+            }
+            rebuild(attributes);
+        } catch (Exception e) {
+            logger.error("Error refreshing suppression list {}, keeping the {} loaded recipients", file, recipients.size(), e);
+        }
+    }
+
+    /**
+     * Adds the lines appended to the file since the last load to the live set.
+     *
+     * @return true if every appended line was added; false if the live set is out of room.
+     */
+    private boolean append(BasicFileAttributes attributes) throws IOException {
+        SuppressionSet live = recipients;
+        int before = live.size();
+        long[] end = new long[1];
+        boolean added = read(loadedBytes, false, recipient -> live.add(recipient), end);
+        if (!added) {
+            logger.info("Suppression list outgrew its set of {} recipients, rebuilding", live.capacity());
+            return false;
+        }
+        loadedBytes = end[0];
+        loadedModified = attributes.lastModifiedTime();
+        logger.info("Added {} recipients appended to suppression list {}", live.size() - before, file);
+        warnSkipped();
+        return true;
+    }
+
+    /**
+     * Loads the whole file into a new set and swaps it in.
+     */
+    private void rebuild(BasicFileAttributes attributes) throws IOException {
+        long start = System.nanoTime();
+        // A first pass sizes the set, leaving headroom for appended lines
+        long[] counts = new long[2];
+        read(0, true, recipient -> {
+            counts[0]++;
+            counts[1] += recipient.length() + 1;
+            return true;
+        }, new long[1]);
+        int maxEntries = (int) Math.min(SuppressionSet.MAX_ENTRIES, counts[0] + counts[0] / 2 + 1024);
+        SuppressionSet rebuilt = new SuppressionSet(maxEntries, Math.min(Integer.MAX_VALUE - 1, counts[1] + counts[1] / 2 + 65536));
+        long[] end = new long[1];
+        if (!read(0, true, rebuilt::add, end)) {
+            throw new IOException("Suppression list grew past " + maxEntries + " recipients while loading");
+        }
+        recipients = rebuilt;
+        loadedFileKey = attributes.fileKey();
+        loadedModified = attributes.lastModifiedTime();
+        loadedBytes = end[0];
+        logger.info("Loaded {} recipients from suppression list {} in {} ms", rebuilt.size(), file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        warnSkipped();
+    }
+
+    private void warnSkipped() {
+        if (skippedLines > 0) {
+            logger.warn("Skipped {} lines of suppression list {} that are not a valid recipient", skippedLines, file);
+        }
+    }
+
+    /**
+     * Streams the recipients of the file from an offset, reusing one buffer for every line.
+     *
+     * @param from     The offset of the first line to read.
+     * @param untilEnd Whether a last line without a line break is read too; otherwise it is left
+     *                 for the next refresh, as it may still be being written.
+     * @param consumer Receives each recipient, returning false to stop reading.
+     * @param end      Receives the offset following the last line read.
+     * @return true if every recipient was consumed.
+     */
+    private boolean read(long from, boolean untilEnd, Predicate<CharSequence> consumer, long[] end) throws IOException {
+        skippedLines = 0;
+        end[0] = from;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = from;
+            line.setLength(0);
+            chunk.clear();
+            while (channel.read(chunk, position) > 0) {
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    byte b = chunk.get();
+                    position++;
+                    if (b != '\n') {
+                        if (line.length() <= SuppressionSet.MAX_LENGTH) {
+                            line.append((char) (b & 0xff));
+                        }
+                    } else if (accept(consumer) == Boolean.FALSE) {
+                        return false;
+                    } else {
+                        end[0] = position;
+                        line.setLength(0);
+                    }
+                }
+                chunk.clear();
+            }
+            if (untilEnd) {
+                if (accept(consumer) == Boolean.FALSE) {
+                    return false;
+                }
+                end[0] = position;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trims the current line and passes it on if it holds a recipient.
+     *
+     * @return The consumer's answer, or null if the line holds no recipient.
+     */
+    private Boolean accept(Predicate<CharSequence> consumer) {
+        int length = line.length();
+        while (length > 0 && line.charAt(length - 1) <= ' ') {
+            length--;
+        }
+        line.setLength(length);
+        int start = 0;
+        while (start < length && line.charAt(start) <= ' ') {
+            start++;
+        }
+        if (start > 0) {
+            line.delete(0, start);
+        }
+        if (line.length() == 0 || line.charAt(0) == '#') {
+            return null;
+        }
+        if (!SuppressionSet.isStorable(line)) {
+            skippedLines++;
+            return null;
+        }
+        return consumer.test(line);
+    }
+}
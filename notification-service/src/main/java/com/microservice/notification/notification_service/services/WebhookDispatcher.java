@@ -0,0 +1,242 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationResponse;
+import com.microservice.notification.notification_service.utils.NetworkAddresses;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Service delivering terminal notification statuses to the callback URLs supplied at publish time.
+ * <p>
+ * Consumers only offer status changes to a bounded in-memory queue, so callback delivery never
+ * slows down a consumer thread. The dispatcher's own scheduler drains the queue on a short fixed
+ * window, groups the changes per callback URL, and posts each group as one JSON array over a shared
+ * HTTP client that keeps connections alive between batches. Failed batches are retried with a
+ * linear backoff on the same scheduler, so slow callbacks and name lookups never hold up the
+ * application's shared scheduler.
+ * </p>
+ * <p>
+ * Before every attempt the callback host is resolved and the batch is dropped when any of its
+ * addresses is internal, so a client cannot make the service post to its own network. When
+ * allowed hosts are configured, only those hosts and their subdomains are called back.
+ * </p>
+ */
+@Service
+public class WebhookDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(WebhookDispatcher.class);
+
+    private final BlockingQueue<WebhookEvent> queue;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Set<String> allowedHosts;
+    private final Gson gson;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final Duration requestTimeout;
+    private final Duration retryBackoff;
+
+    public WebhookDispatcher(@Value("${notification.webhook.queue-size:10000}") int queueSize,
+                             @Value("${notification.webhook.max-batch-size:500}") int maxBatchSize,
+                             @Value("${notification.webhook.max-attempts:3}") int maxAttempts,
+                             @Value("${notification.webhook.request-timeout:5s}") Duration requestTimeout,
+                             @Value("${notification.webhook.retry-backoff:1s}") Duration retryBackoff,
+                             @Value("${notification.webhook.window-ms:500}") long windowMs,
+                             @Value("${notification.webhook.allowed-hosts:}") Set<String> allowedHosts) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.allowedHosts = new HashSet<>();
+        for (String host : allowedHosts) {
+            if (!host.isBlank()) {
+                this.allowedHosts.add(host.trim().toLowerCase());
+            }
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .executor(Executors.newFixedThreadPool(2, runnable -> {
+                    Thread thread = new Thread(runnable, "webhook-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+        this.gson = new Gson();
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.requestTimeout = requestTimeout;
+        this.retryBackoff = retryBackoff;
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a terminal status change for delivery to the callback URL of the notification.
+     * <p>
+     * Notifications without a callback URL are ignored. When the queue is full the change is
+     * dropped rather than blocking the caller.
+     * </p>
+     *
+     * @param notification The notification whose status changed.
+     * @param status       The new status of the notification.
+     */
+    public void enqueue(NotificationRequest notification, String status) {
+        if (notification.getCallbackUrl() == null) {
+            return;
+        }
+        WebhookEvent event = new WebhookEvent(notification.getCallbackUrl(), new NotificationResponse(notification.getIdentifier(), status));
+        if (!queue.offer(event)) {
+            logger.warn("Webhook queue full, dropping status {} for identifier: {}", status, notification.getIdentifier());
+        }
+    }
+
+    /**
+     * Drains the queued status changes and posts them to their callback URLs, one batch per URL.
+     */
+    public void flush() {
+        List<WebhookEvent> events = new ArrayList<>();
+        queue.drainTo(events);
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<String, List<NotificationResponse>> byCallback = new LinkedHashMap<>();
+        for (WebhookEvent event : events) {
+            byCallback.computeIfAbsent(event.callbackUrl, key -> new ArrayList<>()).add(event.status);
+        }
+        for (Map.Entry<String, List<NotificationResponse>> entry : byCallback.entrySet()) {
+            List<NotificationResponse> statuses = entry.getValue();
+            for (int from = 0; from < statuses.size(); from += maxBatchSize) {
+                List<NotificationResponse> batch = statuses.subList(from, Math.min(from + maxBatchSize, statuses.size()));
+                deliver(entry.getKey(), gson.toJson(batch), batch.size(), 1);
+            }
+        }
+    }
+
+    /**
+     * Delivers the remaining queued status changes before the service shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic flush
+            logger.error("Webhook flush failed", e);
+        }
+    }
+
+    private void deliver(String callbackUrl, String body, int count, int attempt) {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid callback URL, dropping {} status changes: {}", count, callbackUrl);
+            return;
+        }
+        try {
+            if (!isPermitted(uri)) {
+                logger.error("Callback URL {} is not allowed or resolves to an internal address, dropping {} status changes",
+                        callbackUrl, count);
+                return;
+            }
+        } catch (UnknownHostException e) {
+            retryOrDrop(callbackUrl, body, count, attempt, e.toString());
+            return;
+        }
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid callback URL, dropping {} status changes: {}", count, callbackUrl);
+            return;
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() / 100 == 2) {
+                logger.debug("Delivered {} status changes to: {}", count, callbackUrl);
+                return;
+            }
+            retryOrDrop(callbackUrl, body, count, attempt, error != null ? error.toString() : "HTTP " + response.statusCode());
+        });
+    }
+
+    private void retryOrDrop(String callbackUrl, String body, int count, int attempt, String reason) {
+        if (attempt >= maxAttempts) {
+            logger.error("Webhook delivery to {} failed after {} attempts ({}), dropping {} status changes",
+                    callbackUrl, attempt, reason, count);
+            return;
+        }
+        logger.warn("Webhook delivery to {} failed ({}), retrying attempt {}", callbackUrl, reason, attempt + 1);
+        try {
+            scheduler.schedule(() -> deliver(callbackUrl, body, count, attempt + 1),
+                    retryBackoff.toMillis() * attempt, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.error("Webhook dispatcher shutting down, dropping {} status changes for: {}", count, callbackUrl);
+        }
+    }
+
+    /**
+     * Checks that the host of a callback URL is allowed and that none of its addresses is internal.
+     * <p>
+     * Redirects are not followed by the HTTP client, and the lookup goes through the JVM's address
+     * cache that the client's own connection uses, so the checked addresses are the ones called.
+     * </p>
+     */
+    private boolean isPermitted(URI uri) throws UnknownHostException {
+        String host = uri.getHost();
+        if (host == null) {
+            return false;
+        }
+        String lower = host.toLowerCase();
+        if (!allowedHosts.isEmpty() && !isAllowedHost(lower)) {
+            return false;
+        }
+        for (InetAddress address : InetAddress.getAllByName(lower)) {
+            if (NetworkAddresses.isInternal(address)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAllowedHost(String host) {
+        for (int dot = -1; ; dot = host.indexOf('.', dot + 1)) {
+            if (allowedHosts.contains(host.substring(dot + 1))) {
+                return true;
+            }
+            if (host.indexOf('.', dot + 1) < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A status change waiting to be delivered to a callback URL.
+     */
+    private record WebhookEvent(String callbackUrl, NotificationResponse status) {
+    }
+}
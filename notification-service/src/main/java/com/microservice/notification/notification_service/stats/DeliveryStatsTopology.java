@@ -0,0 +1,201 @@
+package com.microservice.notification.notification_service.stats;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.constants.NotificationPriorityEnum;
+import com.microservice.notification.notification_service.constants.NotificationStatusEnum;
+import com.microservice.notification.notification_service.entities.StatusTransitionEvent;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Kafka Streams topology counting notifications per minute by channel, status and priority.
+ * <p>
+ * Notifications entering the pipeline are counted as {@code RECEIVED} from the channel topics,
+ * skipping the messages re-sent by a re-drive. Every other status is counted from the status topic,
+ * to which each transition is published once written; the {@code RECEIVED} transitions found there
+ * are re-drives as well, and are skipped. Counts are kept in one-minute tumbling windows of the
+ * record time, in a persistent window store keyed by {@code CHANNEL|STATUS|PRIORITY}, where the
+ * priority is one of the known priorities so that client text cannot grow the store. Records
+ * arriving after the grace period of their window are not counted.
+ * </p>
+ * <p>
+ * Records are counted by the task that reads them instead of being re-keyed through a repartition
+ * topic, which would take every notification and transition through the broker a second time. The
+ * store of each task therefore holds partial counts, and a count is the sum over the tasks.
+ * </p>
+ */
+public final class DeliveryStatsTopology {
+
+    public static final String STORE = "delivery-stats-per-minute";
+    public static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final char SEPARATOR = '|';
+    private static final String RECEIVED = NotificationStatusEnum.RECEIVED.name();
+
+    private DeliveryStatsTopology() {
+    }
+
+    /**
+     * Adds the counting topology to a builder.
+     *
+     * @param builder   The builder of the stream topology.
+     * @param grace     How long after the end of a window late records are still counted.
+     * @param retention How long the counts of a window are kept.
+     * @return The stream of the {@code CHANNEL|STATUS|PRIORITY} keys counted into the store.
+     */
+    public static KStream<String, String> build(StreamsBuilder builder, Duration grace, Duration retention) {
+        builder.addStateStore(Stores.windowStoreBuilder(Stores.persistentWindowStore(STORE, retention, WINDOW, false),
+                        Serdes.String(), Serdes.Long())
+                // Absorb the increments of a commit interval before they reach RocksDB and the changelog
+                .withCachingEnabled());
+        Consumed<String, String> consumed = Consumed.with(Serdes.String(), Serdes.String());
+        KStream<String, String> received = builder.stream(List.of(NotificationConstants.SMS_KAFKA_TOPIC,
+                        NotificationConstants.EMAIL_KAFKA_TOPIC, NotificationConstants.WHATSAPP_KAFKA_TOPIC), consumed)
+                .processValues(ReceivedKeys::new);
+        KStream<String, String> transitions = builder.stream(NotificationConstants.STATUS_KAFKA_TOPIC, consumed)
+                .processValues(TransitionKeys::new);
+        KStream<String, String> keys = received.merge(transitions);
+        keys.process(() -> new MinuteCounts(grace), STORE);
+        return keys;
+    }
+
+    /**
+     * Builds the store key of a count.
+     *
+     * @param channel  The channel of the notifications, or null.
+     * @param status   The status of the notifications.
+     * @param priority The priority of the notifications, or null.
+     * @return The key, with its parts upper-cased and the priority mapped onto the known priorities.
+     */
+    public static String keyOf(String channel, String status, String priority) {
+        return part(channel) + SEPARATOR + part(status) + SEPARATOR + NotificationPriorityEnum.of(priority).name();
+    }
+
+    /**
+     * Splits a store key into its channel, status and priority.
+     *
+     * @param key The store key.
+     * @return The channel, status and priority of the key.
+     */
+    public static String[] partsOf(String key) {
+        int first = key.indexOf(SEPARATOR);
+        int last = key.lastIndexOf(SEPARATOR);
+        return new String[]{key.substring(0, first), key.substring(first + 1, last), key.substring(last + 1)};
+    }
+
+    private static String part(String value) {
+        return value == null || value.isEmpty() ? UNKNOWN : value.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Maps the messages of the channel topics to the key of their {@code RECEIVED} count.
+     */
+    private static final class ReceivedKeys implements FixedKeyProcessor<String, String, String> {
+
+        private FixedKeyProcessorContext<String, String> context;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, String> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, String> record) {
+            if (record.value() == null || PipelineHeaders.isRedrive(record.headers())) {
+                return;
+            }
+            try {
+                JsonObject message = JsonParser.parseString(record.value()).getAsJsonObject();
+                context.forward(record.withValue(keyOf(stringOf(message, "notificationType"), RECEIVED,
+                        stringOf(message, "priority"))));
+            } catch (JsonParseException | IllegalStateException e) {
+                // Not a notification, the consumers reject it as well
+            }
+        }
+
+        private static String stringOf(JsonObject message, String field) {
+            return message.has(field) && message.get(field).isJsonPrimitive() ? message.get(field).getAsString() : null;
+        }
+    }
+
+    /**
+     * Counts each key in the window of its record time, unless the window has closed.
+     */
+    private static final class MinuteCounts implements Processor<String, String, Void, Void> {
+
+        private final long graceMillis;
+        private ProcessorContext<Void, Void> context;
+        private WindowStore<String, Long> store;
+
+        MinuteCounts(Duration grace) {
+            this.graceMillis = grace.toMillis();
+        }
+
+        @Override
+        public void init(ProcessorContext<Void, Void> context) {
+            this.context = context;
+            this.store = context.getStateStore(STORE);
+        }
+
+        @Override
+        public void process(Record<String, String> record) {
+            long windowStart = record.timestamp() - Math.floorMod(record.timestamp(), WINDOW.toMillis());
+            // As with windowed aggregations, a window closes once stream time passes its end plus the grace period
+            if (windowStart + WINDOW.toMillis() + graceMillis <= context.currentStreamTimeMs()) {
+                return;
+            }
+            Long count = store.fetch(record.value(), windowStart);
+            store.put(record.value(), count == null ? 1 : count + 1, windowStart);
+        }
+    }
+
+    /**
+     * Maps the events of the status topic to the key of their status count.
+     */
+    private static final class TransitionKeys implements FixedKeyProcessor<String, String, String> {
+
+        private final Gson gson = new Gson();
+        private FixedKeyProcessorContext<String, String> context;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, String> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, String> record) {
+            if (record.value() == null) {
+                return;
+            }
+            StatusTransitionEvent event;
+            try {
+                event = gson.fromJson(record.value(), StatusTransitionEvent.class);
+            } catch (JsonParseException e) {
+                return;
+            }
+            if (event == null || event.getStatus() == null || RECEIVED.equals(event.getStatus())) {
+                return;
+            }
+            context.forward(record.withValue(keyOf(event.getNotificationType(), event.getStatus(), event.getPriority())));
+        }
+    }
+}
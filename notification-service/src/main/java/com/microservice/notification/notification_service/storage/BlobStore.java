@@ -0,0 +1,62 @@
+package com.microservice.notification.notification_service.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Store for large payloads that are kept out of Kafka messages.
+ * <p>
+ * Messages carry only the reference returned by {@link #put(String, Consumer)}; consumers stream
+ * the payload back with {@link #transferTo(String, OutputStream)}. Implementations may keep the
+ * payloads on local disk or in any shared storage reachable by producers and consumers.
+ * </p>
+ */
+public interface BlobStore {
+
+    /**
+     * Stores a payload under the given key.
+     *
+     * @param key    The unique key of the payload.
+     * @param writer The callback writing the payload.
+     * @return The reference to carry in messages instead of the payload.
+     * @throws IOException if the payload could not be stored.
+     */
+    String put(String key, Consumer<Writer> writer) throws IOException;
+
+    /**
+     * Returns the size in bytes of a stored payload.
+     *
+     * @param reference The reference returned when the payload was stored.
+     * @return The size of the payload.
+     * @throws IOException if the payload could not be found.
+     */
+    long size(String reference) throws IOException;
+
+    /**
+     * Streams a stored payload into the given output.
+     *
+     * @param reference The reference returned when the payload was stored.
+     * @param out       The output to stream the payload into.
+     * @return The number of bytes transferred.
+     * @throws IOException if the payload could not be read or written.
+     */
+    long transferTo(String reference, OutputStream out) throws IOException;
+
+    /**
+     * Returns the reference of the payload stored under a key, whether or not it still exists.
+     *
+     * @param key The unique key the payload was stored under.
+     * @return The reference that {@link #put(String, Consumer)} returned for the key.
+     */
+    String referenceOf(String key);
+
+    /**
+     * Deletes a stored payload.
+     *
+     * @param reference The reference returned when the payload was stored.
+     * @throws IOException if the payload could not be deleted.
+     */
+    void delete(String reference) throws IOException;
+}
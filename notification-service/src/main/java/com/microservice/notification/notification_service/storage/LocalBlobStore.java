@@ -0,0 +1,92 @@
+package com.microservice.notification.notification_service.storage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * {@link BlobStore} keeping payloads as files in a local directory.
+ * <p>
+ * Payloads are written to a temporary file and moved into place atomically, so a reference is
+ * never visible before its payload is complete. Reads use {@link FileChannel#transferTo} so the
+ * payload is copied to the output without passing through an intermediate heap buffer where the
+ * platform allows it.
+ * </p>
+ */
+@Component
+public class LocalBlobStore implements BlobStore {
+
+    private static final Logger logger = LogManager.getLogger(LocalBlobStore.class);
+
+    private final Path directory;
+
+    public LocalBlobStore(@Value("${notification.claim-check.dir:${java.io.tmpdir}/notification-blobs}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String put(String key, Consumer<Writer> writer) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(key + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.accept(out);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw new IOException("Error writing blob with key: " + key, e);
+        }
+        Files.move(temporary, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Stored blob with key: {}", key);
+        return key;
+    }
+
+    @Override
+    public long size(String reference) throws IOException {
+        return Files.size(resolve(reference));
+    }
+
+    @Override
+    public long transferTo(String reference, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(reference), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public String referenceOf(String key) {
+        return key;
+    }
+
+    @Override
+    public void delete(String reference) throws IOException {
+        Files.deleteIfExists(resolve(reference));
+    }
+
+    private Path resolve(String reference) {
+        Path path = directory.resolve(reference).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("Invalid blob reference: " + reference);
+        }
+        return path;
+    }
+}
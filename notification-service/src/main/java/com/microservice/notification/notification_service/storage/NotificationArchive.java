@@ -0,0 +1,180 @@
+package com.microservice.notification.notification_service.storage;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.configs.RetentionProperties;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive of purged notifications kept in compressed, hourly partitioned local files.
+ * <p>
+ * Notifications are appended as JSON lines to a gzip file named after the UTC hour in which they
+ * were created, as read from their time-ordered identifier; each append adds a new gzip member,
+ * which readers see as one continuous stream. A lookup by identifier therefore opens the single
+ * partition the identifier names. Notifications with an identifier from before time-ordered
+ * identifiers are partitioned by their last update instead, and a plain text index of identifiers
+ * kept next to every partition lets a lookup of such an identifier decompress only the partition
+ * that holds it. Lookups run concurrently with each other and only wait for appends.
+ * </p>
+ */
+@Component
+public class NotificationArchive {
+
+    private static final Logger logger = LogManager.getLogger(NotificationArchive.class);
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH").withZone(ZoneOffset.UTC);
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+    private final Gson gson;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public NotificationArchive(RetentionProperties properties) {
+        this.directory = Paths.get(properties.getArchiveDir());
+        this.gson = new Gson();
+    }
+
+    /**
+     * Appends notifications to the partitions matching their creation time.
+     *
+     * @param notifications The notifications to archive.
+     * @throws IOException if the notifications could not be written.
+     */
+    public void append(List<NotificationRequest> notifications) throws IOException {
+        Map<String, List<NotificationRequest>> byPartition = new TreeMap<>();
+        for (NotificationRequest notification : notifications) {
+            byPartition.computeIfAbsent(partitionOf(notification), key -> new ArrayList<>()).add(notification);
+        }
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            write(byPartition);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up an archived notification by its identifier.
+     * <p>
+     * A time-ordered identifier is looked up in the partition of its creation hour only; any other
+     * identifier is looked up through the partition indexes, newest partitions first.
+     * </p>
+     *
+     * @param identifier The unique identifier of the notification.
+     * @return An {@link Optional} containing the archived notification if found, otherwise empty.
+     */
+    public Optional<NotificationRequest> find(String identifier) {
+        lock.readLock().lock();
+        try {
+            if (!Files.isDirectory(directory)) {
+                return Optional.empty();
+            }
+            Long createdAt = TimeOrderedIds.createdAt(identifier);
+            if (createdAt != null) {
+                Path data = directory.resolve(PARTITION_FORMAT.format(Instant.ofEpochMilli(createdAt)) + DATA_SUFFIX);
+                return Files.exists(data) ? read(data, identifier) : Optional.empty();
+            }
+            return findIndexed(identifier);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Map<String, List<NotificationRequest>> byPartition) throws IOException {
+        for (Map.Entry<String, List<NotificationRequest>> partition : byPartition.entrySet()) {
+            Path data = directory.resolve(partition.getKey() + DATA_SUFFIX);
+            Path index = directory.resolve(partition.getKey() + INDEX_SUFFIX);
+            try (Writer out = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(data, StandardOpenOption.CREATE, StandardOpenOption.APPEND))), StandardCharsets.UTF_8);
+                 Writer indexOut = Files.newBufferedWriter(index, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (NotificationRequest notification : partition.getValue()) {
+                    out.write(gson.toJson(notification));
+                    out.write('\n');
+                    indexOut.write(notification.getIdentifier());
+                    indexOut.write('\n');
+                }
+            }
+        }
+    }
+
+    private Optional<NotificationRequest> findIndexed(String identifier) {
+        List<Path> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + INDEX_SUFFIX)) {
+            stream.forEach(indexes::add);
+        } catch (IOException e) {
+            logger.error("Error listing archive partitions in: {}", directory, e);
+            return Optional.empty();
+        }
+        indexes.sort(Comparator.reverseOrder());
+        for (Path index : indexes) {
+            try {
+                if (!containsLine(index, identifier)) {
+                    continue;
+                }
+                String fileName = index.getFileName().toString();
+                Path data = directory.resolve(fileName.substring(0, fileName.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+                Optional<NotificationRequest> notification = read(data, identifier);
+                if (notification.isPresent()) {
+                    return notification;
+                }
+            } catch (IOException e) {
+                logger.error("Error reading archive index: {}", index, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<NotificationRequest> read(Path data, String identifier) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(data))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(identifier)) {
+                    NotificationRequest notification = gson.fromJson(line, NotificationRequest.class);
+                    if (identifier.equals(notification.getIdentifier())) {
+                        return Optional.of(notification);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading archive partition: {}", data, e);
+        }
+        return Optional.empty();
+    }
+
+    private static String partitionOf(NotificationRequest notification) {
+        Long createdAt = TimeOrderedIds.createdAt(notification.getIdentifier());
+        if (createdAt == null) {
+            createdAt = notification.getUpdatedAt() == null ? System.currentTimeMillis() : notification.getUpdatedAt();
+        }
+        return PARTITION_FORMAT.format(Instant.ofEpochMilli(createdAt));
+    }
+
+    private static boolean containsLine(Path file, String value) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
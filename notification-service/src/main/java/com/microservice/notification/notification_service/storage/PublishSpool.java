@@ -0,0 +1,458 @@
+package com.microservice.notification.notification_service.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead spool for Kafka messages that could not be sent to the broker.
+ * <p>
+ * Messages are appended to memory-mapped, append-only segment files of a fixed size. Every record
+ * is written as its length, a CRC32C checksum and its payload, and the length is written last, so
+ * a record torn by a crash is recognised on recovery by a missing length or a checksum mismatch
+ * and discarded together with everything after it. When the current segment is full it is forced
+ * to disk and a new one is started; once every record of a segment has been replayed the segment
+ * is deleted. The total size of the segments is bounded, and appends are refused once the bound
+ * is reached.
+ * </p>
+ * <p>
+ * Records are read back in the order they were appended. The position of the oldest record not
+ * yet replayed is kept in a small memory-mapped checkpoint file, so after a restart replay resumes
+ * where it stopped; a record replayed just before a crash may be replayed again.
+ * </p>
+ */
+@Component
+public class PublishSpool {
+
+    private static final Logger logger = LogManager.getLogger(PublishSpool.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int CHECKPOINT_BYTES = 16;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private MappedByteBuffer checkpoint;
+    private FileChannel checkpointChannel;
+    private long readSegmentId;
+    private int readPosition;
+    private boolean closed;
+
+    public PublishSpool(@Value("${notification.spool.dir:${java.io.tmpdir}/notification-spool}") String directory,
+                        @Value("${notification.spool.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${notification.spool.max-size:1GB}") DataSize maxSize) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.segmentBytes = Math.toIntExact(segmentSize.toBytes());
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Opens the spool, recovering the records left by a previous run.
+     * <p>
+     * Every segment is scanned up to its first incomplete or corrupt record, and the tail of the
+     * newest segment is cleared so that new records are appended right after the last intact one.
+     * </p>
+     *
+     * @throws IOException if the spool directory could not be read.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        Collections.sort(ids);
+        for (Long id : ids) {
+            Segment segment = Segment.open(segmentPath(id), id, segmentBytes);
+            segment.recover(id.equals(ids.get(ids.size() - 1)));
+            segments.put(id, segment);
+        }
+        segments.values().forEach(segment -> segment.sealed = segment != segments.lastEntry().getValue());
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_BYTES);
+        restoreCheckpoint();
+
+        long recovered = 0;
+        for (Segment segment : segments.tailMap(readSegmentId, true).values()) {
+            recovered += segment.countRecords(segment.id == readSegmentId ? readPosition : 0);
+        }
+        pending.set(recovered);
+        if (recovered > 0) {
+            logger.warn("Recovered {} spooled messages in {} segments from {}", recovered, segments.size(), directory);
+        }
+    }
+
+    /**
+     * Appends a message to the spool.
+     *
+     * @param record   The Kafka record that could not be sent.
+     * @param channel  The channel of the notification carried by the record.
+     * @param priority The priority of the notification carried by the record.
+     * @throws IOException if the spool is full or the record could not be written.
+     */
+    public synchronized void append(ProducerRecord<String, String> record, String channel, String priority) throws IOException {
+        if (closed) {
+            throw new IOException("Publish spool is closed");
+        }
+        byte[] payload = encode(record, channel, priority);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IOException("Message of " + payload.length + " bytes does not fit in a spool segment");
+        }
+        Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null || segment.buffer.capacity() - segment.writePosition < recordBytes) {
+            segment = rotate(segment);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int position = segment.writePosition;
+        segment.buffer.putInt(position + 4, (int) crc.getValue());
+        segment.buffer.put(position + RECORD_HEADER_BYTES, payload);
+        // The length is written last and marks the record as complete
+        segment.buffer.putInt(position, payload.length);
+        segment.writePosition += recordBytes;
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Reads the oldest messages not yet replayed, without removing them.
+     * <p>
+     * The messages stay in the spool until they are passed to {@link #commit(List)}, so reading
+     * again without committing returns the same messages.
+     * </p>
+     *
+     * @param maxRecords The maximum number of messages to read.
+     * @return The oldest messages, in the order they were appended.
+     */
+    public synchronized List<SpooledRecord> read(int maxRecords) {
+        skipReplayedSegments();
+        List<SpooledRecord> records = new ArrayList<>();
+        Segment segment = segments.get(readSegmentId);
+        if (segment == null) {
+            return records;
+        }
+        int position = readPosition;
+        while (records.size() < maxRecords && position < segment.writePosition) {
+            int length = segment.buffer.getInt(position);
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + RECORD_HEADER_BYTES, payload);
+            position += RECORD_HEADER_BYTES + length;
+            records.add(decode(payload, segment.id, position));
+        }
+        return records;
+    }
+
+    /**
+     * Removes replayed messages from the spool.
+     *
+     * @param replayed The messages replayed, oldest first, as returned by {@link #read(int)}.
+     */
+    public synchronized void commit(List<SpooledRecord> replayed) {
+        if (replayed.isEmpty()) {
+            return;
+        }
+        SpooledRecord last = replayed.get(replayed.size() - 1);
+        readSegmentId = last.segmentId;
+        readPosition = last.end;
+        pending.addAndGet(-replayed.size());
+        skipReplayedSegments();
+        writeCheckpoint();
+    }
+
+    /**
+     * Returns whether every spooled message has been replayed.
+     *
+     * @return true if the spool holds no message waiting to be replayed.
+     */
+    public boolean isEmpty() {
+        return pending.get() == 0;
+    }
+
+    /**
+     * Returns the number of spooled messages waiting to be replayed.
+     *
+     * @return The number of pending messages.
+     */
+    public long size() {
+        return pending.get();
+    }
+
+    /**
+     * Forces the segments and the checkpoint to disk and closes them.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        closed = true;
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        if (checkpoint != null) {
+            checkpoint.force();
+            closeQuietly(checkpointChannel);
+        }
+        if (pending.get() > 0) {
+            logger.warn("Closed publish spool with {} messages waiting to be replayed", pending.get());
+        }
+    }
+
+    private Segment rotate(Segment current) throws IOException {
+        if ((long) (segments.size() + 1) * segmentBytes > maxBytes) {
+            throw new IOException("Publish spool is full with " + pending.get() + " messages");
+        }
+        long id = current == null ? readSegmentId : current.id + 1;
+        Segment next = Segment.open(segmentPath(id), id, segmentBytes);
+        if (current != null) {
+            current.buffer.force();
+            current.sealed = true;
+        }
+        segments.put(id, next);
+        logger.info("Started spool segment {}", id);
+        return next;
+    }
+
+    private void skipReplayedSegments() {
+        Segment segment = segments.get(readSegmentId);
+        while (segment != null && segment.sealed && readPosition >= segment.writePosition) {
+            delete(segment);
+            readSegmentId = segment.id + 1;
+            readPosition = 0;
+            segment = segments.get(readSegmentId);
+        }
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.id);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.error("Error deleting replayed spool segment: {}", segment.path, e);
+        }
+    }
+
+    private void restoreCheckpoint() {
+        long segmentId = checkpoint.getLong(0);
+        int position = checkpoint.getInt(8);
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.slice(0, 12));
+        boolean valid = checkpoint.getInt(12) == (int) crc.getValue() && segments.containsKey(segmentId)
+                && position <= segments.get(segmentId).writePosition;
+        if (valid) {
+            readSegmentId = segmentId;
+            readPosition = position;
+        } else {
+            // Without a usable checkpoint everything left is replayed again
+            readSegmentId = segments.isEmpty() ? 0 : segments.firstKey();
+            readPosition = 0;
+        }
+        for (Segment replayed : new ArrayList<>(segments.headMap(readSegmentId).values())) {
+            delete(replayed);
+        }
+    }
+
+    private void writeCheckpoint() {
+        checkpoint.putLong(0, readSegmentId);
+        checkpoint.putInt(8, readPosition);
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.slice(0, 12));
+        checkpoint.putInt(12, (int) crc.getValue());
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(ProducerRecord<String, String> record, String channel, String priority) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, record.topic());
+            writeString(out, record.key());
+            writeString(out, record.value());
+            writeString(out, channel);
+            writeString(out, priority);
+            Header[] headers = record.headers().toArray();
+            out.writeInt(headers.length);
+            for (Header header : headers) {
+                writeString(out, header.key());
+                out.writeInt(header.value().length);
+                out.write(header.value());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SpooledRecord decode(byte[] payload, long segmentId, int end) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String topic = readString(in);
+            String key = readString(in);
+            String value = readString(in);
+            String channel = readString(in);
+            String priority = readString(in);
+            int headerCount = in.readInt();
+            List<Header> headers = new ArrayList<>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                String headerKey = readString(in);
+                byte[] headerValue = new byte[in.readInt()];
+                in.readFully(headerValue);
+                headers.add(new RecordHeader(headerKey, headerValue));
+            }
+            return new SpooledRecord(new ProducerRecord<>(topic, null, key, value, headers), channel, priority, segmentId, end);
+        } catch (IOException e) {
+            // The checksum was verified when the record was recovered or appended
+            throw new UncheckedIOException("Error decoding spooled message", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("Error closing spool file", e);
+        }
+    }
+
+    /**
+     * A message read back from the spool, with its position in the spool.
+     */
+    public static final class SpooledRecord {
+        private final ProducerRecord<String, String> record;
+        private final String channel;
+        private final String priority;
+        private final long segmentId;
+        private final int end;
+
+        private SpooledRecord(ProducerRecord<String, String> record, String channel, String priority, long segmentId, int end) {
+            this.record = record;
+            this.channel = channel;
+            this.priority = priority;
+            this.segmentId = segmentId;
+            this.end = end;
+        }
+
+        public ProducerRecord<String, String> getRecord() {
+            return record;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public String getPriority() {
+            return priority;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private boolean sealed;
+
+        private Segment(Path path, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long id, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // A segment written by a run with a different segment size keeps its own size
+            int size = (int) Math.max(channel.size(), segmentBytes);
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * Finds the end of the intact records and, for the segment that will be appended to,
+         * clears whatever a torn write left after it.
+         */
+        private void recover(boolean clearTail) {
+            int position = 0;
+            int capacity = buffer.capacity();
+            while (position + RECORD_HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > capacity - position - RECORD_HEADER_BYTES) {
+                    break;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.slice(position + RECORD_HEADER_BYTES, length));
+                if (buffer.getInt(position + 4) != (int) crc.getValue()) {
+                    logger.warn("Discarding torn spool record at {} in segment {}", position, id);
+                    break;
+                }
+                position += RECORD_HEADER_BYTES + length;
+            }
+            writePosition = position;
+            if (clearTail) {
+                // A torn record has no length but may have left its checksum and payload behind
+                for (int offset = position; offset < capacity; offset++) {
+                    if (buffer.get(offset) != 0) {
+                        buffer.put(offset, (byte) 0);
+                    }
+                }
+            }
+        }
+
+        private long countRecords(int from) {
+            long count = 0;
+            for (int position = from; position < writePosition; position += RECORD_HEADER_BYTES + buffer.getInt(position)) {
+                count++;
+            }
+            return count;
+        }
+
+        private void close() {
+            buffer.force();
+            closeQuietly(channel);
+        }
+    }
+}
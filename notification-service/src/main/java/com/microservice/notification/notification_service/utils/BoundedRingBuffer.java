@@ -0,0 +1,147 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer ring buffer.
+ * <p>
+ * Every slot carries a sequence number telling producers and consumers whose turn it is: a slot
+ * is free for the producer claiming position {@code p} when its sequence equals {@code p}, and
+ * holds an element for the consumer claiming position {@code p} when its sequence equals
+ * {@code p + 1}. Positions are claimed with a single compare-and-set, so neither side ever blocks
+ * and a full buffer is reported to the producer immediately instead of making it wait.
+ * </p>
+ * <p>
+ * The capacity is rounded up to the next power of two so that positions map to slots with a mask.
+ * </p>
+ *
+ * @param <E> The type of the elements.
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a ring buffer holding at least the given number of elements.
+     *
+     * @param capacity The minimum capacity of the buffer.
+     */
+    public BoundedRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element at the tail of the buffer if there is room for it.
+     *
+     * @param element The element to add.
+     * @return true if the element was added; false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Null elements are not supported");
+        }
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    // Publishing the sequence makes the element visible to the consumer of this position
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the head of the buffer.
+     *
+     * @return The removed element, or null if the buffer is empty.
+     */
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    // Hands the slot back to the producer of the position one lap ahead
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to the given number of elements from the head of the buffer.
+     *
+     * @param target      The collection to add the removed elements to, in order.
+     * @param maxElements The maximum number of elements to remove.
+     * @return The number of elements removed.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of elements in the buffer.
+     * <p>
+     * The value is a snapshot and may be stale as soon as it is returned.
+     * </p>
+     *
+     * @return The number of elements in the buffer.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Returns the number of elements the buffer can hold.
+     *
+     * @return The capacity of the buffer.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,377 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * A compressed bitmap of non-negative {@code int} values, laid out like a Roaring bitmap.
+ * <p>
+ * Values are split into chunks of 65536 keyed by their high 16 bits. Sparse chunks are stored
+ * as sorted {@code char} arrays and dense chunks as fixed 1024-word bitsets, so memory stays
+ * proportional to the number of values set while set operations still run word by word.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; callers are expected to synchronise access.
+ * </p>
+ */
+public class CompressedBitmap {
+
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final TreeMap<Integer, Container> containers = new TreeMap<>();
+
+    /**
+     * Adds a value to the bitmap.
+     *
+     * @param value The non-negative value to add.
+     * @return true if the value was not already present.
+     */
+    public boolean add(int value) {
+        Container container = containers.computeIfAbsent(value >>> 16, key -> new Container());
+        return container.add((char) value);
+    }
+
+    /**
+     * Removes a value from the bitmap.
+     *
+     * @param value The value to remove.
+     * @return true if the value was present.
+     */
+    public boolean remove(int value) {
+        Container container = containers.get(value >>> 16);
+        if (container == null || !container.remove((char) value)) {
+            return false;
+        }
+        if (container.size == 0) {
+            containers.remove(value >>> 16);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a value is present in the bitmap.
+     *
+     * @param value The value to look up.
+     * @return true if the value is present.
+     */
+    public boolean contains(int value) {
+        Container container = containers.get(value >>> 16);
+        return container != null && container.contains((char) value);
+    }
+
+    /**
+     * Returns the number of values present in the bitmap.
+     *
+     * @return The cardinality of the bitmap.
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (Container container : containers.values()) {
+            cardinality += container.size;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns an independent copy of this bitmap.
+     *
+     * @return A copy of the bitmap.
+     */
+    public CompressedBitmap copy() {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            result.containers.put(entry.getKey(), entry.getValue().copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in both this bitmap and the other one.
+     *
+     * @param other The bitmap to intersect with.
+     * @return The intersection of both bitmaps.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            Container otherContainer = other.containers.get(entry.getKey());
+            if (otherContainer != null) {
+                long[] words = entry.getValue().toWords();
+                long[] otherWords = otherContainer.toWords();
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= otherWords[i];
+                }
+                result.putWords(entry.getKey(), words);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in this bitmap or the other one.
+     *
+     * @param other The bitmap to unite with.
+     * @return The union of both bitmaps.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = copy();
+        for (Map.Entry<Integer, Container> entry : other.containers.entrySet()) {
+            Container container = result.containers.get(entry.getKey());
+            if (container == null) {
+                result.containers.put(entry.getKey(), entry.getValue().copy());
+            } else {
+                long[] words = container.toWords();
+                long[] otherWords = entry.getValue().toWords();
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] |= otherWords[i];
+                }
+                result.putWords(entry.getKey(), words);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in this bitmap but not in the other one.
+     *
+     * @param other The bitmap whose values are excluded.
+     * @return The difference of both bitmaps.
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            Container otherContainer = other.containers.get(entry.getKey());
+            if (otherContainer == null) {
+                result.containers.put(entry.getKey(), entry.getValue().copy());
+            } else {
+                long[] words = entry.getValue().toWords();
+                long[] otherWords = otherContainer.toWords();
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~otherWords[i];
+                }
+                result.putWords(entry.getKey(), words);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits the values of the bitmap in ascending order until the visitor returns false.
+     *
+     * @param visitor The visitor called with each value.
+     */
+    public void forEach(IntPredicate visitor) {
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            if (!entry.getValue().forEach(entry.getKey() << 16, visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the bitmap in a compact binary form.
+     *
+     * @param out The output to write to.
+     * @throws IOException if the bitmap could not be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(containers.size());
+        for (Map.Entry<Integer, Container> entry : containers.entrySet()) {
+            Container container = entry.getValue();
+            out.writeInt(entry.getKey());
+            out.writeBoolean(container.bitmap != null);
+            out.writeInt(container.size);
+            if (container.bitmap != null) {
+                for (long word : container.bitmap) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (int i = 0; i < container.size; i++) {
+                    out.writeChar(container.array[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a bitmap previously written with {@link #writeTo(DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The bitmap read.
+     * @throws IOException if the bitmap could not be read.
+     */
+    public static CompressedBitmap readFrom(DataInput in) throws IOException {
+        CompressedBitmap result = new CompressedBitmap();
+        int count = in.readInt();
+        for (int c = 0; c < count; c++) {
+            int key = in.readInt();
+            Container container = new Container();
+            boolean isBitmap = in.readBoolean();
+            container.size = in.readInt();
+            if (isBitmap) {
+                container.bitmap = new long[BITMAP_WORDS];
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    container.bitmap[i] = in.readLong();
+                }
+                container.array = null;
+            } else {
+                container.array = new char[Math.max(container.size, 4)];
+                for (int i = 0; i < container.size; i++) {
+                    container.array[i] = in.readChar();
+                }
+            }
+            result.containers.put(key, container);
+        }
+        return result;
+    }
+
+    private void putWords(int key, long[] words) {
+        Container container = Container.fromWords(words);
+        if (container != null) {
+            containers.put(key, container);
+        }
+    }
+
+    /**
+     * A chunk of 65536 values, stored as a sorted array while sparse and as a bitset once dense.
+     */
+    private static final class Container {
+
+        private char[] array = new char[4];
+        private long[] bitmap;
+        private int size;
+
+        boolean add(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] |= mask;
+                size++;
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, size, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (size == MAX_ARRAY_SIZE) {
+                bitmap = toWords();
+                array = null;
+                return add(low);
+            }
+            index = -index - 1;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, Math.min(MAX_ARRAY_SIZE, array.length * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, size - index);
+            array[index] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] &= ~mask;
+                size--;
+                if (size <= MAX_ARRAY_SIZE / 2) {
+                    Container compacted = fromWords(bitmap);
+                    array = compacted == null ? new char[4] : compacted.array;
+                    bitmap = null;
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, size, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, size, low) >= 0;
+        }
+
+        long[] toWords() {
+            if (bitmap != null) {
+                return bitmap.clone();
+            }
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                words[array[i] >>> 6] |= 1L << array[i];
+            }
+            return words;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.size = size;
+            copy.bitmap = bitmap == null ? null : bitmap.clone();
+            copy.array = array == null ? null : array.clone();
+            return copy;
+        }
+
+        boolean forEach(int base, IntPredicate visitor) {
+            if (bitmap == null) {
+                for (int i = 0; i < size; i++) {
+                    if (!visitor.test(base | array[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = bitmap[i];
+                while (word != 0) {
+                    if (!visitor.test(base | (i << 6) | Long.numberOfTrailingZeros(word))) {
+                        return false;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return true;
+        }
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            Container container = new Container();
+            container.size = cardinality;
+            if (cardinality > MAX_ARRAY_SIZE) {
+                container.bitmap = words;
+                container.array = null;
+                return container;
+            }
+            container.array = new char[cardinality];
+            int index = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    container.array[index++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return container;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor running tasks with different keys in parallel and tasks with the same key one after
+ * another, in submission order.
+ * <p>
+ * Each key with work pending holds the future of its last submitted task, and a new task for the
+ * key is chained behind it, so no thread is ever blocked waiting for a key. The entry of a key is
+ * removed as soon as its last task completes, keeping the map as small as the set of keys in
+ * flight. Tasks without a key are not ordered. With a parallelism of one, tasks run on the
+ * submitting thread. The number of tasks submitted but not yet completed is tracked, so callers
+ * can wait for the executor to become idle before handing its work elsewhere.
+ * </p>
+ */
+public class KeyOrderedExecutor {
+
+    private static final Logger logger = LogManager.getLogger(KeyOrderedExecutor.class);
+
+    private final String name;
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final Object idle = new Object();
+    private int pending;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an executor running up to the given number of tasks at a time.
+     *
+     * @param name        The name of the executor, used as the prefix of its thread names.
+     * @param parallelism The number of tasks that may run at the same time.
+     */
+    public KeyOrderedExecutor(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = parallelism;
+        if (parallelism > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.workers = Executors.newFixedThreadPool(parallelism, threadFactory);
+        } else {
+            this.workers = null;
+        }
+    }
+
+    /**
+     * Runs a task once every task previously submitted with the same key has completed.
+     *
+     * @param key  The key ordering the task, or null if it needs no ordering.
+     * @param task The task to run.
+     */
+    public void execute(String key, Runnable task) {
+        if (workers == null) {
+            task.run();
+            return;
+        }
+        synchronized (idle) {
+            pending++;
+        }
+        if (key == null) {
+            CompletableFuture.runAsync(task, workers).whenComplete((result, error) -> complete(error));
+            return;
+        }
+        CompletableFuture<Void> tail = tails.compute(key, (k, previous) -> previous == null
+                ? CompletableFuture.runAsync(task, workers)
+                : previous.exceptionally(error -> null).thenRunAsync(task, workers));
+        tail.whenComplete((result, error) -> {
+            tails.remove(key, tail);
+            complete(error);
+        });
+    }
+
+    /**
+     * Returns the number of tasks that may run at the same time.
+     *
+     * @return The parallelism of the executor.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Waits until every submitted task has completed.
+     * <p>
+     * Tasks submitted while waiting are waited for as well, so callers should stop submitting first.
+     * </p>
+     *
+     * @param timeout The maximum time to wait.
+     * @return true if the executor became idle, false if the timeout elapsed first.
+     * @throws InterruptedException if the calling thread was interrupted while waiting.
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idle) {
+            while (pending > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the pending ones to complete.
+     */
+    public void shutdown() {
+        if (workers == null) {
+            return;
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Executor {} did not complete its pending tasks within 30 seconds", name);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private void complete(Throwable error) {
+        synchronized (idle) {
+            if (--pending == 0) {
+                idle.notifyAll();
+            }
+        }
+        if (error != null) {
+            logger.error("Task failed in executor {}", name, error);
+        }
+    }
+}
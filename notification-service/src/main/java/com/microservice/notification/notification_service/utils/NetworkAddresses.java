@@ -0,0 +1,108 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Classifies the addresses a callback URL may point at.
+ * <p>
+ * Callback URLs are supplied by clients, so posting to them must not reach the service's own
+ * network: loopback, link-local (including cloud metadata endpoints), private, shared, multicast
+ * and reserved addresses are internal. Only the address a host name resolves to tells whether it
+ * is internal, so the check runs on resolved addresses, right before a request is sent.
+ * </p>
+ */
+public final class NetworkAddresses {
+
+    private NetworkAddresses() {
+    }
+
+    /**
+     * Checks whether an address belongs to a local, private or reserved range.
+     *
+     * @param address The address to check.
+     * @return true if the address must not be called back.
+     */
+    public static boolean isInternal(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            return isInternalIpv4(bytes, 0);
+        }
+        // Unique local fc00::/7
+        if ((bytes[0] & 0xFE) == 0xFC) {
+            return true;
+        }
+        // IPv4-compatible ::a.b.c.d and NAT64 64:ff9b::a.b.c.d embed an IPv4 address
+        boolean compatible = true;
+        for (int i = 0; i < 12; i++) {
+            compatible &= bytes[i] == 0;
+        }
+        boolean nat64 = bytes[0] == 0 && bytes[1] == 0x64 && bytes[2] == (byte) 0xFF && bytes[3] == (byte) 0x9B;
+        for (int i = 4; nat64 && i < 12; i++) {
+            nat64 = bytes[i] == 0;
+        }
+        return (compatible || nat64) && isInternalIpv4(bytes, 12);
+    }
+
+    /**
+     * Checks whether a host is written as an internal address or names the local host, without
+     * resolving it.
+     *
+     * @param host The host part of a URL.
+     * @return true if the host is known to be internal before resolution.
+     */
+    public static boolean isInternalLiteral(String host) {
+        String lower = host.toLowerCase();
+        if (lower.equals("localhost") || lower.endsWith(".localhost")) {
+            return true;
+        }
+        if (!isIpv4Literal(lower)) {
+            return false;
+        }
+        try {
+            // A literal address is parsed, not looked up
+            return isInternal(InetAddress.getByName(lower));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static boolean isInternalIpv4(byte[] bytes, int offset) {
+        int first = bytes[offset] & 0xFF;
+        int second = bytes[offset + 1] & 0xFF;
+        return first == 0                                       // this network
+                || first == 10                                  // private
+                || first == 127                                 // loopback
+                || (first == 100 && (second & 0xC0) == 64)      // shared address space 100.64.0.0/10
+                || (first == 169 && second == 254)              // link-local
+                || (first == 172 && (second & 0xF0) == 16)      // private
+                || (first == 192 && second == 168)              // private
+                || (first == 192 && second == 0 && bytes[offset + 2] == 0) // IETF protocol assignments
+                || (first == 198 && (second & 0xFE) == 18)      // benchmarking
+                || first >= 224;                                // multicast, reserved and broadcast
+    }
+
+    private static boolean isIpv4Literal(String host) {
+        int parts = 0;
+        int digits = 0;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c == '.') {
+                if (digits == 0) {
+                    return false;
+                }
+                parts++;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                digits++;
+            } else {
+                return false;
+            }
+        }
+        return digits > 0 && parts == 3;
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservice.notification.notification_service.utils;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka headers carrying the trace context and the stage timestamps of a notification.
+ * <p>
+ * The producer stamps the time the request was received and the time it was persisted, together
+ * with the trace context. The consumer restores them from the headers, falling back to the message
+ * body for messages sent without them, adds the record timestamp as the time the message entered
+ * Kafka, and stamps its own consumption time. Timestamps are written as decimal epoch milliseconds
+ * so they stay readable in Kafka tooling. Messages re-sent by a re-drive are flagged as such, so
+ * that downstream readers of the channel topics do not count them as new notifications.
+ * </p>
+ */
+public final class PipelineHeaders {
+
+    public static final String RECEIVED_AT = "notification-received-at";
+    public static final String PERSISTED_AT = "notification-persisted-at";
+    public static final String REDRIVEN = "notification-redriven";
+
+    private PipelineHeaders() {
+    }
+
+    /**
+     * Builds the headers to send with the message of a notification.
+     *
+     * @param notification The persisted notification.
+     * @return The trace context and producer-side stage timestamps of the notification.
+     */
+    public static List<Header> of(NotificationRequest notification) {
+        List<Header> headers = new ArrayList<>(4);
+        if (notification.getTraceparent() != null) {
+            headers.add(new RecordHeader(TraceContext.TRACEPARENT, notification.getTraceparent().getBytes(StandardCharsets.US_ASCII)));
+        }
+        addTimestamp(headers, RECEIVED_AT, notification.getReceivedAt());
+        addTimestamp(headers, PERSISTED_AT, notification.getCreatedAt());
+        return headers;
+    }
+
+    /**
+     * Builds the headers to send with the message of a re-driven notification.
+     *
+     * @param notification The persisted notification being re-sent.
+     * @return The headers of the notification, flagged as a re-drive.
+     */
+    public static List<Header> ofRedrive(NotificationRequest notification) {
+        List<Header> headers = of(notification);
+        headers.add(new RecordHeader(REDRIVEN, new byte[]{'1'}));
+        return headers;
+    }
+
+    /**
+     * Returns whether a consumed record was re-sent by a re-drive.
+     *
+     * @param headers The headers of the record.
+     * @return true if the record carries the re-drive flag.
+     */
+    public static boolean isRedrive(Headers headers) {
+        return headers.lastHeader(REDRIVEN) != null;
+    }
+
+    /**
+     * Restores the trace context and stage timestamps of a consumed notification and stamps the
+     * time it entered Kafka and the time it was consumed.
+     *
+     * @param record       The consumed Kafka record.
+     * @param notification The notification deserialized from the record.
+     */
+    public static void apply(ConsumerRecord<String, String> record, NotificationRequest notification) {
+        Headers headers = record.headers();
+        String traceparent = stringValue(headers.lastHeader(TraceContext.TRACEPARENT));
+        notification.setTraceparent(TraceContext.continueOrStart(traceparent != null ? traceparent : notification.getTraceparent()));
+        Long receivedAt = longValue(headers.lastHeader(RECEIVED_AT));
+        if (receivedAt != null) {
+            notification.setReceivedAt(receivedAt);
+        }
+        Long persistedAt = longValue(headers.lastHeader(PERSISTED_AT));
+        if (persistedAt != null) {
+            notification.setCreatedAt(persistedAt);
+        }
+        notification.setEnqueuedAt(record.timestamp() >= 0 ? record.timestamp() : null);
+        notification.setConsumedAt(System.currentTimeMillis());
+        notification.setProviderAcceptedAt(null);
+        notification.setCompletedAt(null);
+    }
+
+    private static void addTimestamp(List<Header> headers, String key, Long timestamp) {
+        if (timestamp != null) {
+            headers.add(new RecordHeader(key, Long.toString(timestamp).getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    private static String stringValue(Header header) {
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.US_ASCII);
+    }
+
+    private static Long longValue(Header header) {
+        String value = stringValue(header);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservice.notification.notification_service.utils;
+
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+
+/**
+ * Derives the Kafka message key of a notification from its recipient.
+ * <p>
+ * Keying by recipient sends every notification of a recipient to the same partition, and lets the
+ * consumers process notifications of different recipients in parallel while keeping those of one
+ * recipient in order. Email notifications are keyed by email address, other channels by phone
+ * number when present; notifications without a recipient fall back to their identifier.
+ * </p>
+ */
+public final class RecipientKey {
+
+    private RecipientKey() {
+    }
+
+    /**
+     * Returns the message key of a notification.
+     *
+     * @param notification The notification to key.
+     * @return The recipient of the notification, or its identifier when it has none.
+     */
+    public static String of(NotificationRequest notification) {
+        boolean email = NotificationTypeEnum.EMAIL.name().equalsIgnoreCase(notification.getNotificationType());
+        String phone = notification.getPhone();
+        if (!email && phone != null && !phone.isEmpty()) {
+            return phone;
+        }
+        String address = notification.getEmail();
+        if (address != null && !address.isEmpty()) {
+            return address;
+        }
+        return phone != null && !phone.isEmpty() ? phone : notification.getIdentifier();
+    }
+}
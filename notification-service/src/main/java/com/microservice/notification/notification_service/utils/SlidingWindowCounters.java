@@ -0,0 +1,173 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free table of sliding-window event counters, keyed by 64-bit key hashes.
+ * <p>
+ * Each counter approximates a sliding window with two fixed ones: the count of the current window
+ * plus the count of the previous window, weighted by how much of it the sliding window still
+ * overlaps. A counter is packed into one {@code long} (window start in seconds, current count and
+ * previous count) and updated with a single compare-and-set, so recording an event never blocks.
+ * </p>
+ * <p>
+ * The table is split into stripes of {@value #STRIPE_SLOTS} slots, picked by the key hash. Within
+ * its stripe, a key is looked up by linear probing over at most {@value #MAX_PROBES} slots, so
+ * the table never grows. A slot whose counter has been idle for two of the longest windows holds
+ * nothing that can still count, and is handed over to the next new key probing past it. When
+ * every slot a new key may use is taken by an active key, the key is not tracked and its events
+ * are allowed.
+ * </p>
+ * <p>
+ * Counts are approximate: counts saturate at 65535 per window, and in the rare race where an
+ * idle key comes back just as its slot is handed over, one event may be counted against the
+ * other key.
+ * </p>
+ */
+public class SlidingWindowCounters {
+
+    /**
+     * The outcome of recording an event.
+     */
+    public enum Outcome {
+        /**
+         * The event was within the limit and was counted.
+         */
+        COUNTED,
+        /**
+         * The limit was reached; the event was not counted.
+         */
+        LIMITED,
+        /**
+         * No slot was free for the key; the event was neither checked nor counted.
+         */
+        UNTRACKED
+    }
+
+    private static final int STRIPE_SLOTS = 1024;
+    private static final int MAX_PROBES = 16;
+    private static final int MAX_COUNT = 0xffff;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray counters;
+    private final int stripeMask;
+    private final long idleSeconds;
+
+    /**
+     * Creates a table tracking at least the given number of keys.
+     *
+     * @param capacity         The minimum number of keys tracked at once.
+     * @param maxWindowSeconds The longest window any key is counted over, in seconds.
+     */
+    public SlidingWindowCounters(int capacity, long maxWindowSeconds) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^28: " + capacity);
+        }
+        int stripes = Math.max(1, (capacity + STRIPE_SLOTS - 1) / STRIPE_SLOTS);
+        stripes = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.stripeMask = stripes - 1;
+        this.keys = new AtomicLongArray(stripes * STRIPE_SLOTS);
+        this.counters = new AtomicLongArray(stripes * STRIPE_SLOTS);
+        this.idleSeconds = 2 * Math.max(1, maxWindowSeconds);
+    }
+
+    /**
+     * Records an event for a key unless the key already reached its limit within the window.
+     *
+     * @param key           The non-zero hash of the key.
+     * @param limit         The maximum number of events within the window.
+     * @param windowSeconds The length of the window, in seconds; always the same for a key.
+     * @param nowMillis     The current time, in epoch milliseconds.
+     * @return Whether the event was counted, refused because of the limit, or not tracked.
+     */
+    public Outcome record(long key, int limit, long windowSeconds, long nowMillis) {
+        int slot = slotOf(key, nowMillis / 1000);
+        if (slot < 0) {
+            return Outcome.UNTRACKED;
+        }
+        long windowMillis = windowSeconds * 1000;
+        long windowStart = nowMillis / 1000 / windowSeconds * windowSeconds;
+        while (true) {
+            long counter = counters.get(slot);
+            long start = counter >>> 32;
+            long current = (counter >>> 16) & MAX_COUNT;
+            long previous = counter & MAX_COUNT;
+            if (start != windowStart) {
+                previous = start == windowStart - windowSeconds ? current : 0;
+                current = 0;
+                start = windowStart;
+            }
+            // The part of the previous window the sliding window still covers
+            long overlap = windowMillis - (nowMillis - start * 1000);
+            if (previous * overlap / windowMillis + current >= limit) {
+                return Outcome.LIMITED;
+            }
+            long updated = start << 32 | Math.min(current + 1, MAX_COUNT) << 16 | previous;
+            if (counters.compareAndSet(slot, counter, updated)) {
+                return Outcome.COUNTED;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slots currently holding a counter that is not idle.
+     *
+     * @param nowMillis The current time, in epoch milliseconds.
+     * @return The number of active keys.
+     */
+    public int activeKeys(long nowMillis) {
+        long nowSeconds = nowMillis / 1000;
+        int active = 0;
+        for (int i = 0; i < keys.length(); i++) {
+            if (keys.get(i) != 0 && !isIdle(counters.get(i), nowSeconds)) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Finds the slot of a key, claiming an empty or idle slot of its stripe for a new key.
+     *
+     * @return The slot, or -1 if every slot the key may use is held by an active key.
+     */
+    private int slotOf(long key, long nowSeconds) {
+        int base = ((int) (key >>> 32) & stripeMask) * STRIPE_SLOTS;
+        int first = (int) key & (STRIPE_SLOTS - 1);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int candidate = -1;
+            long candidateHeld = 0;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = base + ((first + probe) & (STRIPE_SLOTS - 1));
+                long held = keys.get(slot);
+                if (held == key) {
+                    return slot;
+                }
+                if (held == 0) {
+                    // Keys are replaced but never removed, so the key cannot be further along
+                    if (candidate < 0) {
+                        candidate = slot;
+                        candidateHeld = 0;
+                    }
+                    break;
+                }
+                if (candidate < 0 && isIdle(counters.get(slot), nowSeconds)) {
+                    candidate = slot;
+                    candidateHeld = held;
+                }
+            }
+            if (candidate < 0) {
+                return -1;
+            }
+            // Only take the slot over from the key that was seen idle in it
+            if (keys.compareAndSet(candidate, candidateHeld, key) || keys.get(candidate) == key) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isIdle(long counter, long nowSeconds) {
+        return nowSeconds - (counter >>> 32) >= idleSeconds;
+    }
+}
@@ -0,0 +1,261 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An off-heap set of recipients (phone numbers and email addresses) answering membership checks
+ * without allocating.
+ * <p>
+ * A blocked Bloom filter sits in front of an exact open-addressing hash table. Every recipient
+ * sets seven bits within one 64-byte block of the filter. A check therefore costs one cache line
+ * for most recipients, which are not in the set. Recipients that pass the filter are confirmed
+ * against the table. The table is linearly probed, and each slot packs the high 32 bits of the
+ * recipient's hash with the offset of its bytes in a key arena. Filter, table and arena are all
+ * direct buffers allocated once, so tens of millions of recipients neither weigh on the heap nor
+ * get scanned by the garbage collector.
+ * </p>
+ * <p>
+ * Recipients are compared ignoring ASCII case, so email addresses match whatever case they are
+ * written in. Recipients containing non-ASCII characters, or longer than 255 characters, cannot
+ * be stored and are never contained.
+ * </p>
+ * <p>
+ * One thread may add recipients while any number of threads check membership. A slot is published
+ * with release semantics after the recipient's bytes are written, so a reader that finds the slot
+ * also sees the bytes. A recipient being added may briefly be reported as absent.
+ * </p>
+ */
+public class SuppressionSet {
+
+    /**
+     * The longest recipient that can be stored.
+     */
+    public static final int MAX_LENGTH = 255;
+
+    /**
+     * The largest number of recipients a set can hold.
+     */
+    public static final int MAX_ENTRIES = 1 << 26;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int BLOCK_BYTES = 64;
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int PROBES = 7;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    private final ByteBuffer bloom;
+    private final int blockMask;
+    private final ByteBuffer slots;
+    private final int slotMask;
+    private final ByteBuffer keys;
+    private final int maxEntries;
+    private int keysPosition;
+    private volatile int size;
+
+    /**
+     * Creates an empty set with room for the given number of recipients.
+     *
+     * @param maxEntries The maximum number of recipients the set holds.
+     * @param keyBytes   The number of bytes reserved for the recipients themselves, at least the
+     *                   total length of the recipients plus one byte each.
+     */
+    public SuppressionSet(int maxEntries, long keyBytes) {
+        if (maxEntries < 1 || maxEntries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Entries must be between 1 and " + MAX_ENTRIES + ": " + maxEntries);
+        }
+        if (keyBytes < 1 || keyBytes > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Key bytes must be between 1 and " + (Integer.MAX_VALUE - 1) + ": " + keyBytes);
+        }
+        int blocks = powerOfTwo((int) Math.max(1, (long) maxEntries * BITS_PER_ENTRY / (BLOCK_BYTES * 8)));
+        int slotCount = powerOfTwo(maxEntries * 2);
+        this.maxEntries = maxEntries;
+        this.blockMask = blocks - 1;
+        this.slotMask = slotCount - 1;
+        this.bloom = allocate((long) blocks * BLOCK_BYTES);
+        this.slots = allocate((long) slotCount * Long.BYTES);
+        this.keys = ByteBuffer.allocateDirect((int) keyBytes);
+    }
+
+    /**
+     * Checks whether a recipient is in the set.
+     *
+     * @param recipient The recipient to check.
+     * @return true if the recipient is in the set.
+     */
+    public boolean contains(CharSequence recipient) {
+        long hash = hash(recipient);
+        if (hash == 0) {
+            return false;
+        }
+        if (!mightContain(hash)) {
+            return false;
+        }
+        return find(recipient, hash) >= 0;
+    }
+
+    /**
+     * Adds a recipient to the set. Must not be called by more than one thread at a time.
+     *
+     * @param recipient The recipient to add.
+     * @return true if the recipient is now in the set; false if the set has no room left for it.
+     * @throws IllegalArgumentException if the recipient cannot be stored.
+     */
+    public boolean add(CharSequence recipient) {
+        long hash = hash(recipient);
+        if (hash == 0) {
+            throw new IllegalArgumentException("Recipient is empty, too long or not ASCII");
+        }
+        int slot = find(recipient, hash);
+        if (slot >= 0) {
+            return true;
+        }
+        int length = recipient.length();
+        if (size >= maxEntries || (long) keysPosition + 1 + length > keys.capacity()) {
+            return false;
+        }
+        int offset = keysPosition;
+        keys.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            keys.put(offset + 1 + i, (byte) lowerCase(recipient.charAt(i)));
+        }
+        keysPosition += 1 + length;
+
+        slot = (int) hash & slotMask;
+        while ((long) LONGS.get(slots, slot << 3) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        // Publish the slot only once the recipient's bytes are in place
+        LONGS.setRelease(slots, slot << 3, (hash & 0xffffffff00000000L) | (offset + 1L));
+
+        long bits = mix(hash + GOLDEN);
+        int block = ((int) (mix(bits) >>> 32) & blockMask) * BLOCK_BYTES;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (bits >>> (i * 9)) & 511;
+            LONGS.getAndBitwiseOrRelease(bloom, block + (bit >>> 6) * Long.BYTES, 1L << bit);
+        }
+        size = size + 1;
+        return true;
+    }
+
+    /**
+     * Checks whether a recipient can be stored in the set.
+     *
+     * @param recipient The recipient to check.
+     * @return true if the recipient is not empty, at most {@link #MAX_LENGTH} characters long and ASCII.
+     */
+    public static boolean isStorable(CharSequence recipient) {
+        return hash(recipient) != 0;
+    }
+
+    /**
+     * Returns the number of recipients in the set.
+     *
+     * @return The number of recipients.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of recipients the set holds.
+     *
+     * @return The capacity of the set.
+     */
+    public int capacity() {
+        return maxEntries;
+    }
+
+    private boolean mightContain(long hash) {
+        long bits = mix(hash + GOLDEN);
+        int block = ((int) (mix(bits) >>> 32) & blockMask) * BLOCK_BYTES;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (bits >>> (i * 9)) & 511;
+            if (((long) LONGS.getOpaque(bloom, block + (bit >>> 6) * Long.BYTES) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot holding a recipient, or -1 if the recipient is not in the table.
+     */
+    private int find(CharSequence recipient, long hash) {
+        long fingerprint = hash & 0xffffffff00000000L;
+        int slot = (int) hash & slotMask;
+        while (true) {
+            long entry = (long) LONGS.getAcquire(slots, slot << 3);
+            if (entry == 0) {
+                return -1;
+            }
+            if ((entry & 0xffffffff00000000L) == fingerprint && matches(recipient, (int) entry - 1)) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean matches(CharSequence recipient, int offset) {
+        int length = recipient.length();
+        if ((keys.get(offset) & 0xff) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keys.get(offset + 1 + i) != lowerCase(recipient.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a recipient ignoring ASCII case, with FNV-1a finished by a 64-bit mixer.
+     *
+     * @return The hash, never zero; or zero if the recipient cannot be stored.
+     */
+    private static long hash(CharSequence recipient) {
+        int length = recipient.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return 0;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            char c = recipient.charAt(i);
+            if (c >= 128) {
+                return 0;
+            }
+            hash = (hash ^ lowerCase(c)) * FNV_PRIME;
+        }
+        hash = mix(hash);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static char lowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int powerOfTwo(int value) {
+        return Integer.highestOneBit(value) == value ? value : Integer.highestOneBit(value) << 1;
+    }
+
+    /**
+     * Allocates a zeroed direct buffer aligned for atomic access to its longs.
+     */
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect((int) bytes + Long.BYTES).alignedSlice(Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,59 @@
+package com.microservice.notification.notification_service.utils;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for W3C Trace Context {@code traceparent} values.
+ * <p>
+ * A {@code traceparent} has the form {@code 00-<trace-id>-<parent-id>-<flags>}, with a 32 hex digit
+ * trace identifier shared by every hop of a trace and a 16 hex digit identifier of the calling span.
+ * Each hop keeps the trace identifier and replaces the span identifier with its own, so that one
+ * notification can be followed from the publishing client through Kafka to the provider.
+ * </p>
+ */
+public final class TraceContext {
+
+    /**
+     * The name of the HTTP and Kafka header carrying the trace context.
+     */
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final Pattern TRACEPARENT_PATTERN = Pattern.compile("00-[0-9a-f]{32}-[0-9a-f]{16}-[0-9a-f]{2}");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+    private TraceContext() {
+    }
+
+    /**
+     * Continues the trace of an incoming {@code traceparent}, or starts a new trace when it is
+     * missing or malformed.
+     *
+     * @param incoming The {@code traceparent} received from the caller, or null.
+     * @return A {@code traceparent} for the current hop.
+     */
+    public static String continueOrStart(String incoming) {
+        if (incoming != null && TRACEPARENT_PATTERN.matcher(incoming).matches()
+                && !INVALID_TRACE_ID.equals(traceId(incoming))) {
+            return "00-" + traceId(incoming) + "-" + randomHex(8) + "-" + incoming.substring(53);
+        }
+        return "00-" + randomHex(16) + "-" + randomHex(8) + "-01";
+    }
+
+    /**
+     * Extracts the trace identifier of a {@code traceparent}.
+     *
+     * @param traceparent A well-formed {@code traceparent}.
+     * @return The 32 hex digit trace identifier.
+     */
+    public static String traceId(String traceparent) {
+        return traceparent.substring(3, 35);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] random = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(random);
+        return HexFormat.of().formatHex(random);
+    }
+}
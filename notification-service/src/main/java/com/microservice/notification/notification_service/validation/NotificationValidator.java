@@ -0,0 +1,355 @@
+package com.microservice.notification.notification_service.validation;
+
+import com.microservice.notification.notification_service.constants.NotificationTypeEnum;
+import com.microservice.notification.notification_service.entities.FieldValidationError;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.utils.NetworkAddresses;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Rule-based validator of notification requests, shared by the publish API, the asynchronous
+ * ingest and the consumers.
+ * <p>
+ * Each {@link Stage} has its own list of rules. The lists are built once, when the validator is
+ * created, and a request is validated by running every rule of its stage over it once. The errors
+ * the rules can report are created up front too. As a result, validating a valid request
+ * allocates nothing, and an invalid request costs only the list holding its errors.
+ * </p>
+ * <p>
+ * Phone numbers must be in E.164 format and email addresses must have the syntax of an ordinary
+ * internet address. Both are checked by scanners over precomputed character tables instead of
+ * regular expressions, because a regex {@code Matcher} is allocated for every match.
+ * </p>
+ */
+@Component
+public class NotificationValidator {
+
+    /**
+     * The points of the pipeline at which a notification is validated.
+     */
+    public enum Stage {
+        /**
+         * A notification submitted by a client, before it is given its identifier.
+         */
+        API,
+        /**
+         * A notification consumed from the SMS topic.
+         */
+        SMS_CONSUMER,
+        /**
+         * A notification consumed from the EMAIL topic.
+         */
+        EMAIL_CONSUMER
+    }
+
+    static final FieldValidationError REQUEST_MISSING = new FieldValidationError("request", "is required");
+    static final FieldValidationError IDENTIFIER_MISSING = new FieldValidationError("identifier", "is required");
+    static final FieldValidationError TYPE_MISSING = new FieldValidationError("notificationType", "is required");
+    static final FieldValidationError TYPE_INVALID = new FieldValidationError("notificationType", "must be one of SMS, EMAIL, WHATSAPP");
+    static final FieldValidationError PHONE_MISSING = new FieldValidationError("phone", "is required for SMS and WHATSAPP notifications");
+    static final FieldValidationError PHONE_INVALID = new FieldValidationError("phone", "must be an E.164 number, such as +14155550100");
+    static final FieldValidationError EMAIL_MISSING = new FieldValidationError("email", "is required for EMAIL notifications");
+    static final FieldValidationError EMAIL_INVALID = new FieldValidationError("email", "must be a valid email address");
+    static final FieldValidationError CONTENT_MISSING = new FieldValidationError("notificationContent", "is required");
+    static final FieldValidationError CALLBACK_INVALID = new FieldValidationError("callbackUrl", "must be an absolute http or https URL to a public host");
+
+    private static final NotificationTypeEnum[] CHANNELS = NotificationTypeEnum.values();
+    private static final int MAX_EMAIL_LENGTH = 254;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MAX_E164_DIGITS = 15;
+
+    /**
+     * Characters allowed in the local part of an email address: the RFC 5322 atext and the dot.
+     */
+    private static final boolean[] LOCAL_PART = new boolean[128];
+
+    /**
+     * Characters allowed in a domain label or host name: letters, digits and the hyphen.
+     */
+    private static final boolean[] LABEL = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            LOCAL_PART[c] = true;
+            LABEL[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOCAL_PART[c] = true;
+            LOCAL_PART[Character.toUpperCase(c)] = true;
+            LABEL[c] = true;
+            LABEL[Character.toUpperCase(c)] = true;
+        }
+        for (char c : "!#$%&'*+/=?^_`{|}~-.".toCharArray()) {
+            LOCAL_PART[c] = true;
+        }
+        LABEL['-'] = true;
+    }
+
+    /**
+     * A check of one aspect of a request. The channel is resolved once per request and is null
+     * when the notification type is missing or unknown.
+     */
+    @FunctionalInterface
+    private interface Rule {
+        FieldValidationError check(NotificationRequest request, NotificationTypeEnum channel);
+    }
+
+    private final Map<Stage, Rule[]> rules = new EnumMap<>(Stage.class);
+
+    public NotificationValidator() {
+        Rule type = (request, channel) -> isEmpty(request.getNotificationType()) ? TYPE_MISSING
+                : channel == null ? TYPE_INVALID : null;
+        Rule identifier = required(NotificationRequest::getIdentifier, IDENTIFIER_MISSING);
+        Rule phone = format(NotificationRequest::getPhone, NotificationValidator::isE164, PHONE_INVALID);
+        Rule email = format(NotificationRequest::getEmail, NotificationValidator::isEmail, EMAIL_INVALID);
+        // Each channel needs the recipient it delivers to
+        Rule recipient = (request, channel) -> {
+            if (channel == NotificationTypeEnum.EMAIL) {
+                return isEmpty(request.getEmail()) ? EMAIL_MISSING : null;
+            }
+            return channel != null && isEmpty(request.getPhone()) ? PHONE_MISSING : null;
+        };
+
+        rules.put(Stage.API, new Rule[]{
+                type,
+                recipient,
+                phone,
+                email,
+                required(NotificationRequest::getNotificationContent, CONTENT_MISSING),
+                format(NotificationRequest::getCallbackUrl, NotificationValidator::isCallbackUrl, CALLBACK_INVALID)
+        });
+        rules.put(Stage.SMS_CONSUMER, new Rule[]{
+                identifier,
+                type,
+                recipient,
+                phone
+        });
+        rules.put(Stage.EMAIL_CONSUMER, new Rule[]{
+                identifier,
+                required(NotificationRequest::getEmail, EMAIL_MISSING),
+                email,
+                // Large bodies travel by reference to the content store
+                (request, channel) -> isEmpty(request.getNotificationContent()) && request.getContentRef() == null
+                        ? CONTENT_MISSING : null
+        });
+    }
+
+    /**
+     * Validates a notification against the rules of a stage.
+     *
+     * @param request The notification to validate.
+     * @param stage   The point of the pipeline at which the notification is validated.
+     * @return The invalid fields of the notification, in rule order; empty if it is valid.
+     */
+    public List<FieldValidationError> validate(NotificationRequest request, Stage stage) {
+        if (request == null) {
+            return List.of(REQUEST_MISSING);
+        }
+        NotificationTypeEnum channel = channelOf(request.getNotificationType());
+        List<FieldValidationError> errors = Collections.emptyList();
+        for (Rule rule : rules.get(stage)) {
+            FieldValidationError error = rule.check(request, channel);
+            if (error != null) {
+                if (errors.isEmpty()) {
+                    errors = new ArrayList<>(2);
+                }
+                errors.add(error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Checks that a recipient read from a list is a valid recipient for a channel: an email
+     * address for EMAIL notifications and an E.164 phone number for the other channels.
+     *
+     * @param channel   The notification type, in any case.
+     * @param recipient The recipient to check.
+     * @return true if the channel is known and the recipient is valid for it.
+     */
+    public boolean isValidRecipient(String channel, String recipient) {
+        NotificationTypeEnum type = channelOf(channel);
+        if (type == null || recipient == null) {
+            return false;
+        }
+        return type == NotificationTypeEnum.EMAIL ? isEmail(recipient) : isE164(recipient);
+    }
+
+    /**
+     * Resolves a notification type without allocating, ignoring case.
+     *
+     * @param type The notification type to resolve.
+     * @return The channel, or null if the type is missing or unknown.
+     */
+    public static NotificationTypeEnum channelOf(String type) {
+        if (type == null) {
+            return null;
+        }
+        for (NotificationTypeEnum channel : CHANNELS) {
+            if (channel.name().equalsIgnoreCase(type)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that a phone number is in E.164 format: a '+' followed by up to fifteen digits, the
+     * first of which is not zero.
+     *
+     * @param phone The phone number to check.
+     * @return true if the phone number is in E.164 format.
+     */
+    public static boolean isE164(String phone) {
+        int length = phone.length();
+        if (length < 3 || length > MAX_E164_DIGITS + 1 || phone.charAt(0) != '+') {
+            return false;
+        }
+        if (phone.charAt(1) == '0') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the syntax of an email address: a dot-atom local part of at most 64 characters, an
+     * '@', and a domain of at least two labels ending in an alphabetic top-level domain.
+     * Quoted local parts and address literals are not accepted.
+     *
+     * @param email The email address to check.
+     * @return true if the email address is valid.
+     */
+    public static boolean isEmail(String email) {
+        int length = email.length();
+        int at = email.lastIndexOf('@');
+        if (length > MAX_EMAIL_LENGTH || at < 1 || at > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c >= 128 || !LOCAL_PART[c]) {
+                return false;
+            }
+            if (c == '.' && (i == 0 || i == at - 1 || email.charAt(i - 1) == '.')) {
+                return false;
+            }
+        }
+        int labelStart = at + 1;
+        if (!isHost(email, labelStart, length) || email.indexOf('.', labelStart) < 0) {
+            return false;
+        }
+        // The top-level domain is alphabetic
+        for (int i = email.lastIndexOf('.') + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                return false;
+            }
+        }
+        return length - email.lastIndexOf('.') > 2;
+    }
+
+    /**
+     * Checks that a callback URL is an absolute http or https URL with a host name, an optional
+     * port, and no whitespace or control characters. Hosts that name the local host or are written
+     * as an internal address are refused here; names resolving to one are refused on delivery.
+     *
+     * @param url The URL to check.
+     * @return true if the URL is a valid callback URL.
+     */
+    static boolean isCallbackUrl(String url) {
+        int hostStart;
+        if (url.regionMatches(true, 0, "https://", 0, 8)) {
+            hostStart = 8;
+        } else if (url.regionMatches(true, 0, "http://", 0, 7)) {
+            hostStart = 7;
+        } else {
+            return false;
+        }
+        int length = url.length();
+        int hostEnd = hostStart;
+        while (hostEnd < length && url.charAt(hostEnd) != ':' && url.charAt(hostEnd) != '/'
+                && url.charAt(hostEnd) != '?' && url.charAt(hostEnd) != '#') {
+            hostEnd++;
+        }
+        if (!isHost(url, hostStart, hostEnd) || NetworkAddresses.isInternalLiteral(url.substring(hostStart, hostEnd))) {
+            return false;
+        }
+        int i = hostEnd;
+        if (i < length && url.charAt(i) == ':') {
+            int portStart = ++i;
+            while (i < length && url.charAt(i) >= '0' && url.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == portStart || i - portStart > 5) {
+                return false;
+            }
+            if (i < length && url.charAt(i) != '/' && url.charAt(i) != '?' && url.charAt(i) != '#') {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            char c = url.charAt(i);
+            if (c <= ' ' || c == 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a range of a string is a host name: dot-separated labels of letters, digits and
+     * hyphens, each of 1 to 63 characters and neither starting nor ending with a hyphen.
+     */
+    private static boolean isHost(String value, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        int labelStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || value.charAt(i) == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength < 1 || labelLength > MAX_LABEL_LENGTH
+                        || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else {
+                char c = value.charAt(i);
+                if (c >= 128 || !LABEL[c]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Rule required(Function<NotificationRequest, String> field, FieldValidationError missing) {
+        return (request, channel) -> isEmpty(field.apply(request)) ? missing : null;
+    }
+
+    private static Rule format(Function<NotificationRequest, String> field, Predicate<String> valid, FieldValidationError invalid) {
+        return (request, channel) -> {
+            String value = field.apply(request);
+            return value != null && !value.isEmpty() && !valid.test(value) ? invalid : null;
+        };
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
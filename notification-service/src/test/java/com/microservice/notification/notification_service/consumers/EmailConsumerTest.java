@@ -0,0 +1,102 @@
+package com.microservice.notification.notification_service.consumers;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.services.ClaimCheckService;
+import com.microservice.notification.notification_service.services.ContentStore;
+import com.microservice.notification.notification_service.services.DeliveryTrackingService;
+import com.microservice.notification.notification_service.services.StatusStreamService;
+import com.microservice.notification.notification_service.services.StatusWriteBehind;
+import com.microservice.notification.notification_service.services.WebhookDispatcher;
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailConsumerTest {
+
+	@Mock
+	private StatusWriteBehind statusWriteBehind;
+
+	@Mock
+	private DeliveryTrackingService deliveryTrackingService;
+
+	@Mock
+	private ContentStore contentStore;
+
+	@Mock
+	private StatusStreamService statusStreamService;
+
+	@Mock
+	private WebhookDispatcher webhookDispatcher;
+
+	@Mock
+	private NotificationMetrics notificationMetrics;
+
+	@Mock
+	private NotificationValidator validator;
+
+	@Mock
+	private KeyOrderedExecutor listenerExecutor;
+
+	@Mock
+	private RestTemplate restTemplate;
+
+	@Mock
+	private ClaimCheckService claimCheckService;
+
+	@Mock
+	private Acknowledgment acknowledgment;
+
+	@InjectMocks
+	private EmailConsumer emailConsumer;
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(invocation -> {
+			((Runnable) invocation.getArgument(1)).run();
+			return null;
+		}).when(listenerExecutor).execute(anyString(), any(Runnable.class));
+	}
+
+	@Test
+	void recordsAcceptedEmailsAsDelivered() {
+		emailConsumer.consume(record(), acknowledgment);
+
+		verify(statusWriteBehind).enqueue(any(), eq("DELEIVERED"), eq("Accepted by email provider"), any());
+	}
+
+	@Test
+	void recordsProviderFailuresAsUndelivered() {
+		when(restTemplate.postForEntity(any(), any(), eq(String.class))).thenThrow(new ResourceAccessException("timeout"));
+
+		emailConsumer.consume(record(), acknowledgment);
+
+		verify(statusWriteBehind).enqueue(any(), eq("UNDELEIVERED"), eq("Email provider call failed"), any());
+		verify(statusWriteBehind, never()).enqueue(any(), eq("DELEIVERED"), any(), any());
+		// The record is acknowledged once the status is written, not before
+		verify(acknowledgment, never()).acknowledge();
+	}
+
+	private static ConsumerRecord<String, String> record() {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier("identifier");
+		notification.setNotificationType("EMAIL");
+		notification.setEmail("recipient@example.com");
+		notification.setNotificationContent("Hello");
+		return new ConsumerRecord<>("EMAIL_TOPIC", 0, 0, "recipient@example.com", new Gson().toJson(notification));
+	}
+}
@@ -0,0 +1,42 @@
+package com.microservice.notification.notification_service.metrics;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConsumerLagReaderTest {
+
+	@Test
+	void sumsThePartitionLagOfEveryConsumer() {
+		Map<MetricName, Metric> first = new HashMap<>();
+		put(first, "consumer-fetch-manager-metrics", Map.of("topic", "SMS_TOPIC", "partition", "0"), 3.0);
+		put(first, "consumer-fetch-manager-metrics", Map.of("topic", "SMS_TOPIC", "partition", "1"), Double.NaN);
+		// Topic-level aggregates and other groups would count partitions twice
+		put(first, "consumer-fetch-manager-metrics", Map.of("topic", "SMS_TOPIC"), 100.0);
+		put(first, "consumer-coordinator-metrics", Map.of("topic", "SMS_TOPIC", "partition", "0"), 100.0);
+		Map<MetricName, Metric> second = new HashMap<>();
+		put(second, "consumer-fetch-manager-metrics", Map.of("topic", "SMS_TOPIC", "partition", "2"), 4.0);
+		put(second, "consumer-fetch-manager-metrics", Map.of("topic", "EMAIL_TOPIC", "partition", "0"), 5.0);
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		doReturn(Map.of("consumer-0", first, "consumer-1", second)).when(container).metrics();
+
+		ConsumerLagReader lagReader = new ConsumerLagReader();
+
+		assertEquals(Map.of("EMAIL_TOPIC", 5L, "SMS_TOPIC", 7L), lagReader.lagByTopic(container));
+		assertEquals(12L, lagReader.totalLag(container));
+	}
+
+	private static void put(Map<MetricName, Metric> metrics, String group, Map<String, String> tags, double value) {
+		MetricName name = new MetricName("records-lag", group, "", tags);
+		Metric metric = mock(Metric.class);
+		when(metric.metricValue()).thenReturn(value);
+		metrics.put(name, metric);
+	}
+}
@@ -0,0 +1,66 @@
+package com.microservice.notification.notification_service.metrics;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationMetricsTest {
+
+	@Test
+	void mapsClientSuppliedChannelsAndPrioritiesOntoKnownTags() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		NotificationMetrics metrics = new NotificationMetrics(registry);
+
+		for (int i = 0; i < 100; i++) {
+			metrics.countStatus("channel-" + i, "priority-" + i, "DELEIVERED");
+			metrics.stop(metrics.start(NotificationMetrics.CONSUME), NotificationMetrics.CONSUME, "channel-" + i, null,
+					NotificationMetrics.SUCCESS);
+		}
+		metrics.countStatus(" sms ", "high", "DELEIVERED");
+
+		assertEquals(Set.of("UNKNOWN|OTHER", "SMS|HIGH"), tags(registry, "notification.status"));
+		assertEquals(Set.of("UNKNOWN|OTHER"), tags(registry, NotificationMetrics.CONSUME));
+		assertEquals(100L, registry.get(NotificationMetrics.CONSUME).timer().count());
+		assertEquals(0, metrics.inFlightCounts().get(NotificationMetrics.CONSUME));
+	}
+
+	@Test
+	void recordsTheLatencyOfEachStageAndEndToEnd() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		NotificationRequest notification = new NotificationRequest();
+		notification.setNotificationType("SMS");
+		notification.setReceivedAt(1_000L);
+		notification.setCreatedAt(1_010L);
+		notification.setEnqueuedAt(1_030L);
+		notification.setConsumedAt(1_060L);
+		notification.setCompletedAt(1_100L);
+
+		new NotificationMetrics(registry).recordLatencies(notification);
+
+		assertEquals(10.0, latency(registry, "persist"));
+		assertEquals(20.0, latency(registry, "send"));
+		assertEquals(30.0, latency(registry, "queue"));
+		// Without a provider call the status stage starts at consumption
+		assertNull(registry.find("notification.latency").tag("stage", "provider").timer());
+		assertEquals(40.0, latency(registry, "status"));
+		assertEquals(100.0, registry.get("notification.latency.end_to_end").timer().totalTime(TimeUnit.MILLISECONDS));
+	}
+
+	private static double latency(SimpleMeterRegistry registry, String stage) {
+		return registry.get("notification.latency").tag("stage", stage).timer().totalTime(TimeUnit.MILLISECONDS);
+	}
+
+	private static Set<String> tags(SimpleMeterRegistry registry, String name) {
+		return registry.find(name).meters().stream()
+				.map(Meter::getId)
+				.map(id -> id.getTag("channel") + '|' + id.getTag("priority"))
+				.collect(Collectors.toSet());
+	}
+}
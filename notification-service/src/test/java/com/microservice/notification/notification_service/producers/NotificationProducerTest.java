@@ -0,0 +1,55 @@
+package com.microservice.notification.notification_service.producers;
+
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.storage.PublishSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationProducerTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void keepsSpoolingAfterAFailureUntilTheReplayHasCaughtUp() throws IOException {
+		KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+		when(kafkaTemplate.send(any(ProducerRecord.class)))
+				.thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker down")))
+				.thenReturn(CompletableFuture.completedFuture(null));
+		PublishSpool spool = new PublishSpool(directory.toString(), DataSize.ofKilobytes(64), DataSize.ofMegabytes(1));
+		spool.open();
+		NotificationProducer producer = new NotificationProducer(kafkaTemplate, new NotificationMetrics(new SimpleMeterRegistry()), spool);
+
+		producer.sendMessage("+14155550100", "first", "sms-topic", "SMS", "HIGH", List.of());
+		assertEquals(1, spool.size());
+		// The failed message has been replayed, but the replayer has not reported back yet
+		spool.commit(spool.read(10));
+		producer.sendMessage("+14155550100", "second", "sms-topic", "SMS", "HIGH", List.of());
+
+		assertEquals("second", spool.read(10).get(0).getRecord().value());
+		verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+
+		spool.commit(spool.read(10));
+		producer.replayCaughtUp();
+		producer.sendMessage("+14155550100", "third", "sms-topic", "SMS", "HIGH", List.of());
+
+		assertTrue(spool.isEmpty());
+		verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+		spool.close();
+	}
+}
@@ -0,0 +1,73 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncIngestServiceTest {
+
+	private NotificationRepository repository;
+	private NotificationProducer producer;
+	private FrequencyCapService frequencyCapService;
+	private AsyncIngestService ingestService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(NotificationRepository.class);
+		producer = mock(NotificationProducer.class);
+		frequencyCapService = mock(FrequencyCapService.class);
+		ContentStore contentStore = mock(ContentStore.class);
+		when(contentStore.store(any())).thenReturn("hash");
+		ingestService = new AsyncIngestService(mock(NotificationService.class), repository, producer, contentStore,
+				mock(ClaimCheckService.class), mock(SuppressionService.class), frequencyCapService,
+				new NotificationMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry(), 2, 500, 1, 1);
+	}
+
+	@Test
+	void refusesAFullBufferBeforeCountingTheFrequencyCap() {
+		assertTrue(ingestService.accept(notification("+14155550100")));
+		assertTrue(ingestService.accept(notification("+14155550101")));
+
+		assertFalse(ingestService.accept(notification("+14155550102")));
+		verify(frequencyCapService, times(2)).isCapped(any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void persistsAFailedBatchOneNotificationAtATimeUntilTheDatabaseRecovers() {
+		when(repository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+		when(repository.save(any(NotificationRequest.class)))
+				.thenThrow(new DataAccessResourceFailureException("down"))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		ingestService.accept(notification("+14155550100"));
+		ingestService.accept(notification("+14155550101"));
+
+		ingestService.start();
+		ingestService.shutdown();
+
+		verify(repository, times(3)).save(any(NotificationRequest.class));
+		ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+		verify(producer).sendMessages(keys.capture(), anyList(), anyString(), eq("SMS"), any(), anyList());
+		assertEquals(List.of("+14155550100", "+14155550101"), keys.getValue());
+	}
+
+	private static NotificationRequest notification(String phone) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setNotificationType("sms");
+		notification.setPhone(phone);
+		notification.setNotificationContent("Hello");
+		return notification;
+	}
+}
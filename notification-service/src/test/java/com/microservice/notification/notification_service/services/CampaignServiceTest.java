@@ -0,0 +1,120 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.CampaignStatusEnum;
+import com.microservice.notification.notification_service.dao.CampaignRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.Campaign;
+import com.microservice.notification.notification_service.entities.CampaignRequest;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.validation.NotificationValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CampaignServiceTest {
+
+	@TempDir
+	Path spoolDirectory;
+
+	private CampaignRepository campaignRepository;
+	private NotificationRepository notificationRepository;
+	private ThreadPoolTaskExecutor campaignExecutor;
+	private CampaignService campaignService;
+
+	@BeforeEach
+	void setUp() {
+		campaignRepository = mock(CampaignRepository.class);
+		notificationRepository = mock(NotificationRepository.class);
+		campaignExecutor = mock(ThreadPoolTaskExecutor.class);
+		ContentStore contentStore = mock(ContentStore.class);
+		when(contentStore.store(any())).thenReturn("hash");
+		campaignService = new CampaignService(campaignRepository, notificationRepository, mock(NotificationProducer.class),
+				contentStore, new NotificationValidator(), mock(SuppressionService.class), campaignExecutor,
+				mock(PlatformTransactionManager.class), 2, spoolDirectory.toString());
+	}
+
+	@Test
+	void failsARejectedCampaignAndDeletesItsSpoolFile() throws Exception {
+		doThrow(new TaskRejectedException("full")).when(campaignExecutor).execute(any(Runnable.class));
+		CampaignRequest request = new CampaignRequest();
+		request.setNotificationType("SMS");
+		request.setNotificationContent("Hello");
+
+		assertThrows(TaskRejectedException.class, () -> campaignService.createCampaign(request, "client", null,
+				new ByteArrayInputStream("+14155550100\n".getBytes(StandardCharsets.UTF_8))));
+
+		verify(campaignRepository, atLeastOnce()).save(argThat(campaign ->
+				CampaignStatusEnum.FAILED.name().equals(campaign.getStatus())));
+		try (var files = Files.list(spoolDirectory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void resumesAnInterruptedCampaignAfterItsLastCommittedChunk() throws Exception {
+		doAnswer(invocation -> {
+			((Runnable) invocation.getArgument(0)).run();
+			return null;
+		}).when(campaignExecutor).execute(any(Runnable.class));
+		List<NotificationRequest> saved = new ArrayList<>();
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			saved.addAll(invocation.getArgument(0));
+			return invocation.getArgument(0);
+		});
+		Campaign campaign = new Campaign();
+		campaign.setCampaignId("campaign");
+		campaign.setNotificationType("SMS");
+		campaign.setStatus(CampaignStatusEnum.EXPANDING.name());
+		campaign.setTotalRecipients(2);
+		campaign.setPublishedCount(2);
+		campaign.setExpandedLines(3);
+		campaign.setNextOrdinal(2);
+		Files.writeString(spoolDirectory.resolve("campaign.recipients"),
+				"+14155550100\n\n+14155550101\n+14155550102\nnot-a-number\n+14155550103\n");
+		Campaign lost = new Campaign();
+		lost.setCampaignId("lost");
+		lost.setStatus(CampaignStatusEnum.RECEIVED.name());
+		when(campaignRepository.findByStatusIn(anyCollection())).thenReturn(List.of(campaign, lost));
+
+		campaignService.resumeInterrupted();
+
+		assertEquals(List.of("+14155550102", "+14155550103"), saved.stream().map(NotificationRequest::getPhone).toList());
+		assertEquals(List.of(2L, 3L), saved.stream().map(NotificationRequest::getRecipientOrdinal).toList());
+		assertEquals(CampaignStatusEnum.COMPLETED.name(), campaign.getStatus());
+		assertEquals(5, campaign.getTotalRecipients());
+		assertEquals(1, campaign.getFailedCount());
+		assertEquals(CampaignStatusEnum.FAILED.name(), lost.getStatus());
+		assertFalse(Files.exists(spoolDirectory.resolve("campaign.recipients")));
+	}
+
+	@Test
+	void reportsTheCampaignOfAnotherClientAsNotFound() throws Exception {
+		Campaign campaign = new Campaign();
+		campaign.setCampaignId("campaign");
+		campaign.setOwner("owner");
+		when(campaignRepository.findByCampaignId("campaign")).thenReturn(Optional.of(campaign));
+
+		assertSame(campaign, campaignService.getCampaign("campaign", "owner"));
+		InvalidRequestException error = assertThrows(InvalidRequestException.class,
+				() -> campaignService.getCampaign("campaign", "someone-else"));
+		assertEquals("No campaign found with this identifier.", error.getMessage());
+	}
+}
@@ -0,0 +1,83 @@
+package com.microservice.notification.notification_service.services;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimCheckServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private LocalBlobStore blobStore;
+	private ClaimCheckService claimCheckService;
+
+	@BeforeEach
+	void setUp() {
+		blobStore = new LocalBlobStore(directory.toString());
+		claimCheckService = new ClaimCheckService(blobStore, true, 8);
+	}
+
+	@Test
+	void keepsSmallBodiesAndOtherChannelsInline() {
+		NotificationRequest small = notification("EMAIL", "Hello");
+		NotificationRequest sms = notification("SMS", "A long text message");
+
+		claimCheckService.offload(small);
+		claimCheckService.offload(sms);
+
+		assertNull(small.getContentRef());
+		assertEquals("Hello", small.getNotificationContent());
+		assertNull(sms.getContentRef());
+		assertEquals("A long text message", sms.getNotificationContent());
+	}
+
+	@Test
+	void streamsOffloadedBodiesBackIntoTheEnvelope() throws IOException {
+		String body = "A \"quoted\" body\nover the threshold";
+		NotificationRequest notification = notification("EMAIL", body);
+
+		claimCheckService.offload(notification);
+
+		assertNotNull(notification.getContentRef());
+		assertNull(notification.getNotificationContent());
+		byte[] envelope = claimCheckService.envelope(notification);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		claimCheckService.writeJson(notification, envelope, out);
+		assertEquals(out.size(), claimCheckService.jsonLength(notification, envelope));
+		NotificationRequest sent = new Gson().fromJson(out.toString(StandardCharsets.UTF_8), NotificationRequest.class);
+		assertEquals(body, sent.getNotificationContent());
+		assertEquals("identifier", sent.getIdentifier());
+	}
+
+	@Test
+	void discardsTheBlobOfAPurgedNotification() throws IOException {
+		NotificationRequest notification = notification("EMAIL", "A body over the threshold");
+		claimCheckService.offload(notification);
+		Path blob = directory.resolve(notification.getContentRef());
+		assertTrue(Files.exists(blob));
+
+		claimCheckService.discard(notification("EMAIL", null));
+
+		assertFalse(Files.exists(blob));
+	}
+
+	private static NotificationRequest notification(String type, String content) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier("identifier");
+		notification.setNotificationType(type);
+		notification.setNotificationContent(content);
+		return notification;
+	}
+}
@@ -0,0 +1,82 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationContentRepository;
+import com.microservice.notification.notification_service.entities.NotificationContent;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentStoreTest {
+
+	private NotificationContentRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(NotificationContentRepository.class);
+	}
+
+	@Test
+	void storesIdenticalBodiesOnce() {
+		ContentStore contentStore = new ContentStore(repository, 10);
+
+		String first = contentStore.store("Hello");
+		String second = contentStore.store("Hello");
+
+		assertEquals(first, second);
+		assertNotEquals(first, contentStore.store("Goodbye"));
+		verify(repository, times(1)).save(argThat(content -> content.getContent().equals("Hello")));
+	}
+
+	@Test
+	void hydratesNotificationsFromTheTableOnce() {
+		ContentStore contentStore = new ContentStore(repository, 10);
+		when(repository.findById("hash")).thenReturn(Optional.of(new NotificationContent("hash", "Hello")));
+		NotificationRequest first = notification("hash");
+		NotificationRequest second = notification("hash");
+
+		contentStore.hydrate(first);
+		contentStore.hydrate(second);
+
+		assertEquals("Hello", first.getNotificationContent());
+		assertEquals("Hello", second.getNotificationContent());
+		verify(repository, times(1)).findById("hash");
+	}
+
+	@Test
+	void leavesOffloadedBodiesToTheBlobStore() {
+		ContentStore contentStore = new ContentStore(repository, 10);
+		NotificationRequest notification = notification("hash");
+		notification.setContentRef("blob");
+
+		contentStore.hydrate(notification);
+
+		assertNull(notification.getNotificationContent());
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void sweepsOnlyBodiesThatLeftTheCache() {
+		ContentStore contentStore = new ContentStore(repository, 1);
+		String evicted = contentStore.store("Hello");
+		String hot = contentStore.store("Goodbye");
+		when(repository.deleteUnreferenced(anyCollection())).thenReturn(1);
+
+		assertEquals(1, contentStore.sweep(Arrays.asList(evicted, hot, null)));
+
+		verify(repository).deleteUnreferenced(List.of(evicted));
+	}
+
+	private static NotificationRequest notification(String contentHash) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setContentHash(contentHash);
+		return notification;
+	}
+}
@@ -0,0 +1,99 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.DeliveryStatsProperties;
+import com.microservice.notification.notification_service.entities.DeliveryStats;
+import com.microservice.notification.notification_service.stats.DeliveryStatsTopology;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryStatsServiceTest {
+
+	private static final Instant MINUTE = Instant.parse("2024-01-01T10:00:00Z");
+
+	private ReadOnlyWindowStore<String, Long> store;
+	private DeliveryStatsService statsService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		store = mock(ReadOnlyWindowStore.class);
+		KafkaStreams streams = mock(KafkaStreams.class);
+		when(streams.store(any())).thenAnswer(invocation -> store);
+		StreamsBuilderFactoryBean streamsBuilder = mock(StreamsBuilderFactoryBean.class);
+		when(streamsBuilder.getKafkaStreams()).thenReturn(streams);
+		statsService = new DeliveryStatsService(streamsBuilder, new DeliveryStatsProperties());
+	}
+
+	@Test
+	void sumsTheCountsOfEveryTask() throws Exception {
+		String delivered = DeliveryStatsTopology.keyOf("SMS", "DELEIVERED", "HIGH");
+		// Each task counts the records of its own partitions
+		when(store.fetch(eq(delivered), eq(delivered), any(Instant.class), any(Instant.class))).thenReturn(iterator(
+				count(delivered, MINUTE, 2), count(delivered, MINUTE.plusSeconds(60), 1), count(delivered, MINUTE, 3)));
+
+		List<DeliveryStats> stats = statsService.getStats(MINUTE, MINUTE.plusSeconds(120), "sms", "DELEIVERED", "high");
+
+		assertEquals(2, stats.size());
+		assertEquals(MINUTE.toEpochMilli(), stats.get(0).getMinute());
+		assertEquals(5, stats.get(0).getCount());
+		assertEquals(1, stats.get(1).getCount());
+	}
+
+	@Test
+	void filtersAndSumsEveryKeyOfTheRange() throws Exception {
+		String received = DeliveryStatsTopology.keyOf("EMAIL", "RECEIVED", "LOW");
+		String delivered = DeliveryStatsTopology.keyOf("EMAIL", "DELEIVERED", "LOW");
+		when(store.fetchAll(any(Instant.class), any(Instant.class))).thenReturn(iterator(
+				count(received, MINUTE, 4), count(delivered, MINUTE, 1), count(received, MINUTE, 6)));
+
+		List<DeliveryStats> stats = statsService.getStats(MINUTE, MINUTE.plusSeconds(60), "EMAIL", "RECEIVED", null);
+
+		assertEquals(1, stats.size());
+		assertEquals("RECEIVED", stats.get(0).getStatus());
+		assertEquals(10, stats.get(0).getCount());
+	}
+
+	private static KeyValue<Windowed<String>, Long> count(String key, Instant minute, long count) {
+		return KeyValue.pair(new Windowed<>(key, new TimeWindow(minute.toEpochMilli(), minute.plusSeconds(60).toEpochMilli())), count);
+	}
+
+	@SafeVarargs
+	private static KeyValueIterator<Windowed<String>, Long> iterator(KeyValue<Windowed<String>, Long>... counts) {
+		Iterator<KeyValue<Windowed<String>, Long>> iterator = List.of(counts).iterator();
+		return new KeyValueIterator<>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public KeyValue<Windowed<String>, Long> next() {
+				return iterator.next();
+			}
+
+			@Override
+			public Windowed<String> peekNextKey() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+}
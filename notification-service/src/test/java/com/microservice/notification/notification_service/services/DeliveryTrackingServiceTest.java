@@ -0,0 +1,101 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.CampaignStatusEnum;
+import com.microservice.notification.notification_service.dao.CampaignRepository;
+import com.microservice.notification.notification_service.entities.Campaign;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeliveryTrackingServiceTest {
+
+	@TempDir
+	Path snapshotDirectory;
+
+	private CampaignRepository campaignRepository;
+	private DeliveryTrackingService trackingService;
+
+	@BeforeEach
+	void setUp() {
+		campaignRepository = mock(CampaignRepository.class);
+		when(campaignRepository.findByCampaignId("unknown")).thenReturn(Optional.empty());
+		trackingService = new DeliveryTrackingService(campaignRepository, snapshotDirectory.toString(), Duration.ZERO);
+	}
+
+	@Test
+	void ignoresStatusesOfUnknownCampaigns() {
+		trackingService.recordStatus(notification("unknown", 0), "DELEIVERED");
+		trackingService.markRetried("unknown", 0);
+
+		assertThrows(InvalidRequestException.class, () -> trackingService.getCounts("unknown"));
+	}
+
+	@Test
+	void evictsFinishedCampaignsAndTheirSnapshots() throws InterruptedException {
+		Campaign campaign = campaign(CampaignStatusEnum.COMPLETED.name(), 2);
+		when(campaignRepository.findByCampaignId("campaign")).thenReturn(Optional.of(campaign));
+		trackingService.recordStatus(notification("campaign", 0), "DELEIVERED");
+		trackingService.recordStatus(notification("campaign", 1), "UNDELEIVERED");
+		trackingService.snapshot();
+		assertTrue(Files.exists(snapshotDirectory.resolve("campaign.bitmaps")));
+
+		Thread.sleep(5);
+		trackingService.evictFinished();
+
+		assertThrows(InvalidRequestException.class, () -> trackingService.getCounts("campaign"));
+		assertFalse(Files.exists(snapshotDirectory.resolve("campaign.bitmaps")));
+	}
+
+	@Test
+	void keepsCampaignsWithRecipientsStillInFlight() throws InterruptedException {
+		Campaign campaign = campaign(CampaignStatusEnum.COMPLETED.name(), 2);
+		when(campaignRepository.findByCampaignId("campaign")).thenReturn(Optional.of(campaign));
+		trackingService.recordStatus(notification("campaign", 0), "DELEIVERED");
+		trackingService.recordStatus(notification("campaign", 1), "RECEIVED");
+
+		Thread.sleep(5);
+		trackingService.evictFinished();
+
+		assertEquals(1L, trackingService.getCounts("campaign").get("DELEIVERED"));
+	}
+
+	@Test
+	void ignoresOrdinalsOutsideTheBitmapsOfATrackedCampaign() throws InvalidRequestException {
+		Campaign campaign = campaign(CampaignStatusEnum.EXPANDING.name(), 2);
+		when(campaignRepository.findByCampaignId("campaign")).thenReturn(Optional.of(campaign));
+		trackingService.recordStatus(notification("campaign", 0), "UNDELEIVERED");
+
+		trackingService.recordStatus(notification("campaign", 1L << 32), "UNDELEIVERED");
+		trackingService.markRetried("campaign", -1);
+
+		assertEquals(1L, trackingService.getCounts("campaign").get("UNDELEIVERED"));
+		assertEquals(0L, trackingService.getCounts("campaign").get("RETRIED"));
+	}
+
+	private static Campaign campaign(String status, long publishedCount) {
+		Campaign campaign = new Campaign();
+		campaign.setCampaignId("campaign");
+		campaign.setStatus(status);
+		campaign.setTotalRecipients(publishedCount);
+		campaign.setPublishedCount(publishedCount);
+		return campaign;
+	}
+
+	private static NotificationRequest notification(String campaignId, long ordinal) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setCampaignId(campaignId);
+		notification.setRecipientOrdinal(ordinal);
+		return notification;
+	}
+}
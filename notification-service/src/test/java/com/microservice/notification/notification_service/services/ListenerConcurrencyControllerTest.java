@@ -0,0 +1,106 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.metrics.ConsumerLagReader;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.utils.KeyOrderedExecutor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ListenerConcurrencyControllerTest {
+
+	private ConcurrentMessageListenerContainer<?, ?> container;
+	private ConsumerLagReader lagReader;
+	private KeyOrderedExecutor smsExecutor;
+	private StatusWriteBehind statusWriteBehind;
+	private ListenerConcurrencyController controller;
+
+	@BeforeEach
+	void setUp() throws InterruptedException {
+		container = mock(ConcurrentMessageListenerContainer.class);
+		when(container.isRunning()).thenReturn(true);
+		when(container.isContainerPaused()).thenReturn(true);
+		when(container.getConcurrency()).thenReturn(1);
+		when(container.getAssignedPartitions()).thenReturn(List.of(new TopicPartition("SMS_TOPIC", 0),
+				new TopicPartition("SMS_TOPIC", 1), new TopicPartition("SMS_TOPIC", 2)));
+		KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+		when(listenerRegistry.getListenerContainer(NotificationConstants.SMS_LISTENER_ID)).thenReturn(container);
+		lagReader = mock(ConsumerLagReader.class);
+		smsExecutor = mock(KeyOrderedExecutor.class);
+		when(smsExecutor.getParallelism()).thenReturn(1);
+		when(smsExecutor.awaitIdle(any())).thenReturn(true);
+		statusWriteBehind = mock(StatusWriteBehind.class);
+		when(statusWriteBehind.drain(any())).thenReturn(true);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		Timer consume = Timer.builder(NotificationMetrics.CONSUME).tag("channel", "SMS").register(meterRegistry);
+		for (int i = 0; i < 10; i++) {
+			consume.record(Duration.ofMillis(10));
+		}
+		controller = new ListenerConcurrencyController(listenerRegistry, lagReader, meterRegistry, statusWriteBehind,
+				smsExecutor, mock(KeyOrderedExecutor.class), true, 1, 6, Duration.ofSeconds(1), Duration.ofMinutes(2),
+				Duration.ofSeconds(1));
+	}
+
+	@Test
+	void addsAConsumerOnceTheFetchedRecordsAreDrained() throws InterruptedException {
+		// 1000 records at 10 ms each take 10 s to drain, beyond the 1 s target
+		when(lagReader.totalLag(container)).thenReturn(1000L);
+
+		controller.adjustConcurrency();
+
+		InOrder inOrder = inOrder(container, smsExecutor, statusWriteBehind);
+		inOrder.verify(container).pause();
+		inOrder.verify(smsExecutor).awaitIdle(any());
+		inOrder.verify(statusWriteBehind).drain(any());
+		inOrder.verify(container).stop();
+		inOrder.verify(container).setConcurrency(2);
+		inOrder.verify(container).resume();
+		inOrder.verify(container).start();
+	}
+
+	@Test
+	void keepsTheConcurrencyWhenTheListenerDoesNotDrainInTime() throws InterruptedException {
+		when(lagReader.totalLag(container)).thenReturn(1000L);
+		when(smsExecutor.awaitIdle(any())).thenReturn(false);
+
+		controller.adjustConcurrency();
+
+		verify(container, never()).stop();
+		verify(container, never()).setConcurrency(anyInt());
+		verify(container).resume();
+	}
+
+	@Test
+	void neverRunsMoreConsumersThanAssignedPartitions() {
+		when(container.getAssignedPartitions()).thenReturn(List.of(new TopicPartition("SMS_TOPIC", 0)));
+		when(lagReader.totalLag(container)).thenReturn(1000L);
+
+		controller.adjustConcurrency();
+
+		verify(container, never()).pause();
+	}
+
+	@Test
+	void holdsTheConcurrencyDuringTheCooldownOfTheLastChange() {
+		when(lagReader.totalLag(container)).thenReturn(1000L);
+		controller.adjustConcurrency();
+		when(container.getConcurrency()).thenReturn(2);
+		when(lagReader.totalLag(container)).thenReturn(0L);
+
+		controller.adjustConcurrency();
+
+		verify(container, never()).setConcurrency(1);
+	}
+}
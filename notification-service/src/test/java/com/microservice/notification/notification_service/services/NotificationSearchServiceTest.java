@@ -0,0 +1,132 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationCurrentStatusRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.dao.NotificationStatusEventRepository;
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationSearchCriteria;
+import com.microservice.notification.notification_service.entities.NotificationSearchPage;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class NotificationSearchServiceTest {
+
+	@Autowired
+	private NotificationRepository repository;
+
+	@Autowired
+	private NotificationStatusEventRepository eventRepository;
+
+	@Autowired
+	private NotificationCurrentStatusRepository currentStatusRepository;
+
+	private NotificationSearchService searchService;
+
+	@BeforeEach
+	void setUp() {
+		searchService = new NotificationSearchService(repository,
+				new StatusHistoryService(repository, eventRepository, currentStatusRepository), 2);
+	}
+
+	@Test
+	void filtersOnTheCurrentStatusFromTheStatusView() throws Exception {
+		NotificationRequest delivered = save("SMS");
+		NotificationRequest redriven = save("SMS");
+		NotificationRequest unmoved = save("EMAIL");
+		NotificationRequest failed = save("EMAIL");
+		moveTo(delivered, "DELEIVERED");
+		moveTo(redriven, "RECEIVED");
+		moveTo(failed, "UNDELEIVERED");
+
+		assertEquals(List.of(delivered.getIdentifier()), identifiers(criteria("deleivered", null)));
+		assertEquals(List.of(redriven.getIdentifier(), unmoved.getIdentifier()), identifiers(criteria("RECEIVED", null)));
+		assertEquals(List.of(), identifiers(criteria("UNDELEIVERED", "SMS")));
+		assertEquals("UNDELEIVERED", searchService.search(criteria("UNDELEIVERED", "EMAIL"), 2)
+				.getNotifications().get(0).getStatus());
+	}
+
+	@Test
+	void pagesThroughNotificationsCreatedInTheSameMillisecond() throws Exception {
+		NotificationRequest first = createdAt(save("SMS"), 1_000L);
+		NotificationRequest second = createdAt(save("SMS"), 2_000L);
+		NotificationRequest third = createdAt(save("SMS"), 2_000L);
+		NotificationRequest fourth = createdAt(save("SMS"), 2_000L);
+
+		List<String> identifiers = new ArrayList<>();
+		NotificationSearchCriteria criteria = criteria(null, null);
+		NotificationSearchPage page;
+		do {
+			page = searchService.search(criteria, 2);
+			page.getNotifications().forEach(notification -> identifiers.add(notification.getIdentifier()));
+			criteria.setAfterCreatedAt(page.getNextAfterCreatedAt());
+			criteria.setAfterId(page.getNextAfterId() == null ? 0 : page.getNextAfterId());
+		} while (page.getNextAfterCreatedAt() != null);
+
+		assertEquals(List.of(first.getIdentifier(), second.getIdentifier(), third.getIdentifier(), fourth.getIdentifier()),
+				identifiers);
+	}
+
+	@Test
+	void rejectsIncompleteCursorsAndOversizedPages() {
+		NotificationSearchCriteria criteria = criteria(null, null);
+		assertThrows(InvalidRequestException.class, () -> searchService.search(criteria, 3));
+		assertThrows(InvalidRequestException.class, () -> searchService.search(criteria, 0));
+		criteria.setAfterId(1);
+		assertThrows(InvalidRequestException.class, () -> searchService.search(criteria, 2));
+	}
+
+	@Test
+	void streamsEveryPageAsNewlineDelimitedJson() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			save("EMAIL");
+		}
+		save("SMS");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		searchService.stream(criteria(null, "EMAIL"), out);
+
+		assertEquals(5, out.toString(StandardCharsets.UTF_8).lines().count());
+	}
+
+	private NotificationRequest save(String channel) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier(TimeOrderedIds.next());
+		notification.setNotificationType(channel);
+		notification.setStatus("RECEIVED");
+		return repository.saveAndFlush(notification);
+	}
+
+	private NotificationRequest createdAt(NotificationRequest notification, long createdAt) {
+		notification.setCreatedAt(createdAt);
+		return repository.saveAndFlush(notification);
+	}
+
+	private void moveTo(NotificationRequest notification, String status) {
+		currentStatusRepository.saveAndFlush(new NotificationCurrentStatus(notification.getIdentifier(),
+				notification.getNotificationType(), status, null, System.currentTimeMillis()));
+	}
+
+	private static NotificationSearchCriteria criteria(String status, String channel) {
+		NotificationSearchCriteria criteria = new NotificationSearchCriteria();
+		criteria.setStatus(status);
+		criteria.setNotificationType(channel);
+		return criteria;
+	}
+
+	private List<String> identifiers(NotificationSearchCriteria criteria) throws Exception {
+		return searchService.search(criteria, 2).getNotifications().stream().map(NotificationRequest::getIdentifier).toList();
+	}
+}
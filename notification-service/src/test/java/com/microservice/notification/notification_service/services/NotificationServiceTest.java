@@ -0,0 +1,66 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationCurrentStatusRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationCurrentStatus;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.exception.InvalidRequestException;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class NotificationServiceTest {
+
+	@Autowired
+	private NotificationRepository repository;
+
+	@Autowired
+	private NotificationCurrentStatusRepository currentStatusRepository;
+
+	private NotificationService notificationService;
+
+	@BeforeEach
+	void setUp() {
+		notificationService = new NotificationService(null, repository, null, null, null, null, null, null, null, null, 3);
+	}
+
+	@Test
+	void looksUpTheCurrentStatusOfEachKnownIdentifierInRequestOrder() throws InvalidRequestException {
+		NotificationRequest received = save();
+		NotificationRequest delivered = save();
+		currentStatusRepository.saveAndFlush(new NotificationCurrentStatus(delivered.getIdentifier(), "SMS", "DELEIVERED",
+				null, System.currentTimeMillis()));
+
+		Map<String, String> statuses = notificationService.getNotificationStatusesByIds(Arrays.asList(delivered.getIdentifier(),
+				"unknown", received.getIdentifier(), delivered.getIdentifier(), null));
+
+		assertEquals(List.of(delivered.getIdentifier(), received.getIdentifier()), List.copyOf(statuses.keySet()));
+		assertEquals("DELEIVERED", statuses.get(delivered.getIdentifier()));
+		assertEquals("RECEIVED", statuses.get(received.getIdentifier()));
+	}
+
+	@Test
+	void rejectsEmptyAndOversizedLookups() {
+		assertThrows(InvalidRequestException.class, () -> notificationService.getNotificationStatusesByIds(List.of()));
+		assertThrows(InvalidRequestException.class, () -> notificationService.getNotificationStatusesByIds(List.of("")));
+		assertThrows(InvalidRequestException.class,
+				() -> notificationService.getNotificationStatusesByIds(List.of("a", "b", "c", "d")));
+	}
+
+	private NotificationRequest save() {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier(TimeOrderedIds.next());
+		notification.setNotificationType("SMS");
+		notification.setStatus("RECEIVED");
+		return repository.saveAndFlush(notification);
+	}
+}
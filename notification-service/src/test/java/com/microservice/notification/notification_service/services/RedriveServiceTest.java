@@ -0,0 +1,86 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.RedriveProperties;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.dao.NotificationStatusEventRepository;
+import com.microservice.notification.notification_service.metrics.ConsumerLagReader;
+import com.microservice.notification.notification_service.producers.NotificationProducer;
+import com.microservice.notification.notification_service.storage.PublishSpool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedriveServiceTest {
+
+	private NotificationRepository repository;
+	private PublishSpool spool;
+	private KafkaListenerEndpointRegistry listenerRegistry;
+	private ConsumerLagReader lagReader;
+	private MessageListenerContainer smsContainer;
+	private MessageListenerContainer emailContainer;
+	private RedriveService redriveService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(NotificationRepository.class);
+		when(repository.findUnmovedCreatedBetween(any(), any(), anyLong(), anyLong(), anyInt(), any())).thenReturn(List.of());
+		when(repository.findInStatusBetween(any(), any(), anyLong(), anyLong(), anyInt(), any())).thenReturn(List.of());
+		spool = mock(PublishSpool.class);
+		when(spool.isEmpty()).thenReturn(true);
+		listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+		lagReader = mock(ConsumerLagReader.class);
+		smsContainer = runningContainer(NotificationConstants.SMS_LISTENER_ID);
+		emailContainer = runningContainer(NotificationConstants.EMAIL_LISTENER_ID);
+		redriveService = new RedriveService(repository, mock(NotificationStatusEventRepository.class),
+				mock(NotificationProducer.class), mock(ContentStore.class), mock(ClaimCheckService.class),
+				mock(StatusWriteBehind.class), mock(DeliveryTrackingService.class), new RedriveProperties(),
+				mock(ThreadPoolTaskExecutor.class), spool, listenerRegistry, lagReader);
+	}
+
+	@Test
+	void scansOnlyChannelsWithACaughtUpListener() {
+		when(lagReader.totalLag(emailContainer)).thenReturn(12L);
+
+		redriveService.reap();
+
+		verify(repository).findUnmovedCreatedBetween(eq("RECEIVED"), eq("SMS"), anyLong(), anyLong(), anyInt(), any());
+		verify(repository, never()).findUnmovedCreatedBetween(any(), eq("EMAIL"), anyLong(), anyLong(), anyInt(), any());
+		// No listener consumes WhatsApp notifications, so re-sending them cannot help
+		verify(repository, never()).findUnmovedCreatedBetween(any(), eq("WHATSAPP"), anyLong(), anyLong(), anyInt(), any());
+	}
+
+	@Test
+	void skipsAChannelWhoseListenerIsStopped() {
+		when(smsContainer.isRunning()).thenReturn(false);
+
+		redriveService.reap();
+
+		verify(repository, never()).findUnmovedCreatedBetween(any(), eq("SMS"), anyLong(), anyLong(), anyInt(), any());
+		verify(repository).findUnmovedCreatedBetween(eq("RECEIVED"), eq("EMAIL"), anyLong(), anyLong(), anyInt(), any());
+	}
+
+	@Test
+	void skipsTheScanWhileMessagesWaitInTheSpool() {
+		when(spool.isEmpty()).thenReturn(false);
+		when(spool.size()).thenReturn(3L);
+
+		redriveService.reap();
+
+		verifyNoInteractions(repository, lagReader);
+	}
+
+	private MessageListenerContainer runningContainer(String listenerId) {
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		when(container.isRunning()).thenReturn(true);
+		when(listenerRegistry.getListenerContainer(listenerId)).thenReturn(container);
+		return container;
+	}
+}
@@ -0,0 +1,94 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.configs.RetentionProperties;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.storage.NotificationArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RetentionServiceTest {
+
+	private NotificationRepository repository;
+	private StatusHistoryService statusHistoryService;
+	private NotificationArchive archive;
+	private ContentStore contentStore;
+	private ClaimCheckService claimCheckService;
+	private RetentionProperties properties;
+	private RetentionService retentionService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(NotificationRepository.class);
+		statusHistoryService = mock(StatusHistoryService.class);
+		archive = mock(NotificationArchive.class);
+		contentStore = mock(ContentStore.class);
+		claimCheckService = mock(ClaimCheckService.class);
+		properties = new RetentionProperties();
+		properties.setBatchSize(2);
+		properties.setBatchPause(Duration.ZERO);
+		properties.setWindows(Map.of("deleivered", Duration.ofDays(1)));
+		ThreadPoolTaskExecutor retentionExecutor = mock(ThreadPoolTaskExecutor.class);
+		doAnswer(invocation -> {
+			((Runnable) invocation.getArgument(0)).run();
+			return null;
+		}).when(retentionExecutor).execute(any(Runnable.class));
+		retentionService = new RetentionService(repository, statusHistoryService, archive, contentStore, claimCheckService,
+				properties, retentionExecutor);
+	}
+
+	@Test
+	void purgesExpiredNotificationsInKeysetBatches() {
+		NotificationRequest first = notification(1, "hash");
+		NotificationRequest second = notification(2, "hash");
+		NotificationRequest third = notification(3, null);
+		when(repository.findExpired(eq("DELEIVERED"), eq("SMS"), anyLong(), eq(0), any())).thenReturn(List.of(first, second));
+		when(repository.findExpired(eq("DELEIVERED"), eq("SMS"), anyLong(), eq(2), any())).thenReturn(List.of(third));
+
+		retentionService.purgeExpired();
+
+		verify(repository).deleteByIdIn(List.of(1, 2));
+		verify(repository).deleteByIdIn(List.of(3));
+		verify(statusHistoryService).deleteHistory(List.of("identifier-1", "identifier-2"));
+		verify(claimCheckService).discard(third);
+		verify(contentStore).sweep(Set.of("hash"));
+		// Undelivered notifications have no retention window and are kept
+		verify(repository, never()).findExpired(eq("UNDELEIVERED"), any(), anyLong(), anyInt(), any());
+		verifyNoInteractions(archive);
+	}
+
+	@Test
+	void archivesABatchBeforeDeletingIt() throws IOException {
+		properties.setArchiveEnabled(true);
+		NotificationRequest notification = notification(1, "hash");
+		when(repository.findExpired(eq("DELEIVERED"), eq("EMAIL"), anyLong(), eq(0), any())).thenReturn(List.of(notification));
+
+		retentionService.purgeExpired();
+
+		InOrder inOrder = inOrder(statusHistoryService, contentStore, archive, repository);
+		inOrder.verify(statusHistoryService).applyCurrentStatus(List.of(notification));
+		inOrder.verify(contentStore).hydrate(notification);
+		inOrder.verify(archive).append(List.of(notification));
+		inOrder.verify(repository).deleteByIdIn(List.of(1));
+	}
+
+	private static NotificationRequest notification(int id, String contentHash) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setId(id);
+		notification.setIdentifier("identifier-" + id);
+		notification.setNotificationType("SMS");
+		notification.setContentHash(contentHash);
+		return notification;
+	}
+}
@@ -0,0 +1,44 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.dao.NotificationCurrentStatusRepository;
+import com.microservice.notification.notification_service.dao.NotificationRepository;
+import com.microservice.notification.notification_service.dao.NotificationStatusEventRepository;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.entities.NotificationStatusEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatusHistoryServiceTest {
+
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final NotificationStatusEventRepository eventRepository = mock(NotificationStatusEventRepository.class);
+	private final StatusHistoryService historyService = new StatusHistoryService(notificationRepository, eventRepository,
+			mock(NotificationCurrentStatusRepository.class));
+
+	@Test
+	void opensTheHistoryWithTheCreationFollowedByEveryTransitionInOrder() throws Exception {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier("id");
+		// A status overlaid from the view must not leak into the creation entry
+		notification.setStatus("DELEIVERED");
+		notification.setCreatedAt(1_000L);
+		when(notificationRepository.findByIdentifier("id")).thenReturn(Optional.of(notification));
+		when(eventRepository.findByIdentifierOrderByIdAsc("id")).thenReturn(List.of(
+				new NotificationStatusEvent(1, "id", "UNDELEIVERED", "Provider error", 2_000L, null, null, null),
+				new NotificationStatusEvent(2, "id", "RECEIVED", "Re-driven", 3_000L, null, null, null),
+				new NotificationStatusEvent(3, "id", "DELEIVERED", null, 4_000L, null, null, null)));
+
+		List<NotificationStatusEvent> history = historyService.getHistory("id");
+
+		assertEquals(List.of("RECEIVED", "UNDELEIVERED", "RECEIVED", "DELEIVERED"),
+				history.stream().map(NotificationStatusEvent::getStatus).toList());
+		assertEquals("Received", history.get(0).getReason());
+		assertEquals(List.of(1_000L, 2_000L, 3_000L, 4_000L), history.stream().map(NotificationStatusEvent::getOccurredAt).toList());
+	}
+}
@@ -0,0 +1,70 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusStreamServiceTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private StatusStreamService statusStreamService;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		// One sender and room for a single queued event per subscription
+		statusStreamService = new StatusStreamService(meterRegistry, 60_000L, 1, 1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		statusStreamService.shutdown();
+	}
+
+	@Test
+	void evictsOnlyTheSubscriptionThatFellBehind() {
+		SseEmitter slow = statusStreamService.subscribe("alice", List.of("first"));
+		statusStreamService.subscribe("bob", List.of("second"));
+
+		// Holding the emitter stalls its sender, as a client that stopped reading would
+		synchronized (slow) {
+			for (int i = 0; i < 3; i++) {
+				statusStreamService.publish(notification("first", "alice"), "DELEIVERED");
+			}
+			statusStreamService.publish(notification("second", "bob"), "DELEIVERED");
+		}
+
+		assertEquals(1.0, meterRegistry.counter("notification.status_stream.dropped").count());
+		assertEquals(1.0, meterRegistry.counter("notification.status_stream.evicted").count());
+	}
+
+	@Test
+	void queuesOnlyTransitionsOfTheSubscribersOwnNotifications() {
+		SseEmitter byIdentifier = statusStreamService.subscribe("alice", List.of("shared"));
+		SseEmitter bySubject = statusStreamService.subscribe("alice", List.of());
+
+		synchronized (byIdentifier) {
+			synchronized (bySubject) {
+				for (int i = 0; i < 3; i++) {
+					statusStreamService.publish(notification("shared", "bob"), "DELEIVERED");
+				}
+			}
+		}
+
+		assertEquals(0.0, meterRegistry.counter("notification.status_stream.dropped").count());
+	}
+
+	private static NotificationRequest notification(String identifier, String owner) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier(identifier);
+		notification.setOwner(owner);
+		return notification;
+	}
+}
@@ -0,0 +1,126 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.metrics.NotificationMetrics;
+import com.microservice.notification.notification_service.producers.StatusEventPublisher;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StatusWriteBehindTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private StatusWriteBehind writeBehind;
+	private final List<String> completed = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE NOTIFICATION (id INT AUTO_INCREMENT PRIMARY KEY, identifier VARBINARY(16),"
+				+ " status VARCHAR(255))");
+		jdbcTemplate.execute("CREATE TABLE NOTIFICATION_STATUS_EVENT (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+				+ " identifier VARBINARY(16), status VARCHAR(255), reason VARCHAR(255), occurred_at BIGINT, enqueued_at BIGINT,"
+				+ " consumed_at BIGINT, provider_accepted_at BIGINT,"
+				+ " CONSTRAINT NO_POISON CHECK (reason IS NULL OR reason <> 'poison'))");
+		jdbcTemplate.execute("CREATE TABLE NOTIFICATION_CURRENT_STATUS (identifier VARBINARY(16) PRIMARY KEY,"
+				+ " notification_type VARCHAR(255), status VARCHAR(255), reason VARCHAR(255), updated_at BIGINT)");
+		// A long interval and a large batch keep the background flusher out of the way of the explicit flushes
+		writeBehind = new StatusWriteBehind(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+				new NotificationMetrics(new SimpleMeterRegistry()), mock(StatusEventPublisher.class), 2, 3_600_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		writeBehind.shutdown();
+	}
+
+	@Test
+	void runsCallbacksOnlyOnceTheTransitionIsCommitted() {
+		NotificationRequest notification = notification();
+		synchronized (writeBehind) {
+			writeBehind.enqueue(notification, "DELEIVERED", null, () -> {
+				// Read from another connection, so only committed rows are visible
+				completed.add(jdbcTemplate.queryForObject("SELECT status FROM NOTIFICATION_CURRENT_STATUS", String.class));
+			});
+			assertTrue(completed.isEmpty());
+			writeBehind.flush();
+		}
+		assertEquals(List.of("DELEIVERED"), completed);
+		assertEquals("DELEIVERED", statusOf(notification));
+		// The notification row is never updated
+		assertEquals("RECEIVED", jdbcTemplate.queryForObject("SELECT status FROM NOTIFICATION", String.class));
+	}
+
+	@Test
+	void coalescesTransitionsOfANotificationWithinOneWindow() {
+		NotificationRequest notification = notification();
+		synchronized (writeBehind) {
+			writeBehind.enqueue(notification, "RECEIVED", "Re-driven", () -> completed.add("first"));
+			writeBehind.enqueue(notification, "UNDELEIVERED", "Provider error", () -> completed.add("second"));
+			writeBehind.flush();
+		}
+		assertEquals(List.of("first", "second"), completed);
+		assertEquals(List.of("RECEIVED", "UNDELEIVERED"),
+				jdbcTemplate.queryForList("SELECT status FROM NOTIFICATION_STATUS_EVENT ORDER BY id", String.class));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM NOTIFICATION_CURRENT_STATUS", Integer.class));
+		assertEquals("UNDELEIVERED", statusOf(notification));
+	}
+
+	@Test
+	void requeuesTheFailedChunkAndEverythingAfterIt() {
+		NotificationRequest first = notification();
+		NotificationRequest second = notification();
+		NotificationRequest poisoned = notification();
+		NotificationRequest last = notification();
+		synchronized (writeBehind) {
+			writeBehind.enqueue(first, "DELEIVERED", null, () -> completed.add("first"));
+			writeBehind.enqueue(second, "DELEIVERED", null, () -> completed.add("second"));
+			writeBehind.enqueue(poisoned, "UNDELEIVERED", "poison", () -> completed.add("poisoned"));
+			writeBehind.enqueue(last, "DELEIVERED", null, () -> completed.add("last"));
+			writeBehind.flush();
+			// The first chunk was committed, the second one failed as a whole
+			assertEquals(List.of("first", "second"), completed);
+			assertEquals("RECEIVED", statusOf(last));
+
+			// A newer transition of a requeued notification is written after the requeued one
+			writeBehind.enqueue(poisoned, "DELEIVERED", null, () -> completed.add("poisoned again"));
+			jdbcTemplate.execute("ALTER TABLE NOTIFICATION_STATUS_EVENT DROP CONSTRAINT NO_POISON");
+			writeBehind.flush();
+		}
+		assertEquals(List.of("first", "second", "poisoned", "poisoned again", "last"), completed);
+		assertEquals(List.of("UNDELEIVERED", "DELEIVERED"), jdbcTemplate.queryForList(
+				"SELECT status FROM NOTIFICATION_STATUS_EVENT WHERE identifier = ? ORDER BY id", String.class,
+				(Object) TimeOrderedIds.toBytes(poisoned.getIdentifier())));
+		assertEquals("DELEIVERED", statusOf(poisoned));
+		assertEquals("DELEIVERED", statusOf(last));
+	}
+
+	private NotificationRequest notification() {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier(TimeOrderedIds.next());
+		notification.setNotificationType("SMS");
+		notification.setPriority("HIGH");
+		jdbcTemplate.update("INSERT INTO NOTIFICATION (identifier, status) VALUES (?, 'RECEIVED')",
+				(Object) TimeOrderedIds.toBytes(notification.getIdentifier()));
+		return notification;
+	}
+
+	private String statusOf(NotificationRequest notification) {
+		return jdbcTemplate.queryForObject("SELECT COALESCE(s.status, n.status) FROM NOTIFICATION n"
+				+ " LEFT JOIN NOTIFICATION_CURRENT_STATUS s ON s.identifier = n.identifier WHERE n.identifier = ?", String.class,
+				(Object) TimeOrderedIds.toBytes(notification.getIdentifier()));
+	}
+}
@@ -0,0 +1,62 @@
+package com.microservice.notification.notification_service.services;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookDispatcherTest {
+
+	private HttpServer server;
+	private final AtomicInteger requests = new AtomicInteger();
+	private WebhookDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/hook", exchange -> {
+			requests.incrementAndGet();
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		// The periodic flush is left to the test
+		dispatcher = new WebhookDispatcher(10, 500, 3, Duration.ofSeconds(1), Duration.ofMillis(10), 60_000L, Set.of());
+	}
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.shutdown();
+		server.stop(0);
+	}
+
+	@Test
+	void neverPostsToCallbacksOnTheLocalNetwork() throws InterruptedException {
+		int port = server.getAddress().getPort();
+		dispatcher.enqueue(notification("http://127.0.0.1:" + port + "/hook"), "DELEIVERED");
+		dispatcher.enqueue(notification("http://localhost:" + port + "/hook"), "DELEIVERED");
+		dispatcher.enqueue(notification("http://[::ffff:127.0.0.1]:" + port + "/hook"), "DELEIVERED");
+
+		dispatcher.flush();
+		Thread.sleep(200);
+
+		assertEquals(0, requests.get());
+	}
+
+	private static NotificationRequest notification(String callbackUrl) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier("identifier");
+		notification.setCallbackUrl(callbackUrl);
+		return notification;
+	}
+}
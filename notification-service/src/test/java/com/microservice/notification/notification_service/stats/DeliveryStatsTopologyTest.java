@@ -0,0 +1,116 @@
+package com.microservice.notification.notification_service.stats;
+
+import com.google.gson.Gson;
+import com.microservice.notification.notification_service.constants.NotificationConstants;
+import com.microservice.notification.notification_service.entities.StatusTransitionEvent;
+import com.microservice.notification.notification_service.utils.PipelineHeaders;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryStatsTopologyTest {
+
+	private static final Instant MINUTE = Instant.parse("2024-01-01T10:00:00Z");
+
+	private final Gson gson = new Gson();
+	private TopologyTestDriver driver;
+	private TestInputTopic<String, String> sms;
+	private TestInputTopic<String, String> status;
+
+	@BeforeEach
+	void setUp() {
+		StreamsBuilder builder = new StreamsBuilder();
+		DeliveryStatsTopology.build(builder, Duration.ofMinutes(5), Duration.ofDays(1));
+		Properties properties = new Properties();
+		properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "delivery-stats-test");
+		driver = new TopologyTestDriver(builder.build(), properties);
+		sms = driver.createInputTopic(NotificationConstants.SMS_KAFKA_TOPIC, new StringSerializer(), new StringSerializer());
+		status = driver.createInputTopic(NotificationConstants.STATUS_KAFKA_TOPIC, new StringSerializer(), new StringSerializer());
+	}
+
+	@AfterEach
+	void tearDown() {
+		driver.close();
+	}
+
+	@Test
+	void countsReceivedAndTransitionsPerMinute() {
+		sms.pipeInput("+14155550100", "{\"notificationType\":\"SMS\",\"priority\":\"high\"}", MINUTE.plusSeconds(5));
+		sms.pipeInput("+14155550101", "{\"notificationType\":\"SMS\",\"priority\":\"high\"}", MINUTE.plusSeconds(50));
+		sms.pipeInput("+14155550102", "{\"notificationType\":\"SMS\",\"priority\":\"high\"}", MINUTE.plusSeconds(70));
+		status.pipeInput("id-1", event("DELEIVERED"), MINUTE.plusSeconds(20));
+		status.pipeInput("id-2", event("DELEIVERED"), MINUTE.plusSeconds(30));
+
+		WindowStore<String, Long> store = driver.getWindowStore(DeliveryStatsTopology.STORE);
+		String received = DeliveryStatsTopology.keyOf("SMS", "RECEIVED", "HIGH");
+		String delivered = DeliveryStatsTopology.keyOf("SMS", "DELEIVERED", "HIGH");
+		assertEquals(2L, store.fetch(received, MINUTE.toEpochMilli()));
+		assertEquals(1L, store.fetch(received, MINUTE.plusSeconds(60).toEpochMilli()));
+		assertEquals(2L, store.fetch(delivered, MINUTE.toEpochMilli()));
+	}
+
+	@Test
+	void skipsRedrivesAndMalformedRecords() {
+		RecordHeaders headers = new RecordHeaders();
+		headers.add(new RecordHeader(PipelineHeaders.REDRIVEN, new byte[]{'1'}));
+		sms.pipeInput(new TestRecord<>("+14155550100",
+				"{\"notificationType\":\"SMS\",\"priority\":\"low\"}", headers, MINUTE.plusSeconds(5)));
+		sms.pipeInput("+14155550101", "not json", MINUTE.plusSeconds(6));
+		status.pipeInput("id-1", event("RECEIVED"), MINUTE.plusSeconds(7));
+		status.pipeInput("id-1", "{", MINUTE.plusSeconds(8));
+		sms.pipeInput("+14155550102", "{\"notificationType\":\"SMS\"}", MINUTE.plusSeconds(9));
+
+		WindowStore<String, Long> store = driver.getWindowStore(DeliveryStatsTopology.STORE);
+		assertNull(store.fetch(DeliveryStatsTopology.keyOf("SMS", "RECEIVED", "LOW"), MINUTE.toEpochMilli()));
+		assertEquals(1L, store.fetch(DeliveryStatsTopology.keyOf("SMS", "RECEIVED", null), MINUTE.toEpochMilli()));
+	}
+
+	@Test
+	void dropsRecordsArrivingAfterTheGracePeriod() {
+		status.pipeInput("id-1", event("UNDELEIVERED"), MINUTE.plusSeconds(10));
+		status.pipeInput("id-2", event("UNDELEIVERED"), MINUTE.plus(Duration.ofMinutes(10)));
+		status.pipeInput("id-3", event("UNDELEIVERED"), MINUTE.plusSeconds(20));
+
+		WindowStore<String, Long> store = driver.getWindowStore(DeliveryStatsTopology.STORE);
+		assertEquals(1L, store.fetch(DeliveryStatsTopology.keyOf("SMS", "UNDELEIVERED", "HIGH"), MINUTE.toEpochMilli()));
+	}
+
+	@Test
+	void countsWithoutARepartitionTopic() {
+		StreamsBuilder builder = new StreamsBuilder();
+		DeliveryStatsTopology.build(builder, Duration.ofMinutes(5), Duration.ofDays(1));
+
+		// Re-keying through the broker would send every notification and transition through it twice
+		assertFalse(builder.build().describe().toString().contains("repartition"));
+	}
+
+	@Test
+	void splitsKeysIntoTheirParts() {
+		assertArrayEquals(new String[]{"EMAIL", "DELEIVERED", "OTHER"},
+				DeliveryStatsTopology.partsOf(DeliveryStatsTopology.keyOf("email", "DELEIVERED", "")));
+		assertArrayEquals(new String[]{"SMS", "RECEIVED", "HIGH"},
+				DeliveryStatsTopology.partsOf(DeliveryStatsTopology.keyOf("sms", "RECEIVED", " high")));
+		// Free-form priorities share one key instead of growing the store
+		assertEquals(DeliveryStatsTopology.keyOf("SMS", "RECEIVED", "urgent"),
+				DeliveryStatsTopology.keyOf("SMS", "RECEIVED", "whenever"));
+	}
+
+	private String event(String newStatus) {
+		return gson.toJson(new StatusTransitionEvent("id", "SMS", "HIGH", newStatus, null, 0L));
+	}
+}
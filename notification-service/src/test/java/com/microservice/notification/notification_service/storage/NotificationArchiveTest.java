@@ -0,0 +1,62 @@
+package com.microservice.notification.notification_service.storage;
+
+import com.microservice.notification.notification_service.configs.RetentionProperties;
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import com.microservice.notification.notification_service.utils.TimeOrderedIds;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationArchiveTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void findsTimeOrderedAndLegacyIdentifiersAcrossAppends() throws IOException {
+		NotificationArchive archive = archive();
+		NotificationRequest timeOrdered = notification(TimeOrderedIds.next(), 0L);
+		NotificationRequest legacy = notification(UUID.randomUUID().toString(), 3_600_000L);
+		archive.append(List.of(timeOrdered, legacy));
+		NotificationRequest later = notification(TimeOrderedIds.next(), 0L);
+		archive.append(List.of(later));
+
+		assertEquals("SMS", archive.find(timeOrdered.getIdentifier()).orElseThrow().getNotificationType());
+		assertEquals(legacy.getIdentifier(), archive.find(legacy.getIdentifier()).orElseThrow().getIdentifier());
+		assertEquals(later.getIdentifier(), archive.find(later.getIdentifier()).orElseThrow().getIdentifier());
+		assertTrue(archive.find(TimeOrderedIds.next()).isEmpty());
+		assertTrue(archive.find(UUID.randomUUID().toString()).isEmpty());
+	}
+
+	@Test
+	void partitionsTimeOrderedIdentifiersByCreationHour() throws IOException {
+		NotificationRequest notification = notification(TimeOrderedIds.next(), 0L);
+		archive().append(List.of(notification));
+
+		// The last update lies in 1970, the partition follows the creation time held in the identifier
+		try (var files = Files.list(directory)) {
+			assertTrue(files.map(file -> file.getFileName().toString()).noneMatch(name -> name.startsWith("1970")));
+		}
+	}
+
+	private NotificationArchive archive() {
+		RetentionProperties properties = new RetentionProperties();
+		properties.setArchiveDir(directory.toString());
+		return new NotificationArchive(properties);
+	}
+
+	private static NotificationRequest notification(String identifier, Long updatedAt) {
+		NotificationRequest notification = new NotificationRequest();
+		notification.setIdentifier(identifier);
+		notification.setNotificationType("SMS");
+		notification.setUpdatedAt(updatedAt);
+		return notification;
+	}
+}
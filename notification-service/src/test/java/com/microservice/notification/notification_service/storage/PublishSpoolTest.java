@@ -0,0 +1,109 @@
+package com.microservice.notification.notification_service.storage;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishSpoolTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysInOrderAcrossSegmentsAndResumesAfterRestart() throws IOException {
+		PublishSpool spool = open(DataSize.ofKilobytes(1), DataSize.ofKilobytes(64));
+		for (int i = 0; i < 40; i++) {
+			spool.append(record(i), "SMS", "HIGH");
+		}
+		assertEquals(40, spool.size());
+		assertTrue(segmentCount() > 1);
+
+		List<PublishSpool.SpooledRecord> first = spool.read(10);
+		assertEquals(10, first.size());
+		assertEquals(first.get(0).getRecord().value(), spool.read(10).get(0).getRecord().value());
+		spool.commit(first);
+		assertEquals("message-0", first.get(0).getRecord().value());
+		assertEquals("SMS", first.get(0).getChannel());
+		assertEquals("recipient-0", new String(first.get(0).getRecord().headers().lastHeader("id").value(), StandardCharsets.UTF_8));
+		spool.close();
+
+		PublishSpool reopened = open(DataSize.ofKilobytes(1), DataSize.ofKilobytes(64));
+		assertEquals(30, reopened.size());
+		int expected = 10;
+		while (!reopened.isEmpty()) {
+			List<PublishSpool.SpooledRecord> batch = reopened.read(7);
+			for (PublishSpool.SpooledRecord spooled : batch) {
+				assertEquals("message-" + expected, spooled.getRecord().value());
+				assertEquals("recipient-" + expected, spooled.getRecord().key());
+				expected++;
+			}
+			reopened.commit(batch);
+		}
+		assertEquals(40, expected);
+		assertEquals(1, segmentCount());
+		reopened.close();
+	}
+
+	@Test
+	void discardsTornRecordOnRecoveryAndRefusesAppendsWhenFull() throws IOException {
+		PublishSpool spool = open(DataSize.ofKilobytes(1), DataSize.ofKilobytes(1));
+		spool.append(record(0), "EMAIL", "LOW");
+		spool.append(record(1), "EMAIL", "LOW");
+		spool.close();
+
+		// Simulate a crash in the middle of the second record
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.filter(file -> file.getFileName().toString().endsWith(".spool")).findFirst().orElseThrow();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer length = ByteBuffer.allocate(4);
+			channel.read(length, 0);
+			int secondRecord = 8 + length.flip().getInt();
+			channel.write(ByteBuffer.wrap(new byte[]{0x7f}), secondRecord + 20);
+		}
+
+		PublishSpool recovered = open(DataSize.ofKilobytes(1), DataSize.ofKilobytes(1));
+		assertEquals(1, recovered.size());
+		assertEquals("message-0", recovered.read(10).get(0).getRecord().value());
+
+		IOException full = assertThrows(IOException.class, () -> {
+			for (int i = 2; i < 100; i++) {
+				recovered.append(record(i), "EMAIL", "LOW");
+			}
+		});
+		assertTrue(full.getMessage().contains("full"));
+		recovered.close();
+	}
+
+	private PublishSpool open(DataSize segmentSize, DataSize maxSize) throws IOException {
+		PublishSpool spool = new PublishSpool(directory.toString(), segmentSize, maxSize);
+		spool.open();
+		return spool;
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".spool")).count();
+		}
+	}
+
+	private static ProducerRecord<String, String> record(int i) {
+		return new ProducerRecord<>("topic", null, "recipient-" + i, "message-" + i,
+				List.of(new RecordHeader("id", ("recipient-" + i).getBytes(StandardCharsets.UTF_8))));
+	}
+}
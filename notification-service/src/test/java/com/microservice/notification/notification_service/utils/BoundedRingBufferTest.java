@@ -0,0 +1,88 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedRingBufferTest {
+
+	@Test
+	void rejectsWhenFullAndKeepsFifoOrderAcrossLaps() {
+		BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(6);
+		assertEquals(8, buffer.capacity());
+
+		int next = 0;
+		int expected = 0;
+		for (int lap = 0; lap < 5; lap++) {
+			while (buffer.offer(next)) {
+				next++;
+			}
+			assertEquals(8, buffer.size());
+			List<Integer> drained = new ArrayList<>();
+			assertEquals(5, buffer.drainTo(drained, 5));
+			for (int value : drained) {
+				assertEquals(expected++, value);
+			}
+		}
+		while (buffer.poll() != null) {
+			expected++;
+		}
+		assertEquals(next, expected);
+		assertEquals(0, buffer.size());
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	void deliversEveryElementExactlyOnceUnderConcurrentProducers() throws Exception {
+		int producers = 4;
+		int perProducer = 50_000;
+		BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		BitSet seen = new BitSet();
+		int received = 0;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (received < producers * perProducer && System.nanoTime() < deadline) {
+			Integer value = buffer.poll();
+			if (value == null) {
+				Thread.onSpinWait();
+				continue;
+			}
+			assertFalse(seen.get(value), "duplicate element " + value);
+			seen.set(value);
+			received++;
+		}
+		for (Future<?> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(producers * perProducer, received);
+		assertEquals(producers * perProducer, seen.cardinality());
+		assertNull(buffer.poll());
+	}
+}
@@ -0,0 +1,76 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+	@Test
+	void matchesBitSetAcrossSparseAndDenseChunks() throws IOException {
+		Random random = new Random(42);
+		CompressedBitmap failed = new CompressedBitmap();
+		CompressedBitmap retried = new CompressedBitmap();
+		BitSet expectedFailed = new BitSet();
+		BitSet expectedRetried = new BitSet();
+
+		// The first chunk becomes dense, the later ones stay sparse
+		for (int i = 0; i < 20_000; i++) {
+			int value = i < 10_000 ? random.nextInt(65_536) : random.nextInt(1_000_000);
+			failed.add(value);
+			expectedFailed.set(value);
+			if (random.nextInt(3) == 0) {
+				retried.add(value);
+				expectedRetried.set(value);
+			}
+		}
+		for (int i = 0; i < 5_000; i++) {
+			int value = random.nextInt(1_000_000);
+			failed.remove(value);
+			expectedFailed.clear(value);
+		}
+
+		BitSet expectedPending = (BitSet) expectedFailed.clone();
+		expectedPending.andNot(expectedRetried);
+		BitSet expectedBoth = (BitSet) expectedFailed.clone();
+		expectedBoth.and(expectedRetried);
+
+		assertEquals(expectedFailed.cardinality(), failed.cardinality());
+		assertEquals(expectedPending, toBitSet(failed.andNot(retried)));
+		assertEquals(expectedBoth, toBitSet(failed.and(retried)));
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		failed.writeTo(new DataOutputStream(buffer));
+		CompressedBitmap restored = CompressedBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+		assertEquals(expectedFailed, toBitSet(restored));
+	}
+
+	@Test
+	void forEachStopsWhenVisitorReturnsFalse() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		for (int i = 0; i < 100; i++) {
+			bitmap.add(i * 1_000);
+		}
+		List<Integer> visited = new ArrayList<>();
+		bitmap.forEach(value -> {
+			visited.add(value);
+			return visited.size() < 3;
+		});
+		assertEquals(List.of(0, 1_000, 2_000), visited);
+	}
+
+	private static BitSet toBitSet(CompressedBitmap bitmap) {
+		BitSet bitSet = new BitSet();
+		bitmap.forEach(value -> {
+			bitSet.set(value);
+			return true;
+		});
+		return bitSet;
+	}
+}
@@ -0,0 +1,78 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+	private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void becomesIdleOnlyOnceEverySubmittedTaskHasCompleted() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger completed = new AtomicInteger();
+		for (int i = 0; i < 10; i++) {
+			executor.execute(i % 2 == 0 ? "key-" + i % 3 : null, () -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				completed.incrementAndGet();
+			});
+		}
+
+		assertFalse(executor.awaitIdle(Duration.ofMillis(100)));
+		release.countDown();
+		assertTrue(executor.awaitIdle(Duration.ofSeconds(10)));
+		assertEquals(10, completed.get());
+	}
+
+	@Test
+	void runsTheTasksOfAKeyOneAtATimeInSubmissionOrder() throws InterruptedException {
+		int keys = 8;
+		int perKey = 500;
+		Map<String, List<Integer>> order = new ConcurrentHashMap<>();
+		Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+		AtomicBoolean overlapped = new AtomicBoolean();
+		for (int i = 0; i < perKey; i++) {
+			for (int k = 0; k < keys; k++) {
+				String key = "+1415555010" + k;
+				int sequence = i;
+				executor.execute(key, () -> {
+					if (running.computeIfAbsent(key, ignored -> new AtomicInteger()).incrementAndGet() > 1) {
+						overlapped.set(true);
+					}
+					order.computeIfAbsent(key, ignored -> new ArrayList<>()).add(sequence);
+					running.get(key).decrementAndGet();
+				});
+			}
+		}
+
+		assertTrue(executor.awaitIdle(Duration.ofSeconds(10)));
+		assertFalse(overlapped.get());
+		assertEquals(keys, order.size());
+		for (List<Integer> sequences : order.values()) {
+			assertEquals(perKey, sequences.size());
+			for (int i = 0; i < perKey; i++) {
+				assertEquals(i, sequences.get(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkAddressesTest {
+
+	@Test
+	void classifiesLocalPrivateAndReservedAddressesAsInternal() throws UnknownHostException {
+		for (String address : new String[]{"0.0.0.0", "127.0.0.1", "10.1.2.3", "172.16.0.1", "172.31.255.255",
+				"192.168.1.1", "169.254.169.254", "100.64.0.1", "224.0.0.1", "255.255.255.255",
+				"::", "::1", "fe80::1", "fd00::1", "::ffff:127.0.0.1", "::10.0.0.1", "64:ff9b::a9fe:a9fe"}) {
+			assertTrue(NetworkAddresses.isInternal(InetAddress.getByName(address)), address);
+		}
+		for (String address : new String[]{"8.8.8.8", "172.32.0.1", "100.128.0.1", "93.184.216.34", "2606:4700::1111"}) {
+			assertFalse(NetworkAddresses.isInternal(InetAddress.getByName(address)), address);
+		}
+	}
+
+	@Test
+	void recognisesInternalHostsWithoutResolvingThem() {
+		assertTrue(NetworkAddresses.isInternalLiteral("LOCALHOST"));
+		assertTrue(NetworkAddresses.isInternalLiteral("admin.localhost"));
+		assertTrue(NetworkAddresses.isInternalLiteral("192.168.0.10"));
+		assertFalse(NetworkAddresses.isInternalLiteral("8.8.8.8"));
+		assertFalse(NetworkAddresses.isInternalLiteral("client.example.com"));
+		assertFalse(NetworkAddresses.isInternalLiteral("10.example.com"));
+	}
+}
@@ -0,0 +1,56 @@
+package com.microservice.notification.notification_service.utils;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineHeadersTest {
+
+	private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+	@Test
+	void restoresTheTraceAndStageTimestampsOfTheProducer() {
+		NotificationRequest sent = new NotificationRequest();
+		sent.setTraceparent(TRACEPARENT);
+		sent.setReceivedAt(1_000L);
+		sent.setCreatedAt(1_010L);
+		NotificationRequest consumed = new NotificationRequest();
+		consumed.setProviderAcceptedAt(5L);
+
+		PipelineHeaders.apply(record(new RecordHeaders(PipelineHeaders.of(sent)), 1_020L), consumed);
+
+		assertEquals(TraceContext.traceId(TRACEPARENT), TraceContext.traceId(consumed.getTraceparent()));
+		assertNotEquals(TRACEPARENT, consumed.getTraceparent());
+		assertEquals(1_000L, consumed.getReceivedAt());
+		assertEquals(1_010L, consumed.getCreatedAt());
+		assertEquals(1_020L, consumed.getEnqueuedAt());
+		assertNotNull(consumed.getConsumedAt());
+		assertNull(consumed.getProviderAcceptedAt());
+		assertFalse(PipelineHeaders.isRedrive(new RecordHeaders(PipelineHeaders.of(sent))));
+		assertTrue(PipelineHeaders.isRedrive(new RecordHeaders(PipelineHeaders.ofRedrive(sent))));
+	}
+
+	@Test
+	void fallsBackToTheMessageBodyWithoutHeaders() {
+		NotificationRequest consumed = new NotificationRequest();
+		consumed.setTraceparent(TRACEPARENT);
+		consumed.setReceivedAt(1_000L);
+
+		PipelineHeaders.apply(record(new RecordHeaders(), ConsumerRecord.NO_TIMESTAMP), consumed);
+
+		assertEquals(TraceContext.traceId(TRACEPARENT), TraceContext.traceId(consumed.getTraceparent()));
+		assertEquals(1_000L, consumed.getReceivedAt());
+		assertNull(consumed.getEnqueuedAt());
+	}
+
+	private static ConsumerRecord<String, String> record(RecordHeaders headers, long timestamp) {
+		return new ConsumerRecord<>("SMS_TOPIC", 0, 0L, timestamp, TimestampType.CREATE_TIME, 0, 0, "key", "{}", headers,
+				Optional.empty());
+	}
+}
@@ -0,0 +1,81 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCountersTest {
+
+	private static final long HOUR = TimeUnit.HOURS.toSeconds(1);
+	private static final long START = 1_700_000_000_000L / (HOUR * 1000) * (HOUR * 1000);
+
+	@Test
+	void limitsEventsWithinASlidingWindow() {
+		SlidingWindowCounters counters = new SlidingWindowCounters(1024, HOUR);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(42, 5, HOUR, START + 10 * 60_000));
+		}
+		assertEquals(SlidingWindowCounters.Outcome.LIMITED, counters.record(42, 5, HOUR, START + 20 * 60_000));
+		// Another key, or a higher limit for the same key, is not affected
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(43, 5, HOUR, START + 20 * 60_000));
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(42, 10, HOUR, START + 20 * 60_000));
+
+		// A quarter into the next window, three quarters of the previous six events still count
+		assertEquals(SlidingWindowCounters.Outcome.LIMITED, counters.record(42, 4, HOUR, START + 75 * 60_000));
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(42, 5, HOUR, START + 75 * 60_000));
+		// The previous window weighs nothing at the end of a window, and fully at the start of the next
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(42, 2, HOUR, START + 119 * 60_000 + 59_000));
+		assertEquals(SlidingWindowCounters.Outcome.LIMITED, counters.record(42, 2, HOUR, START + 120 * 60_000));
+		// Two windows later, nothing counts any more
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(42, 1, HOUR, START + 240 * 60_000));
+	}
+
+	@Test
+	void handsSlotsOfIdleKeysOverToNewKeys() {
+		SlidingWindowCounters counters = new SlidingWindowCounters(1, HOUR);
+		// Keys sharing a stripe and a first slot compete for the same 16 probes
+		for (long key = 1; key <= 16; key++) {
+			assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(key << 32 | 7, 1, HOUR, START));
+		}
+		assertEquals(SlidingWindowCounters.Outcome.UNTRACKED, counters.record(17L << 32 | 7, 1, HOUR, START));
+		assertEquals(16, counters.activeKeys(START));
+
+		long later = START + 2 * HOUR * 1000;
+		assertEquals(0, counters.activeKeys(later));
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(17L << 32 | 7, 1, HOUR, later));
+		assertEquals(SlidingWindowCounters.Outcome.LIMITED, counters.record(17L << 32 | 7, 1, HOUR, later));
+		// The idle key whose slot was handed over starts afresh
+		assertEquals(SlidingWindowCounters.Outcome.COUNTED, counters.record(1L << 32 | 7, 1, HOUR, later));
+	}
+
+	@Test
+	void countsExactlyUpToTheLimitUnderContention() throws Exception {
+		SlidingWindowCounters counters = new SlidingWindowCounters(1024, HOUR);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			futures.add(executor.submit(() -> {
+				int counted = 0;
+				for (int i = 0; i < 10_000; i++) {
+					if (counters.record(99, 1000, HOUR, START) == SlidingWindowCounters.Outcome.COUNTED) {
+						counted++;
+					}
+				}
+				return counted;
+			}));
+		}
+		int counted = 0;
+		for (Future<Integer> future : futures) {
+			counted += future.get();
+		}
+		executor.shutdown();
+		assertEquals(1000, counted);
+	}
+}
@@ -0,0 +1,75 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuppressionSetTest {
+
+	@Test
+	void containsExactlyTheAddedRecipientsIgnoringCase() {
+		SuppressionSet set = new SuppressionSet(200_000, 200_000 * 24L);
+		for (int i = 0; i < 100_000; i++) {
+			assertTrue(set.add(String.format("+1415%07d", i)));
+			assertTrue(set.add("User" + i + "@Example.com"));
+		}
+		assertTrue(set.add("+14150000000"));
+		assertEquals(200_000, set.size());
+
+		for (int i = 0; i < 100_000; i++) {
+			assertTrue(set.contains(String.format("+1415%07d", i)));
+			assertTrue(set.contains("user" + i + "@example.COM"));
+			// The Bloom filter lets some of these through, the table must still reject them
+			assertFalse(set.contains(String.format("+1416%07d", i)));
+			assertFalse(set.contains("user" + i + "@example.org"));
+		}
+		assertFalse(set.contains(""));
+		assertFalse(set.contains("usér@example.com"));
+		assertFalse(set.contains("x".repeat(SuppressionSet.MAX_LENGTH + 1)));
+		assertThrows(IllegalArgumentException.class, () -> set.add("usér@example.com"));
+	}
+
+	@Test
+	void refusesRecipientsOnceFull() {
+		SuppressionSet entries = new SuppressionSet(2, 1024);
+		assertTrue(entries.add("+14155550100"));
+		assertTrue(entries.add("+14155550101"));
+		assertFalse(entries.add("+14155550102"));
+		assertTrue(entries.add("+14155550101"));
+
+		SuppressionSet bytes = new SuppressionSet(16, 20);
+		assertTrue(bytes.add("+14155550100"));
+		assertFalse(bytes.add("+14155550101"));
+		assertFalse(bytes.contains("+14155550101"));
+	}
+
+	@Test
+	void readersSeeRecipientsAddedConcurrently() throws InterruptedException {
+		int count = 200_000;
+		SuppressionSet set = new SuppressionSet(count, count * 14L);
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger missing = new AtomicInteger();
+		Thread reader = new Thread(() -> {
+			while (!done.get()) {
+				// Everything counted by size() has been published
+				int published = set.size();
+				for (int i = Math.max(0, published - 1000); i < published; i++) {
+					if (!set.contains(String.format("+1%011d", i))) {
+						missing.incrementAndGet();
+					}
+				}
+			}
+		});
+		reader.start();
+		for (int i = 0; i < count; i++) {
+			set.add(String.format("+1%011d", i));
+		}
+		done.set(true);
+		reader.join();
+		assertEquals(0, missing.get());
+		assertEquals(count, set.size());
+	}
+}
@@ -0,0 +1,79 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdsTest {
+
+	@Test
+	void generatesVersion7IdentifiersInCreationOrderAcrossThreads() throws Exception {
+		int threads = 4;
+		int perThread = 20_000;
+		ConcurrentLinkedQueue<String> generated = new ConcurrentLinkedQueue<>();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<List<String>>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				List<String> ids = new ArrayList<>(perThread);
+				for (int i = 0; i < perThread; i++) {
+					ids.add(TimeOrderedIds.next());
+				}
+				return ids;
+			}));
+		}
+		for (Future<List<String>> future : futures) {
+			List<String> ids = future.get();
+			// Each thread sees its own identifiers in strictly increasing byte order
+			for (int i = 1; i < ids.size(); i++) {
+				assertTrue(Arrays.compareUnsigned(TimeOrderedIds.toBytes(ids.get(i - 1)), TimeOrderedIds.toBytes(ids.get(i))) < 0);
+			}
+			generated.addAll(ids);
+		}
+		executor.shutdown();
+
+		assertEquals(threads * perThread, generated.stream().distinct().count());
+		UUID uuid = UUID.fromString(generated.peek());
+		assertEquals(7, uuid.version());
+		assertEquals(2, uuid.variant());
+		assertTrue(Math.abs((uuid.getMostSignificantBits() >>> 16) - System.currentTimeMillis()) < 60_000);
+	}
+
+	@Test
+	void convertsToAndFromSixteenBytes() {
+		String generated = TimeOrderedIds.next();
+		String random = UUID.randomUUID().toString();
+		for (String identifier : List.of(generated, random)) {
+			byte[] bytes = TimeOrderedIds.toBytes(identifier);
+			assertEquals(16, bytes.length);
+			assertEquals(identifier, TimeOrderedIds.fromBytes(bytes));
+		}
+		assertEquals(generated, TimeOrderedIds.fromBytes(TimeOrderedIds.toBytes(generated.toUpperCase())));
+
+		assertNull(TimeOrderedIds.toBytes(null));
+		assertNull(TimeOrderedIds.toBytes("not-an-identifier"));
+		assertNull(TimeOrderedIds.toBytes("0b8f6a52-3c1e-4d0e-9a4f+6f3f0c2d9e71"));
+		assertNull(TimeOrderedIds.toBytes("0b8f6a52-3c1e-4d0e-9a4f-6f3f0c2d9eZ1"));
+	}
+
+	@Test
+	void readsTheCreationTimeOfTimeOrderedIdentifiersOnly() {
+		long before = System.currentTimeMillis();
+		Long createdAt = TimeOrderedIds.createdAt(TimeOrderedIds.next());
+		assertNotNull(createdAt);
+		assertTrue(createdAt >= before && createdAt <= System.currentTimeMillis() + 1000);
+
+		assertNull(TimeOrderedIds.createdAt(UUID.randomUUID().toString()));
+		assertNull(TimeOrderedIds.createdAt(null));
+		assertNull(TimeOrderedIds.createdAt("not-an-identifier"));
+	}
+}
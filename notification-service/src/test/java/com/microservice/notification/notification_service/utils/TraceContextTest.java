@@ -0,0 +1,30 @@
+package com.microservice.notification.notification_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceContextTest {
+
+	private static final String INCOMING = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+	@Test
+	void continuesTheTraceWithANewSpan() {
+		String traceparent = TraceContext.continueOrStart(INCOMING);
+
+		assertEquals(TraceContext.traceId(INCOMING), TraceContext.traceId(traceparent));
+		assertNotEquals(INCOMING.substring(36, 52), traceparent.substring(36, 52));
+		assertTrue(traceparent.endsWith("-01"));
+	}
+
+	@Test
+	void startsANewTraceForMissingOrMalformedContext() {
+		for (String incoming : new String[]{null, "", "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+				"00-00000000000000000000000000000000-00f067aa0ba902b7-01", "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"}) {
+			String traceparent = TraceContext.continueOrStart(incoming);
+
+			assertTrue(traceparent.matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01"), traceparent);
+			assertNotEquals(TraceContext.traceId(INCOMING), TraceContext.traceId(traceparent));
+		}
+	}
+}
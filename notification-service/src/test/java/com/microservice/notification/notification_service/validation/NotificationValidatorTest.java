@@ -0,0 +1,103 @@
+package com.microservice.notification.notification_service.validation;
+
+import com.microservice.notification.notification_service.entities.NotificationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationValidatorTest {
+
+	private final NotificationValidator validator = new NotificationValidator();
+
+	@Test
+	void acceptsValidRequestsAtEveryStageWithoutErrors() {
+		NotificationRequest sms = request("sms", "+14155550100", null);
+		sms.setCallbackUrl("https://client.example.com:8443/callbacks?source=notification");
+		assertTrue(validator.validate(sms, NotificationValidator.Stage.API).isEmpty());
+
+		sms.setIdentifier("0192f1c4-8e1a-7b3c-9d2e-4f5a6b7c8d9e");
+		assertTrue(validator.validate(sms, NotificationValidator.Stage.SMS_CONSUMER).isEmpty());
+
+		NotificationRequest email = request("EMAIL", null, "first.last+tag@mail.example.co.uk");
+		email.setIdentifier("0192f1c4-8e1a-7b3c-9d2e-4f5a6b7c8d9f");
+		email.setNotificationContent(null);
+		email.setContentRef("blobs/0192f1c4");
+		assertTrue(validator.validate(email, NotificationValidator.Stage.EMAIL_CONSUMER).isEmpty());
+	}
+
+	@Test
+	void reportsEveryInvalidFieldOfARequest() {
+		NotificationRequest request = request("PIGEON", "14155550100", "not-an-address");
+		request.setNotificationContent("");
+		request.setCallbackUrl("ftp://client.example.com");
+
+		assertEquals(List.of(NotificationValidator.TYPE_INVALID, NotificationValidator.PHONE_INVALID,
+						NotificationValidator.EMAIL_INVALID, NotificationValidator.CONTENT_MISSING, NotificationValidator.CALLBACK_INVALID),
+				validator.validate(request, NotificationValidator.Stage.API));
+		assertEquals(List.of(NotificationValidator.REQUEST_MISSING), validator.validate(null, NotificationValidator.Stage.API));
+		assertEquals(List.of(NotificationValidator.EMAIL_MISSING),
+				validator.validate(request("Email", "+14155550100", null), NotificationValidator.Stage.API));
+		assertEquals(List.of(NotificationValidator.IDENTIFIER_MISSING, NotificationValidator.PHONE_MISSING),
+				validator.validate(request("SMS", null, "user@example.com"), NotificationValidator.Stage.SMS_CONSUMER));
+	}
+
+	@Test
+	void refusesCallbackUrlsToTheLocalHostOrInternalAddresses() {
+		assertTrue(NotificationValidator.isCallbackUrl("https://8.8.8.8/callbacks"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://localhost:8080/callbacks"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://api.localhost/callbacks"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://127.0.0.1/callbacks"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://169.254.169.254/latest/meta-data"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://10.0.0.7:9092"));
+		assertFalse(NotificationValidator.isCallbackUrl("http://[::1]/callbacks"));
+	}
+
+	@Test
+	void matchesPhoneNumbersAgainstE164() {
+		assertTrue(NotificationValidator.isE164("+14155550100"));
+		assertTrue(NotificationValidator.isE164("+919876543210"));
+		assertTrue(NotificationValidator.isE164("+123456789012345"));
+		assertFalse(NotificationValidator.isE164("+1234567890123456"));
+		assertFalse(NotificationValidator.isE164("14155550100"));
+		assertFalse(NotificationValidator.isE164("+04155550100"));
+		assertFalse(NotificationValidator.isE164("+1 415 555 0100"));
+		assertFalse(NotificationValidator.isE164("+1"));
+	}
+
+	@Test
+	void matchesEmailSyntax() {
+		assertTrue(NotificationValidator.isEmail("user@example.com"));
+		assertTrue(NotificationValidator.isEmail("o'brien_{x}@sub-domain.example.org"));
+		assertFalse(NotificationValidator.isEmail("user@example"));
+		assertFalse(NotificationValidator.isEmail("user@example.c"));
+		assertFalse(NotificationValidator.isEmail("user@example.123"));
+		assertFalse(NotificationValidator.isEmail("@example.com"));
+		assertFalse(NotificationValidator.isEmail("user.@example.com"));
+		assertFalse(NotificationValidator.isEmail("us..er@example.com"));
+		assertFalse(NotificationValidator.isEmail("user@-example.com"));
+		assertFalse(NotificationValidator.isEmail("user@example..com"));
+		assertFalse(NotificationValidator.isEmail("us er@example.com"));
+		assertFalse(NotificationValidator.isEmail("a@b@example.com"));
+		assertFalse(NotificationValidator.isEmail("x".repeat(65) + "@example.com"));
+	}
+
+	@Test
+	void checksCampaignRecipientsAgainstTheirChannel() {
+		assertTrue(validator.isValidRecipient("whatsapp", "+14155550100"));
+		assertTrue(validator.isValidRecipient("EMAIL", "user@example.com"));
+		assertFalse(validator.isValidRecipient("SMS", "user@example.com"));
+		assertFalse(validator.isValidRecipient("EMAIL", "+14155550100"));
+		assertFalse(validator.isValidRecipient("PIGEON", "+14155550100"));
+	}
+
+	private static NotificationRequest request(String type, String phone, String email) {
+		NotificationRequest request = new NotificationRequest();
+		request.setNotificationType(type);
+		request.setPhone(phone);
+		request.setEmail(email);
+		request.setNotificationContent("Your code is 123456.");
+		return request;
+	}
+}